@@ -0,0 +1,105 @@
+package benchmarks;
+
+import model.EdgeStyle;
+import model.Graph;
+import model.Node;
+import model.NodeStyle;
+import utils.GraphGenerator;
+import utils.GraphIO;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * @version 1.1
+ *
+ * Loads the graphs that the benchmarks run on. A graph is named either after one of the example graph files, e.g.
+ * "usa" for "examples/usa.graph", or after a GraphGenerator model and a number of Nodes, e.g. "grid-10000" - the
+ * models are "er", "grid", "ba", and "geometric". Generated graphs always use the same seed, so every run benchmarks
+ * exactly the same graph.
+ *
+ * The examples directory is looked up relative to the working directory, which can be overridden with the
+ * "mcgraph.examples" system property.
+ *
+ * @see GraphGenerator
+ */
+public final class BenchmarkGraphs {
+
+    private static final String EXAMPLES_DIRECTORY = System.getProperty("mcgraph.examples", "../examples");
+    private static final long SEED = 0x6d63677261706821L;
+
+    /**
+     * @param name The name of the graph to load.
+     * @return The loaded graph, with its first Node marked as the start Node and its last Node marked as the goal Node
+     * if the graph did not have them marked already.
+     * @throws IOException If the example graph file could not be loaded.
+     */
+    public static Graph load(String name) throws IOException {
+        Graph graph = generate(name);
+        if (graph == null) {
+            graph = new Graph();
+            GraphIO.readGraph(graph, getExamplePath(name), false);
+        }
+
+        List<Node> nodes = graph.getNodes();
+        if (!nodes.isEmpty() && graph.getStartNode() == null)
+            graph.setStartNode(nodes.get(0));
+        if (nodes.size() > 1 && graph.getGoalNode() == null)
+            graph.setGoalNode(nodes.get(nodes.size() - 1));
+        return graph;
+    }
+
+    /**
+     * @param name The name of an example graph.
+     * @return The path to the example graph file.
+     */
+    public static String getExamplePath(String name) {
+        return new File(EXAMPLES_DIRECTORY, name + ".graph").getPath();
+    }
+
+    /**
+     * Generates a graph with a mix of Edge directions and all Node and Edge styles, so that every code path gets
+     * exercised. A few Edges have negative weights.
+     *
+     * @param name The name of the graph to generate, e.g. "ba-500".
+     * @return The generated graph, or null if the name does not name a generated graph.
+     */
+    private static Graph generate(String name) {
+        int separator = name.lastIndexOf('-');
+        if (separator < 0)
+            return null;
+
+        GraphGenerator.Model model;
+        switch (name.substring(0, separator)) {
+            case "er":
+                model = GraphGenerator.Model.ERDOS_RENYI;
+                break;
+            case "grid":
+                model = GraphGenerator.Model.GRID;
+                break;
+            case "ba":
+                model = GraphGenerator.Model.BARABASI_ALBERT;
+                break;
+            case "geometric":
+                model = GraphGenerator.Model.RANDOM_GEOMETRIC;
+                break;
+            default:
+                return null;
+        }
+
+        GraphGenerator generator = new GraphGenerator(model, Integer.parseInt(name.substring(separator + 1)));
+        generator.setDirectedFraction(0.5);
+        generator.setNegativeWeightFraction(0.05);
+        generator.setNodeStyles(NodeStyle.values());
+        generator.setEdgeStyles(EdgeStyle.values());
+        generator.setSeed(SEED);
+        return generator.generate();
+    }
+
+    /**
+     * This class contains only static fields and methods and should never be instantiated.
+     */
+    private BenchmarkGraphs() {}
+
+}
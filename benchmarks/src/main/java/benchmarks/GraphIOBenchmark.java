@@ -0,0 +1,62 @@
+package benchmarks;
+
+import model.Graph;
+import org.openjdk.jmh.annotations.*;
+import utils.GraphIO;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.1
+ *
+ * Benchmarks loading and saving graphs in every file format. Every graph is first written to a temporary file in the
+ * benchmarked format, which is then loaded over and over.
+ *
+ * @see GraphIO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphIOBenchmark {
+
+    @Param({"usa", "1024nodes", "er-10000", "grid-100000"})
+    public String graphName;
+
+    @Param({"graph", "graph.gz", "graphz"})
+    public String extension;
+
+    private Graph graph;
+    private File loadFile;
+    private File saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        graph = BenchmarkGraphs.load(graphName);
+        loadFile = File.createTempFile("mcgraph-load-", "." + extension);
+        saveFile = File.createTempFile("mcgraph-save-", "." + extension);
+        GraphIO.writeGraph(graph, loadFile.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loadFile.delete();
+        saveFile.delete();
+    }
+
+    @Benchmark
+    public Graph load() throws IOException {
+        Graph loaded = new Graph();
+        GraphIO.readGraph(loaded, loadFile.getPath(), false);
+        return loaded;
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        GraphIO.writeGraph(graph, saveFile.getPath());
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import controller.SelectionController;
+import model.Edge;
+import model.Graph;
+import model.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.2
+ *
+ * Benchmarks finding the Node and Edge under the mouse, which happens on every mouse move. The query points are spread
+ * uniformly over the bounds of the graph, so most of them miss - just like most mouse positions do. Edges are hit
+ * tested against their paths flattened at the given scale, just like at that zoom level in the GraphPanel.
+ *
+ * @see SelectionController
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitTestBenchmark {
+
+    private static final int NUM_POINTS = 1024;
+
+    @Param({"usa", "1024nodes", "geometric-10000", "grid-100000"})
+    public String graphName;
+
+    @Param({"0.25", "1", "4"})
+    public double scale;
+
+    private Graph graph;
+    private Point2D[] points;
+    private int nextPoint;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        graph = BenchmarkGraphs.load(graphName);
+
+        Rectangle2D bounds = graph.getBounds();
+        Random random = new Random(NUM_POINTS);
+        points = new Point2D[NUM_POINTS];
+        for (int i = 0; i < NUM_POINTS; ++i) {
+            double x = bounds.getX() + random.nextDouble() * bounds.getWidth();
+            double y = bounds.getY() + random.nextDouble() * bounds.getHeight();
+            points[i] = new Point2D.Double(x, y);
+        }
+        nextPoint = 0;
+    }
+
+    private Point2D nextPoint() {
+        nextPoint = (nextPoint + 1) % NUM_POINTS;
+        return points[nextPoint];
+    }
+
+    @Benchmark
+    public Node getNodeAt() {
+        return SelectionController.getNodeAt(graph, nextPoint());
+    }
+
+    @Benchmark
+    public Edge getEdgeAt() {
+        return SelectionController.getEdgeAt(graph, nextPoint(), scale);
+    }
+}
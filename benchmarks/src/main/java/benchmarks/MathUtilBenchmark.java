@@ -0,0 +1,84 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.MathUtil;
+
+import java.awt.geom.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.0
+ *
+ * Benchmarks the Bezier curve intersection and containment tests used for hit-testing and rubber-band selection of
+ * Edges. Every test is run both against a rectangle that touches the curve and one that misses it, since these take
+ * very different paths through the recursive subdivision.
+ *
+ * @see MathUtil
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilBenchmark {
+
+    @Param({"hit", "miss"})
+    public String target;
+
+    private QuadCurve2D quadCurve;
+    private CubicCurve2D cubicCurve;
+    private Path2D spline;
+    private Rectangle2D rect;
+    private Rectangle2D bigRect;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Point2D p1 = new Point2D.Double(0, 0);
+        Point2D p2 = new Point2D.Double(100, 150);
+        Point2D p3 = new Point2D.Double(200, 0);
+        Point2D p4 = new Point2D.Double(300, -150);
+        Point2D p5 = new Point2D.Double(400, 0);
+        quadCurve = MathUtil.quadraticCurveThrough(p1, p2, p3);
+        cubicCurve = new CubicCurve2D.Double(0, 0, 100, 200, 200, -200, 300, 0);
+        spline = MathUtil.cubicSplineThrough(p1, p2, p3, p4, p5);
+
+        if (target.equals("hit")) {
+            rect = MathUtil.centeredRectangle(200, 0, 5, 5);
+            bigRect = new Rectangle2D.Double(-10, -250, 420, 500);
+        } else {
+            rect = MathUtil.centeredRectangle(200, 400, 5, 5);
+            bigRect = new Rectangle2D.Double(-10, -250, 210, 500);
+        }
+    }
+
+    @Benchmark
+    public boolean intersectsQuadCurve() {
+        return MathUtil.intersects(quadCurve, rect, 1);
+    }
+
+    @Benchmark
+    public boolean intersectsCubicCurve() {
+        return MathUtil.intersects(cubicCurve, rect, 1);
+    }
+
+    @Benchmark
+    public boolean intersectsPath() {
+        return MathUtil.intersects(spline, rect, 1);
+    }
+
+    @Benchmark
+    public boolean containsQuadCurve() {
+        return MathUtil.contains(bigRect, quadCurve, 1);
+    }
+
+    @Benchmark
+    public boolean containsCubicCurve() {
+        return MathUtil.contains(bigRect, cubicCurve, 1);
+    }
+
+    @Benchmark
+    public boolean containsPath() {
+        return MathUtil.contains(bigRect, spline, 1);
+    }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import controller.Solver;
+import model.Edge;
+import model.Graph;
+import model.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.1
+ *
+ * Benchmarks the Solver operations on example and synthetic graphs. Coloring is quadratic in the number of Nodes, so
+ * the synthetic graphs here are kept small.
+ *
+ * @see Solver
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"usa", "europe", "1024nodes", "negative-cycle", "ba-500", "geometric-500"})
+    public String graphName;
+
+    private final Solver solver = Solver.getInstance();
+    private Graph graph;
+    private Node start;
+    private Node goal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        graph = BenchmarkGraphs.load(graphName);
+        start = graph.getStartNode();
+        goal = graph.getGoalNode();
+    }
+
+    @Benchmark
+    public Map<Node, Double> exploreWholeGraph() {
+        Map<Node, Double> dist = new HashMap<>();
+        Map<Node, Edge> path = new HashMap<>();
+        solver.exploreWholeGraph(graph, start, dist, path);
+        return dist;
+    }
+
+    @Benchmark
+    public List<Edge> findShortestPath() {
+        return solver.findShortestPath(graph, start, goal);
+    }
+
+    @Benchmark
+    public Map<Node, Integer> findColoring() {
+        return solver.findColoring(graph);
+    }
+
+    @Benchmark
+    public Graph colorGraph() {
+        solver.colorGraph(graph);
+        //NOTE: colorGraph() records an undoable edit every time - don't let them pile up between invocations.
+        graph.getUndoManager().discardAllEdits();
+        return graph;
+    }
+}
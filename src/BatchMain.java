@@ -0,0 +1,449 @@
+import controller.Solver;
+import model.Edge;
+import model.Graph;
+import model.Node;
+import utils.GraphIO;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @version 1.2
+ *
+ * This class is a headless entry point of the application that runs Solver operations on many graph files without ever
+ * opening a window, e.g. in CI or on a server without a display. Every input file is loaded, solved, and written out
+ * by a fixed pool of worker threads, so several files are processed in parallel. The results are written either as
+ * marked graph files - exactly as if the operation had been run from the menu - or as CSV or JSON tables.
+ *
+ * Usage: java BatchMain [--op explore|path|color] [--format graph|csv|json] [--start NODE] [--goal NODE] [--out DIR]
+ *                       [--threads N] FILE|DIR...
+ *
+ * Exploring starts from the start node, and the path runs from the start to the goal node. Both are taken from each
+ * file, unless they are given with --start and --goal - either as the index of a node, or as the name of exactly one
+ * node. Indices take precedence over names.
+ *
+ * Directories are expanded into all graph files directly inside them. Output files are named after the input file and
+ * the operation, e.g. "usa.graph" explored with CSV output becomes "usa-explore.csv", and are placed next to the input
+ * file unless an output directory is given.
+ *
+ * @see Solver
+ * @see GraphIO
+ */
+public class BatchMain {
+
+    private static final String USAGE =
+            "Usage: java BatchMain [--op explore|path|color] [--format graph|csv|json] [--start NODE] [--goal NODE]"
+                    + " [--out DIR] [--threads N] FILE|DIR...";
+
+    /**
+     * The Solver operations that can be run on every file.
+     */
+    private enum Operation { EXPLORE, PATH, COLOR }
+
+    /**
+     * The formats that the results can be written in.
+     */
+    private enum Format { GRAPH, CSV, JSON }
+
+    /**
+     * The main method that parses the command line, processes all input files, and exits with a non-zero status if
+     * any of them failed.
+     * @param args the options and input files, see USAGE.
+     */
+    public static void main(String[] args) {
+        //NOTE: This has to be set before any AWT class is loaded. Nothing in here needs a display, and setting it
+        // makes sure that nothing accidentally tries to open one.
+        System.setProperty("java.awt.headless", "true");
+
+        Operation operation = Operation.EXPLORE;
+        Format format = Format.GRAPH;
+        String start = null;
+        String goal = null;
+        File outDirectory = null;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        List<File> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                switch (args[i]) {
+                    case "--op":
+                        operation = Operation.valueOf(nextArgument(args, ++i).toUpperCase(Locale.ROOT));
+                        break;
+                    case "--format":
+                        format = Format.valueOf(nextArgument(args, ++i).toUpperCase(Locale.ROOT));
+                        break;
+                    case "--start":
+                        start = nextArgument(args, ++i);
+                        break;
+                    case "--goal":
+                        goal = nextArgument(args, ++i);
+                        break;
+                    case "--out":
+                        outDirectory = new File(nextArgument(args, ++i));
+                        break;
+                    case "--threads":
+                        numThreads = Math.max(1, Integer.parseInt(nextArgument(args, ++i)));
+                        break;
+                    default:
+                        if (args[i].startsWith("--"))
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        addInputs(new File(args[i]), inputs);
+                        break;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        if (inputs.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if (outDirectory != null)
+            outDirectory.mkdirs();
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(numThreads, inputs.size()));
+        List<Future<String>> results = new ArrayList<>(inputs.size());
+        for (File input : inputs) {
+            File output = getOutputFile(input, outDirectory, operation, format);
+            Operation op = operation;
+            Format fmt = format;
+            String startNode = start;
+            String goalNode = goal;
+            results.add(workers.submit(() -> process(input, output, op, fmt, startNode, goalNode)));
+        }
+        workers.shutdown();
+
+        int numFailed = 0;
+        for (int i = 0; i < inputs.size(); ++i) {
+            try {
+                System.out.println(inputs.get(i) + ": " + results.get(i).get());
+            } catch (ExecutionException e) {
+                ++numFailed;
+                Throwable cause = e.getCause();
+                System.err.println(inputs.get(i) + ": FAILED - " + cause.getClass().getSimpleName() + ": " + cause.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.exit(1);
+            }
+        }
+
+        System.out.println((inputs.size() - numFailed) + " of " + inputs.size() + " file(s) processed successfully");
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Loads one graph file, runs the given operation on it, and writes the results.
+     *
+     * @param input The graph file to process.
+     * @param output The file to write the results to.
+     * @param operation The Solver operation to run.
+     * @param format The format to write the results in.
+     * @param start The index or name of the start Node, or null to use the one marked in the file.
+     * @param goal The index or name of the goal Node, or null to use the one marked in the file.
+     * @return A short summary of what was done, to be reported to the user.
+     * @throws IOException If the graph could not be loaded or the results could not be written.
+     */
+    private static String process(File input, File output, Operation operation, Format format, String start,
+                                  String goal) throws IOException {
+        long startTime = System.nanoTime();
+
+        Graph graph = new Graph();
+        GraphIO.readGraph(graph, input.getPath(), false);
+        if (start != null)
+            graph.setStartNode(findNode(graph, start));
+        if (goal != null)
+            graph.setGoalNode(findNode(graph, goal));
+        if (operation != Operation.COLOR && graph.getStartNode() == null)
+            throw new IllegalStateException("Graph has no start node, choose one with --start");
+        if (operation == Operation.PATH && graph.getGoalNode() == null)
+            throw new IllegalStateException("Graph has no goal node, choose one with --goal");
+
+        Solver solver = Solver.getInstance();
+        String note = "";
+        if (format == Format.GRAPH) {
+            switch (operation) {
+                case EXPLORE:
+                    solver.exploreAndMarkWholeGraph(graph);
+                    break;
+                case PATH:
+                    if (!solver.markShortestPath(graph))
+                        note = " (no path)";
+                    break;
+                case COLOR:
+                    solver.colorGraph(graph);
+                    break;
+            }
+            GraphIO.writeGraph(graph, output.getPath());
+        } else {
+            Table table;
+            switch (operation) {
+                case EXPLORE:
+                    table = getDistanceTable(graph);
+                    break;
+                case PATH:
+                    table = getPathTable(graph);
+                    if (table.rows.isEmpty())
+                        note = " (no path)";
+                    break;
+                default:
+                    table = getColoringTable(graph);
+                    break;
+            }
+            try (Writer writer = new BufferedWriter(new FileWriter(output))) {
+                if (format == Format.CSV)
+                    table.writeCSV(writer);
+                else
+                    table.writeJSON(writer, input.getPath(), operation.name().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        long millis = (System.nanoTime() - startTime) / 1_000_000;
+        return String.format("%d nodes, %d edges -> %s%s (%d ms)",
+                graph.getNodes().size(), graph.getEdges().size(), output.getPath(), note, millis);
+    }
+
+    /**
+     * @param graph The GraphModel to explore from its start Node.
+     * @return A Table with the distance of every Node to the start Node, and the Node it is reached from.
+     */
+    private static Table getDistanceTable(Graph graph) {
+        Node start = graph.getStartNode();
+        List<Node> nodes = graph.getNodes();
+        Map<Node, Double> dist = new HashMap<>(nodes.size());
+        Map<Node, Edge> path = new HashMap<>(nodes.size());
+        Solver.getInstance().exploreWholeGraph(graph, start, dist, path);
+
+        Map<Node, Integer> indices = getIndices(nodes);
+        Table table = new Table("index", "name", "distance", "previous");
+        for (int i = 0; i < nodes.size(); ++i) {
+            Node node = nodes.get(i);
+            Edge edge = path.get(node);
+            Integer previous = edge != null ? indices.get(edge.getOtherNode(node)) : null;
+            table.addRow(i, node.getActualName(), dist.get(node), previous);
+        }
+        return table;
+    }
+
+    /**
+     * @param graph The GraphModel in which to find the shortest path between its start and goal Nodes.
+     * @return A Table with every Node along the shortest path in order, and its distance to the first Node along the
+     * path. The Table is empty if there is no path, and ends where the path runs into a negative cycle.
+     */
+    private static Table getPathTable(Graph graph) {
+        Node start = graph.getStartNode();
+        Node goal = graph.getGoalNode();
+
+        Table table = new Table("step", "index", "name", "distance");
+        List<Edge> path = Solver.getInstance().findShortestPath(graph, start, goal);
+        if (path.isEmpty() && start != goal)
+            return table;
+
+        //NOTE: The path is ordered from the goal back towards the start, so it has to be followed from the goal. If the
+        // path runs into a negative cycle it stops there and never reaches the start.
+        List<Node> pathNodes = new ArrayList<>(path.size() + 1);
+        Node node = goal;
+        pathNodes.add(node);
+        for (Edge edge : path) {
+            node = edge.getOtherNode(node);
+            pathNodes.add(node);
+        }
+        Collections.reverse(pathNodes);
+
+        Map<Node, Integer> indices = getIndices(graph.getNodes());
+        double distance = 0;
+        for (int i = 0; i < pathNodes.size(); ++i) {
+            if (i > 0)
+                distance += path.get(path.size() - i).getActualWeight();
+            Node pathNode = pathNodes.get(i);
+            table.addRow(i, indices.get(pathNode), pathNode.getActualName(), distance);
+        }
+        return table;
+    }
+
+    /**
+     * @param graph The GraphModel whose Nodes to color.
+     * @return A Table with the color index of every Node.
+     */
+    private static Table getColoringTable(Graph graph) {
+        List<Node> nodes = graph.getNodes();
+        Map<Node, Integer> colors = Solver.getInstance().findColoring(graph);
+
+        Table table = new Table("index", "name", "color");
+        for (int i = 0; i < nodes.size(); ++i)
+            table.addRow(i, nodes.get(i).getActualName(), colors.get(nodes.get(i)));
+        return table;
+    }
+
+    /**
+     * @param graph The GraphModel whose Nodes to search.
+     * @param node The index of a Node, or the name of exactly one Node.
+     * @return The Node with the given index, or else the Node with the given name.
+     * @throws IllegalArgumentException If no Node or more than one Node has the given name.
+     */
+    private static Node findNode(Graph graph, String node) {
+        List<Node> nodes = graph.getNodes();
+        try {
+            int index = Integer.parseInt(node);
+            if (index >= 0 && index < nodes.size())
+                return nodes.get(index);
+        } catch (NumberFormatException e) {
+            //NOTE: Not an index, so it has to be a name.
+        }
+
+        Node found = null;
+        for (Node candidate : nodes) {
+            if (node.equals(candidate.getActualName())) {
+                if (found != null)
+                    throw new IllegalArgumentException("More than one node is named \"" + node + "\"");
+                found = candidate;
+            }
+        }
+        if (found == null)
+            throw new IllegalArgumentException("No node has the index or name \"" + node + "\"");
+        return found;
+    }
+
+    /**
+     * @param nodes A List of Nodes.
+     * @return A Map from every Node in the List to its index in the List.
+     */
+    private static Map<Node, Integer> getIndices(List<Node> nodes) {
+        Map<Node, Integer> indices = new IdentityHashMap<>(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i)
+            indices.put(nodes.get(i), i);
+        return indices;
+    }
+
+    /**
+     * Adds the given file to the list of inputs, or all graph files inside it if it is a directory.
+     *
+     * @param file A graph file or a directory containing graph files.
+     * @param outInputs The List of input files to add to.
+     */
+    private static void addInputs(File file, List<File> outInputs) {
+        if (!file.isDirectory()) {
+            outInputs.add(file);
+            return;
+        }
+
+        File[] files = file.listFiles(f -> f.isFile() && GraphIO.isGraphFile(f.getName()));
+        if (files == null)
+            return;
+        Arrays.sort(files);
+        outInputs.addAll(Arrays.asList(files));
+    }
+
+    /**
+     * @param input The graph file being processed.
+     * @param outDirectory The directory to write the results to, or null to write them next to the input file.
+     * @param operation The Solver operation being run.
+     * @param format The format of the results.
+     * @return The file that the results for the given input file should be written to.
+     */
+    private static File getOutputFile(File input, File outDirectory, Operation operation, Format format) {
+        String name = GraphIO.getFilenameWithoutExtension(input.getPath())
+                + "-" + operation.name().toLowerCase(Locale.ROOT)
+                + "." + format.name().toLowerCase(Locale.ROOT);
+        File directory = outDirectory != null ? outDirectory : input.getAbsoluteFile().getParentFile();
+        return new File(directory, name);
+    }
+
+    /**
+     * @param args The command line arguments.
+     * @param index The index of the argument to get.
+     * @return The argument at the given index.
+     * @throws IllegalArgumentException If an option is missing its value.
+     */
+    private static String nextArgument(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        return args[index];
+    }
+
+    /**
+     * A simple table of results that can be written as CSV or JSON. Cells may hold Strings, Integers, Doubles, or
+     * null for an empty cell.
+     */
+    private static class Table {
+        private final String[] columns;
+        private final List<Object[]> rows;
+
+        private Table(String... columns) {
+            this.columns = columns;
+            this.rows = new ArrayList<>();
+        }
+
+        private void addRow(Object... row) {
+            rows.add(row);
+        }
+
+        private void writeCSV(Writer writer) throws IOException {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; ++i) {
+                    if (i > 0)
+                        writer.write(',');
+                    if (row[i] instanceof String)
+                        writer.write(quoteCSV((String)row[i]));
+                    else if (row[i] != null)
+                        writer.write(String.valueOf(row[i]));
+                }
+                writer.write('\n');
+            }
+        }
+
+        private void writeJSON(Writer writer, String file, String operation) throws IOException {
+            writer.write("{\"file\": " + quoteJSON(file) + ", \"operation\": " + quoteJSON(operation) + ", \"rows\": [");
+            for (int r = 0; r < rows.size(); ++r) {
+                Object[] row = rows.get(r);
+                writer.write(r > 0 ? ",\n  {" : "\n  {");
+                for (int i = 0; i < row.length; ++i) {
+                    if (i > 0)
+                        writer.write(", ");
+                    writer.write(quoteJSON(columns[i]) + ": ");
+                    Object value = row[i];
+                    //NOTE: JSON has no infinity, so infinite distances are written as the strings "Infinity" and
+                    // "-Infinity" - the same way Double.parseDouble() reads them.
+                    if (value instanceof String || (value instanceof Double && ((Double)value).isInfinite()))
+                        writer.write(quoteJSON(String.valueOf(value)));
+                    else
+                        writer.write(String.valueOf(value));
+                }
+                writer.write('}');
+            }
+            writer.write(rows.isEmpty() ? "]}\n" : "\n]}\n");
+        }
+
+        private static String quoteCSV(String string) {
+            if (string.indexOf(',') < 0 && string.indexOf('"') < 0 && string.indexOf('\n') < 0)
+                return string;
+            return '"' + string.replace("\"", "\"\"") + '"';
+        }
+
+        private static String quoteJSON(String string) {
+            StringBuilder builder = new StringBuilder(string.length() + 2);
+            builder.append('"');
+            for (char c : string.toCharArray()) {
+                if (c == '"' || c == '\\')
+                    builder.append('\\').append(c);
+                else if (c < 0x20)
+                    builder.append(String.format("\\u%04x", (int)c));
+                else
+                    builder.append(c);
+            }
+            return builder.append('"').toString();
+        }
+    }
+}
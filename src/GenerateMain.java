@@ -0,0 +1,153 @@
+import model.EdgeStyle;
+import model.Graph;
+import model.NodeStyle;
+import utils.GraphGenerator;
+import utils.GraphIO;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @version 1.0
+ *
+ * This class is a headless entry point of the application that generates a random graph and saves it to a file, for
+ * stress testing and benchmarking. The file is compressed according to its extension, just like when saving from the
+ * application.
+ *
+ * Usage: java GenerateMain --model er|grid|ba|geometric --nodes N [--degree D] [--directed F] [--negative F]
+ *                          [--max-weight W] [--node-styles S,..|all] [--edge-styles S,..|all] [--seed S] FILE
+ *
+ * Node and edge styles are given by their names, e.g. "--edge-styles quadratic_bezier,elbow_joint".
+ *
+ * @see GraphGenerator
+ */
+public class GenerateMain {
+
+    private static final String USAGE = "Usage: java GenerateMain --model er|grid|ba|geometric --nodes N [--degree D]"
+            + " [--directed F] [--negative F] [--max-weight W] [--node-styles S,..|all] [--edge-styles S,..|all]"
+            + " [--seed S] FILE";
+
+    /**
+     * The main method that parses the command line, generates the graph, and saves it.
+     * @param args the options and the output file, see USAGE.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        Map<String, String> options = new HashMap<>();
+        String outputPath = null;
+        GraphGenerator generator;
+
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                if (args[i].startsWith("--"))
+                    options.put(args[i], nextArgument(args, ++i));
+                else
+                    outputPath = args[i];
+            }
+            if (!options.containsKey("--model") || !options.containsKey("--nodes") || outputPath == null)
+                throw new IllegalArgumentException("--model, --nodes, and an output file are required");
+
+            generator = new GraphGenerator(parseModel(options.remove("--model")),
+                    Integer.parseInt(options.remove("--nodes")));
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                String value = option.getValue();
+                switch (option.getKey()) {
+                    case "--degree":
+                        generator.setAverageDegree(Double.parseDouble(value));
+                        break;
+                    case "--directed":
+                        generator.setDirectedFraction(Double.parseDouble(value));
+                        break;
+                    case "--negative":
+                        generator.setNegativeWeightFraction(Double.parseDouble(value));
+                        break;
+                    case "--max-weight":
+                        generator.setMaxWeight(Integer.parseInt(value));
+                        break;
+                    case "--node-styles":
+                        generator.setNodeStyles(parseStyles(value, NodeStyle.class));
+                        break;
+                    case "--edge-styles":
+                        generator.setEdgeStyles(parseStyles(value, EdgeStyle.class));
+                        break;
+                    case "--seed":
+                        generator.setSeed(Long.parseLong(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option.getKey());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        Graph graph = generator.generate();
+        long generatedTime = System.nanoTime();
+        try {
+            GraphIO.writeGraph(graph, outputPath);
+        } catch (IOException e) {
+            System.err.println("Couldn't save to " + outputPath + ": " + e.getMessage());
+            System.exit(1);
+        }
+        long savedTime = System.nanoTime();
+
+        System.out.printf("Generated %d nodes and %d edges in %d ms, saved to %s in %d ms%n",
+                graph.getNodes().size(), graph.getEdges().size(), (generatedTime - startTime) / 1_000_000,
+                outputPath, (savedTime - generatedTime) / 1_000_000);
+    }
+
+    /**
+     * @param name The short name of a model, or the name of a GraphGenerator.Model.
+     * @return The matching model.
+     */
+    private static GraphGenerator.Model parseModel(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "er":
+                return GraphGenerator.Model.ERDOS_RENYI;
+            case "grid":
+                return GraphGenerator.Model.GRID;
+            case "ba":
+                return GraphGenerator.Model.BARABASI_ALBERT;
+            case "geometric":
+                return GraphGenerator.Model.RANDOM_GEOMETRIC;
+            default:
+                return GraphGenerator.Model.valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * @param names A comma separated list of style names, or "all".
+     * @param styleClass The enum class of the styles.
+     * @return The styles with the given names.
+     */
+    private static <T extends Enum<T>> T[] parseStyles(String names, Class<T> styleClass) {
+        if (names.equalsIgnoreCase("all"))
+            return styleClass.getEnumConstants();
+
+        String[] splitNames = names.split(",");
+        T[] styles = Arrays.copyOf(styleClass.getEnumConstants(), splitNames.length);
+        for (int i = 0; i < splitNames.length; ++i)
+            styles[i] = Enum.valueOf(styleClass, splitNames[i].trim().toUpperCase(Locale.ROOT));
+        return styles;
+    }
+
+    /**
+     * @param args The command line arguments.
+     * @param index The index of the argument to get.
+     * @return The argument at the given index.
+     * @throws IllegalArgumentException If an option is missing its value.
+     */
+    private static String nextArgument(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        return args[index];
+    }
+}
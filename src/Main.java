@@ -1,16 +1,23 @@
 import model.Graph;
+import utils.AllocationCounter;
 import utils.GraphIO;
+import utils.StartupTimer;
+import utils.TextUtil;
 import view.GraphFrame;
 import view.GraphPanel;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 /**
-  * @version 10.0
+  * @version 11.1
  *
  * This class is the main class of the application that takes care of initialisation and starting up the program.
+ * Passing the TIMING_FLAG on the command line prints how long each phase of startup took once the graph is first shown.
+ * Passing the ALLOCATIONS_FLAG prints how many bytes painting a frame allocates on average.
  *
  * @see GraphPanel
  * @see GraphIO
@@ -18,18 +25,38 @@ import java.util.Properties;
  */
 public class Main {
 
+    private static final String TIMING_FLAG = "--timing";
+    private static final String ALLOCATIONS_FLAG = "--allocations";
+
     /**
      * The main method that loads a graph and creates a new GraphFrame.
-     * @param args optional arguments, i.e. the path the graph can be loaded from.
+     * @param args optional arguments, i.e. the path the graph can be loaded from, the TIMING_FLAG and the
+     *             ALLOCATIONS_FLAG.
      */
     public static void main(String[] args) {
+        List<String> arguments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals(TIMING_FLAG))
+                StartupTimer.start();
+            else if (arg.equals(ALLOCATIONS_FLAG)) {
+                if (!AllocationCounter.start())
+                    System.err.println("Counting allocations isn't supported by this JVM");
+            } else
+                arguments.add(arg);
+        }
+
+        //NOTE: Only the fonts used by the graph are needed to load it, the full list is only needed by the font chooser.
+        TextUtil.loadAllFontNamesInBackground();
+
         setLookAndFeel();
+        StartupTimer.endPhase("look and feel");
 
-        String loadPath = getGraphLoadPath(args);
+        String loadPath = getGraphLoadPath(arguments);
         if (loadPath != null && loadPath.length() > 0)
             System.out.println("Loading graph " + loadPath);
 
         Graph graph = new Graph(loadPath);
+        StartupTimer.endPhase("file load");
         EventQueue.invokeLater(() -> new GraphFrame(graph));
     }
 
@@ -49,12 +76,12 @@ public class Main {
      * @param args optional arguments for load path
      * @return the load path of the graph
      */
-    private static String getGraphLoadPath(String[] args) {
-        if (args.length > 1)
+    private static String getGraphLoadPath(List<String> args) {
+        if (args.size() > 1)
             System.out.println("Ignoring extra command line arguments...");
 
-        if (args.length >= 1)
-            return args[0];
+        if (args.size() >= 1)
+            return args.get(0);
         else {
             Properties lastSession = GraphIO.loadLastSession();
             if (lastSession != null)
@@ -4,33 +4,61 @@ import controller.undoableedits.AddNodesAndEdgesEdit;
 import model.Edge;
 import model.Graph;
 import model.Node;
-
+import model.Subgraph;
+import utils.GraphIO;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.ClipboardOwner;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Observable;
+import java.util.concurrent.ExecutionException;
 
 /**
- * @version 2.0
+ * @version 3.2
  *
  * This class represents the Clipboard that stores all Nodes and Edges that were copied/cut and can be pasted back.
  * It follows the Singleton Design Pattern, as this graphModel should only ever have one clipboard, i.e. there
- * should always only be one instance of this class.
+ * should always only be one instance of this class. The contents are stored as a Subgraph, so that copying and
+ * pasting takes linear time no matter how many Nodes and Edges are selected.
+ *
+ * The contents are also put on the system clipboard, so that they can be pasted into other instances of the program,
+ * and whatever another instance put there can be pasted here. As long as nothing else was put on the system clipboard,
+ * pasting simply uses the stored Subgraph. Otherwise the Subgraph is decoded from the system clipboard in the
+ * background, and only added to the graph on the awt Event Dispatch Thread once it is complete. If it can't be decoded,
+ * the user is told so and nothing is pasted.
  *
  * @see Node
  * @see Edge
+ * @see Subgraph
+ * @see SubgraphTransferable
  */
-public class Clipboard extends Observable {
+public class Clipboard extends Observable implements ClipboardOwner {
 
-    private final List<Node> storedNodes;
-    private final List<Edge> storedEdges;
+    private Subgraph contents;
+    private volatile boolean isOwner;
 
     /**
      * This class follows the Singleton pattern and should only be instantiated once,
      * therefore the constructor is private, so it cannot be instantiated outside of this class.
      */
     private Clipboard() {
-        storedNodes = new ArrayList<>();
-        storedEdges = new ArrayList<>();
+        contents = new Subgraph(new ArrayList<>(), new ArrayList<>());
+
+        java.awt.datatransfer.Clipboard systemClipboard = getSystemClipboard();
+        if (systemClipboard != null) {
+            systemClipboard.addFlavorListener(e -> {
+                setChanged();
+                notifyObservers();
+            });
+        }
     }
 
     /**
@@ -51,7 +79,7 @@ public class Clipboard extends Observable {
 
 
     /**
-     * Performs a deep copy of the given list of Nodes and Edges, storing them in the contents of the Clipboard. The
+     * Takes a snapshot of the given list of Nodes and Edges, storing it in the contents of the Clipboard. The
      * previous contents of the Clipboard are discarded. Only Edges that connect to Nodes that are BOTH in the given
      * list of Nodes will actually be stored.
      *
@@ -61,21 +89,15 @@ public class Clipboard extends Observable {
      * @see Edge
      */
     public void store(List<Node> nodes, List<Edge> edges) {
-        storedNodes.clear();
-        storedEdges.clear();
-
-        for (Node node : nodes){
-            storedNodes.add(new Node(node));
-        }
-
-        for (Edge edge : edges) {
-            int node1Index = nodes.indexOf(edge.getNode1());
-            int node2Index = nodes.indexOf(edge.getNode2());
-            if (node1Index >= 0 && node2Index >= 0) {
-                Edge copy = new Edge(edge);
-                copy.setNode1(storedNodes.get(node1Index));
-                copy.setNode2(storedNodes.get(node2Index));
-                storedEdges.add(copy);
+        contents = new Subgraph(nodes, edges);
+
+        java.awt.datatransfer.Clipboard systemClipboard = getSystemClipboard();
+        if (systemClipboard != null) {
+            try {
+                systemClipboard.setContents(new SubgraphTransferable(contents), this);
+                isOwner = true;
+            } catch (IllegalStateException e) {
+                //NOTE: Some other application is using the system clipboard right now, so only we can paste.
             }
         }
 
@@ -83,52 +105,140 @@ public class Clipboard extends Observable {
         notifyObservers();
     }
 
+    @Override
+    public void lostOwnership(java.awt.datatransfer.Clipboard clipboard, Transferable contents) {
+        isOwner = false;
+    }
+
     /**
-     * Pastes the nodes and edges that are stored in the clipboard into the graph. Doing so it performs
-     * another deep copy of the nodes and/or edges, so that the nodes and/or edges that are added actually
-     * refer to different instances. The pasted nodes are also moved a little, so that they do not cover up
-     * the node/edges that they were copied from.
+     * Pastes the nodes and edges that are stored in the clipboard into the graph. Doing so it creates
+     * new nodes and edges from the stored snapshot, so that the nodes and/or edges that are added actually
+     * refer to different instances, and adds them all at once. The pasted nodes are also moved a little, so
+     * that they do not cover up the node/edges that they were copied from.
      * @param graph the graph that the nodes and/or edges will be added to.
      */
     public void paste(Graph graph){
-        // We have to be very careful with the references here - always make sure that the edges
-        // that are added to the graph actually refer to the nodes that were added to graph, and not the nodes from
-        // the clipboard.
-
-        List<Node> pastedNodes = new ArrayList<>(storedNodes.size());
-        List<Edge> pastedEdges = new ArrayList<>(storedEdges.size());
-
-        for (Node node : storedNodes) {
-            Node pastedNode = new Node(node);
-
-            // Move nodes by a little bit so that they don't cover up the old nodes.
-            pastedNode.moveBy(4, 4);
-            pastedNodes.add(pastedNode);
+        java.awt.datatransfer.Clipboard systemClipboard = getSystemClipboard();
+        Transferable transferable = null;
+        if (!isOwner && systemClipboard != null) {
+            try {
+                transferable = systemClipboard.getContents(this);
+            } catch (IllegalStateException e) {
+                //NOTE: Some other application is using the system clipboard right now, so paste our own contents.
+            }
         }
 
-        for (Edge edge : storedEdges) {
-            Edge pastedEdge = new Edge(edge);
-            int node1Index = storedNodes.indexOf(edge.getNode1());
-            int node2Index = storedNodes.indexOf(edge.getNode2());
-            pastedEdge.setNode1(pastedNodes.get(node1Index));
-            pastedEdge.setNode2(pastedNodes.get(node2Index));
-
-            // Move edges just like nodes, so that the new edges are not painted
-            // on top of the old ones.
-            pastedEdge.moveActualWeightPointBy(4, 4);
-            pastedEdges.add(pastedEdge);
+        if (transferable == null || !(transferable.isDataFlavorSupported(SubgraphTransferable.SUBGRAPH_FLAVOR)
+                || transferable.isDataFlavorSupported(DataFlavor.stringFlavor))) {
+            paste(graph, contents);
+            return;
         }
 
-        new AddNodesAndEdgesEdit(graph, pastedNodes, pastedEdges);
+        Transferable systemContents = transferable;
+        new SwingWorker<Subgraph, Void>() {
+            @Override
+            protected Subgraph doInBackground() throws IOException, UnsupportedFlavorException {
+                return readSubgraph(systemContents);
+            }
+
+            @Override
+            protected void done() {
+                Subgraph subgraph;
+                try {
+                    subgraph = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    String reason = cause.getLocalizedMessage() != null ? cause.getLocalizedMessage() : cause.toString();
+                    JOptionPane.showMessageDialog(null,
+                            "Couldn't paste from the clipboard.\n" + reason,
+                            "Failed to paste", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                //NOTE: Text that isn't a graph was put there by someone else, so paste what was copied here instead.
+                paste(graph, subgraph != null ? subgraph : contents);
+            }
+        }.execute();
     }
 
     /**
-     * @return Whether the Clipboard is currently storing any Nodes or Edges.
+     * @return Whether the Clipboard is currently storing any Nodes or Edges, or the system clipboard holds Nodes and
+     * Edges copied by another instance of the program.
      *
      * After the first call to Clipboard.store() this will always be true for the duration of the program - given that
      * a non-empty list of Nodes or Edges is given to Clipboard.store().
      */
     public boolean hasContents() {
-        return !storedNodes.isEmpty() || !storedEdges.isEmpty();
+        if (!contents.isEmpty())
+            return true;
+
+        java.awt.datatransfer.Clipboard systemClipboard = getSystemClipboard();
+        try {
+            return systemClipboard != null
+                    && systemClipboard.isDataFlavorAvailable(SubgraphTransferable.SUBGRAPH_FLAVOR);
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Adds new Nodes and Edges created from the given Subgraph to the graph, as a single undoable edit.
+     *
+     * @param graph The graph that the Nodes and Edges will be added to.
+     * @param subgraph The Subgraph to paste.
+     */
+    private static void paste(Graph graph, Subgraph subgraph) {
+        if (subgraph.isEmpty())
+            return;
+
+        List<Node> pastedNodes = new ArrayList<>(subgraph.getNodeCount());
+        List<Edge> pastedEdges = new ArrayList<>(subgraph.getEdgeCount());
+
+        // Move nodes and edges by a little bit so that they don't cover up the old ones.
+        subgraph.instantiate(4, 4, pastedNodes, pastedEdges);
+
+        new AddNodesAndEdgesEdit(graph, pastedNodes, pastedEdges);
+    }
+
+    /**
+     * Decodes the Subgraph from the contents of the system clipboard. This may take a while, and should not be called
+     * on the awt Event Dispatch Thread.
+     *
+     * @param transferable The contents of the system clipboard.
+     * @return The Subgraph on the system clipboard, or null if it holds text that isn't a graph.
+     * @throws IOException If the Subgraph couldn't be read.
+     * @throws UnsupportedFlavorException If the system clipboard changed in the meantime.
+     */
+    private static Subgraph readSubgraph(Transferable transferable) throws IOException, UnsupportedFlavorException {
+        //NOTE: Within the same program the system clipboard hands back the transferable itself, so skip decoding.
+        if (transferable instanceof SubgraphTransferable)
+            return ((SubgraphTransferable)transferable).getSubgraph();
+
+        if (transferable.isDataFlavorSupported(SubgraphTransferable.SUBGRAPH_FLAVOR)) {
+            try (InputStream stream = (InputStream)transferable.getTransferData(SubgraphTransferable.SUBGRAPH_FLAVOR)) {
+                return GraphIO.readSubgraph(stream, true);
+            }
+        }
+
+        String text = (String)transferable.getTransferData(DataFlavor.stringFlavor);
+        //NOTE: Only text in the EXTENDED format is pasted, since almost any text would parse as a NON-EXTENDED graph.
+        if (!text.startsWith("#extended format"))
+            return null;
+        return GraphIO.readSubgraph(new StringReader(text), true);
+    }
+
+    /**
+     * @return The system clipboard, or null if there is none, e.g. in a headless environment.
+     */
+    private static java.awt.datatransfer.Clipboard getSystemClipboard() {
+        if (GraphicsEnvironment.isHeadless())
+            return null;
+        try {
+            return Toolkit.getDefaultToolkit().getSystemClipboard();
+        } catch (HeadlessException | SecurityException e) {
+            return null;
+        }
     }
 }
\ No newline at end of file
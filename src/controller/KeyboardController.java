@@ -1,5 +1,7 @@
 package controller;
 
+import controller.undoableedits.EdgeEdit;
+import controller.undoableedits.NodeEdit;
 import model.Graph;
 import utils.KeyUtil;
 import view.GraphFrame;
@@ -10,7 +12,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 
 /**
-* @version 2.0
+* @version 2.1
  *
  * The Keyboard controller of the GraphPanel and GraphModel.
  *
@@ -78,7 +80,8 @@ public class KeyboardController {
 
         /**
          * Fires in response to a key press event - moving any selected Nodes/Edges, or moving the whole panel view if
-         * none are selected.
+         * none are selected. Moving Nodes/Edges can be undone, and holding down an arrow key is undone all at once
+         * since the GraphUndoManager coalesces the moves.
          *
          * @param e The ActionEvent arguments.
          */
@@ -104,12 +107,12 @@ public class KeyboardController {
             if (graph.numSelectedNodes() == 0 && graph.numSelectedEdges() == 0)
                 panel.translate(-deltaX, -deltaY);
             else {
-                deltaX /= panel.getScale();
-                deltaY /= panel.getScale();
+                double dX = deltaX / panel.getScale();
+                double dY = deltaY / panel.getScale();
                 if (graph.getHoveredEdge() == null || graph.getHoveredNode() != null)
-                    graph.moveSelectedNodesBy(deltaX, deltaY);
+                    new NodeEdit(graph, graph.getSelectedNodes(), node -> graph.moveSelectedNodeBy(node, dX, dY));
                 else
-                    graph.moveSelectedEdgesBy(deltaX, deltaY);
+                    new EdgeEdit(graph, graph.getSelectedEdges(), edge -> edge.moveActualWeightPointBy(dX, dY));
             }
         }
     }
@@ -8,7 +8,7 @@ import javax.swing.*;
 import java.awt.event.KeyEvent;
 
 /**
-* @version 2.0
+* @version 2.2
  *
  * This MenuBar houses all of the MenuItem controls responsible for manipulating the GraphModel.
  *
@@ -28,6 +28,8 @@ import java.awt.event.KeyEvent;
  * @see CenterViewMenuItem
  * @see ZoomInMenuItem
  * @see ZoomOutMenuItem
+ * @see ParallelRenderingMenuItem
+ * @see ProgressiveRenderingMenuItem
  * @see BackgroundColorChooser
  * @see FindShortestPathMenuItem
  * @see ExploreGraphMenuItem
@@ -82,6 +84,8 @@ public class MenuBar extends JMenuBar {
         viewMenu.add(new ZoomInMenuItem(panel));
         viewMenu.add(new ZoomOutMenuItem(panel));
         viewMenu.addSeparator();
+        viewMenu.add(new ParallelRenderingMenuItem(panel));
+        viewMenu.add(new ProgressiveRenderingMenuItem(panel));
         viewMenu.add(new BackgroundColorChooser(panel));
 
         solveMenu.add(new FindShortestPathMenuItem(graph, panel));
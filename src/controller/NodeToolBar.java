@@ -1,5 +1,6 @@
 package controller;
 
+import controller.animation.AnimationOverlay;
 import controller.toolbaritems.*;
 import model.Graph;
 import model.Node;
@@ -12,7 +13,7 @@ import java.awt.geom.Ellipse2D;
 import java.awt.geom.RoundRectangle2D;
 
 /**
-* @version 1.9
+* @version 2.0
  *
  * This ToolBar houses all of the controllers that manipulate existing Nodes from a GraphModel. The NodeToolBar is
  * invisible to the user until they select a Node from the GraphModel.
@@ -42,15 +43,15 @@ public class NodeToolBar extends JToolBar {
         add(new NodeColorChooser(graph, "Set the background color of selected nodes.",
                 Node::getActualFillColor,
                 Node::setActualFillColor,
-                Node::setVisualFillColor));
+                AnimationOverlay::setFillColor));
         add(new NodeColorChooser(graph, "Set the border color of selected nodes.",
                 Node::getActualBorderColor,
                 Node::setActualBorderColor,
-                Node::setVisualBorderColor));
+                AnimationOverlay::setBorderColor));
         add(new NodeColorChooser(graph, "Set the text color of selected nodes.",
                 Node::getActualTextColor,
                 Node::setActualTextColor,
-                Node::setVisualTextColor));
+                AnimationOverlay::setTextColor));
 
         addSeparator();
 
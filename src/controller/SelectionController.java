@@ -7,6 +7,7 @@ import controller.undoableedits.AddNodesAndEdgesEdit;
 import controller.undoableedits.NodeEdit;
 import utils.MathUtil;
 import utils.KeyUtil;
+import utils.SpatialGrid;
 import view.GraphPanel;
 
 import java.awt.*;
@@ -15,15 +16,22 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.geom.*;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Set;
 
 /**
- * @version 999.0
+ * @version 999.4
  *
  * This controller class is responsible for handling most mouse related events such as mouse pressed, mouse released,
  * mouse dragged, etc.
  *
+ * Rubber-band selection is incremental: when it starts, the Nodes and Edges are put into a SpatialGrid, and every
+ * following drag only re-tests the elements around the difference between the previous and the current selection
+ * rectangle. All selection changes of a single drag are applied in one batched update.
+ *
  * @see Graph
  * @see GraphPanel
  */
@@ -40,6 +48,12 @@ public class SelectionController extends MouseAdapter {
     private boolean isChangingEdge;
     private final List<Node> movableNodesStart;
     private final List<Edge> movableEdgesStart;
+    private SpatialGrid<Node> rubberBandNodes;
+    private SpatialGrid<Edge> rubberBandEdges;
+    private boolean[] isRubberBandNodeSelected;
+    private boolean[] isRubberBandEdgeSelected;
+    private Rectangle2D lastSelectionRect;
+    private long rubberBandVersion;
 
     /**
      * Constructs a new SelectionController for the given GraphModel and the given GraphPanel.
@@ -72,7 +86,7 @@ public class SelectionController extends MouseAdapter {
     @Override
     public void mousePressed(MouseEvent event) {
         Point2D graphPoint = panel.projectToGraphSpace(event.getPoint());
-        Node selectedNode = getNodeAt(graphPoint);
+        Node selectedNode = getNodeAt(graph, graphPoint);
 
         boolean controlIsDown = KeyUtil.isMenuModifierDown(event);
 
@@ -99,7 +113,7 @@ public class SelectionController extends MouseAdapter {
 
         //NOTE(Boris): Edges are only selected if no nodes were selected.
         if (selectedNode == null) {
-            Edge selectedEdge = getEdgeAt(graphPoint);
+            Edge selectedEdge = getEdgeAt(graph, graphPoint, panel.getScale());
             boolean isSelected = graph.isSelected(selectedEdge);
             if (!controlIsDown) {
                 if (!isSelected) {
@@ -146,19 +160,6 @@ public class SelectionController extends MouseAdapter {
 
         lastMousePos = event.getPoint();
         dragStartPos = event.getPoint();
-
-
-        // Copying the nodes that are moved to store old position for undo.
-        for (Node node: graph.getSelectedNodes()){
-            Node copy = new Node(node);
-            movableNodesStart.add(copy);
-        }
-
-        // Copying the edges that are moved to store old position for undo.
-        for (Edge edge: graph.getSelectedEdges()){
-            Edge copy = new Edge(edge);
-            movableEdgesStart.add(copy);
-        }
     }
 
     /**
@@ -202,6 +203,7 @@ public class SelectionController extends MouseAdapter {
         dragStartPos = null;
         movableNodesStart.clear();
         movableEdgesStart.clear();
+        stopRubberBand();
         isDragging = false;
         isChangingNode = false;
         isChangingEdge = false;
@@ -224,11 +226,11 @@ public class SelectionController extends MouseAdapter {
         if (event.getClickCount() == 2 && !isModifierDown) {
             Point2D graphPoint = panel.projectToGraphSpace(event.getPoint());
 
-            Node selectedNode = getNodeAt(graphPoint);
+            Node selectedNode = getNodeAt(graph, graphPoint);
             if (selectedNode != null && graph.isSelected(selectedNode))
                 return;
 
-            Edge selectedEdge = getEdgeAt(graphPoint);
+            Edge selectedEdge = getEdgeAt(graph, graphPoint, panel.getScale());
             if (selectedEdge != null && graph.isSelected(selectedEdge))
                 return;
 
@@ -258,10 +260,10 @@ public class SelectionController extends MouseAdapter {
         }
 
         Point2D graphPoint = panel.projectToGraphSpace(event.getPoint());
-        Node hoveredNode = getNodeAt(graphPoint);
+        Node hoveredNode = getNodeAt(graph, graphPoint);
         graph.setHoveredNode(hoveredNode);
         if (hoveredNode == null) {
-            Edge hoveredEdge = getEdgeAt(graphPoint);
+            Edge hoveredEdge = getEdgeAt(graph, graphPoint, panel.getScale());
             graph.setHoveredEdge(hoveredEdge);
             if (hoveredEdge != null)
                 panel.setCursor(new Cursor(Cursor.MOVE_CURSOR));
@@ -337,29 +339,10 @@ public class SelectionController extends MouseAdapter {
             selectionRect.setRect(startPos.getX(), startPos.getY(), 0, 0);
             selectionRect.add(panel.projectToGraphSpace(newMousePos));
             panel.setSelectionRectangle(selectionRect);
-
-            for (Node node : graph.getNodes()) {
-                if (selectionRect.contains(node.getActualBounds()) ) {
-                    if (!graph.isSelected(node)) {
-                        graph.select(node);
-                        new NodeSizeAnimation(node, 8, 8, 0.20).play();
-                    }
-                }
-                else
-                    graph.deselect(node);
-            }
-
-            for (Edge edge : graph.getEdges()) {
-                //NOTE(Boris): We can't just do selectionRect.contains(edge.getPath().getBounds()) because the path2D
-                // bounds include all control points of bezier curves for some reason .. so this wouldn't be accurate
-                // and we need to do it ourselves - ugh.
-                if (MathUtil.contains(selectionRect, edge.getPath(), 1))
-                    graph.select(edge);
-                else
-                    graph.deselect(edge);
-            }
+            updateRubberBand(selectionRect);
 
         } else { // !isControlDown
+            stopRubberBand();
 
             double deltaX = newMousePos.getX() - lastMousePos.getX();
             double deltaY = newMousePos.getY() - lastMousePos.getY();
@@ -371,11 +354,21 @@ public class SelectionController extends MouseAdapter {
                 double dX = deltaX / scale;
                 double dY = deltaY / scale;
 
+                //NOTE: The old positions are only copied for undo once something actually starts moving, so that
+                // clicking on a large selection doesn't copy all of it.
                 if (graph.getHoveredNode() != null) {
+                    if (!isChangingNode) {
+                        for (Node node : graph.getSelectedNodes())
+                            movableNodesStart.add(new Node(node));
+                    }
                     graph.moveSelectedNodesBy(dX, dY);
                     isChangingNode = true;
                 }
                 if (graph.getHoveredEdge() != null) {
+                    if (!isChangingEdge) {
+                        for (Edge edge : graph.getSelectedEdges())
+                            movableEdgesStart.add(new Edge(edge));
+                    }
                     graph.moveSelectedEdgesBy(dX, dY);
                     isChangingEdge = true;
                 }
@@ -386,6 +379,100 @@ public class SelectionController extends MouseAdapter {
     }
 
 
+    /**
+     * Selects exactly the Nodes and Edges inside the given selection rectangle. The first time this is called during a
+     * drag, or whenever the graph was changed by anything else in the meantime, all elements are indexed and the
+     * elements that are selected but lie outside the rectangle are deselected. After that, only the elements that the
+     * SpatialGrid finds around the difference to the previous rectangle are tested again.
+     *
+     * @param selectionRect The current selection rectangle in graph space.
+     */
+    private void updateRubberBand(Rectangle2D selectionRect) {
+        List<Node> newlySelectedNodes = new ArrayList<>();
+        List<Edge> newlySelectedEdges = new ArrayList<>();
+        List<Node> deselectedNodes = new ArrayList<>();
+        List<Edge> deselectedEdges = new ArrayList<>();
+
+        if (rubberBandNodes == null || graph.getVersion() != rubberBandVersion) {
+            List<Node> nodes = graph.getNodes();
+            List<Edge> edges = graph.getEdges();
+            rubberBandNodes = new SpatialGrid<>(nodes, Node::getActualBounds);
+            //NOTE: The bounds of the path include the control points, so they always enclose the whole curve.
+            rubberBandEdges = new SpatialGrid<>(edges, edge -> edge.getPath().getBounds2D());
+            lastSelectionRect = null;
+
+            Set<Node> selectedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+            Set<Edge> selectedEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+            selectedNodes.addAll(graph.getSelectedNodes());
+            selectedEdges.addAll(graph.getSelectedEdges());
+            isRubberBandNodeSelected = new boolean[nodes.size()];
+            isRubberBandEdgeSelected = new boolean[edges.size()];
+            for (int i = 0; i < nodes.size(); ++i) {
+                if (selectedNodes.contains(nodes.get(i)) && !selectionRect.contains(nodes.get(i).getActualBounds()))
+                    deselectedNodes.add(nodes.get(i));
+                else
+                    isRubberBandNodeSelected[i] = selectedNodes.contains(nodes.get(i));
+            }
+            for (int i = 0; i < edges.size(); ++i) {
+                if (selectedEdges.contains(edges.get(i)) && !MathUtil.contains(selectionRect, edges.get(i).getPath(), 1))
+                    deselectedEdges.add(edges.get(i));
+                else
+                    isRubberBandEdgeSelected[i] = selectedEdges.contains(edges.get(i));
+            }
+        }
+
+        rubberBandNodes.forEachAffected(lastSelectionRect, selectionRect, i -> {
+            Node node = rubberBandNodes.get(i);
+            boolean isInside = selectionRect.contains(node.getActualBounds());
+            if (isInside != isRubberBandNodeSelected[i]) {
+                isRubberBandNodeSelected[i] = isInside;
+                (isInside ? newlySelectedNodes : deselectedNodes).add(node);
+            }
+        });
+        rubberBandEdges.forEachAffected(lastSelectionRect, selectionRect, i -> {
+            Edge edge = rubberBandEdges.get(i);
+            //NOTE(Boris): We can't just do selectionRect.contains(edge.getPath().getBounds()) because the path2D
+            // bounds include all control points of bezier curves for some reason .. so this wouldn't be accurate
+            // and we need to do it ourselves - ugh.
+            //NOTE: Long edges are found around almost any rectangle, but only an edge whose end point is inside can be
+            // inside, which is much cheaper to check first.
+            Point2D end = edge.getPath().getCurrentPoint();
+            boolean isInside = end != null
+                    && end.getX() >= selectionRect.getMinX() && end.getX() <= selectionRect.getMaxX()
+                    && end.getY() >= selectionRect.getMinY() && end.getY() <= selectionRect.getMaxY()
+                    && MathUtil.contains(selectionRect, edge.getPath(), 1);
+            if (isInside != isRubberBandEdgeSelected[i]) {
+                isRubberBandEdgeSelected[i] = isInside;
+                (isInside ? newlySelectedEdges : deselectedEdges).add(edge);
+            }
+        });
+        lastSelectionRect = selectionRect;
+
+        graph.beginUpdate();
+        try {
+            graph.deselectAll(deselectedNodes, deselectedEdges);
+            graph.selectAll(newlySelectedNodes, newlySelectedEdges);
+        } finally {
+            graph.endUpdate();
+        }
+        rubberBandVersion = graph.getVersion();
+
+        //NOTE: All nodes selected by this drag share one animation, no matter how many there are.
+        if (!newlySelectedNodes.isEmpty())
+            new NodeSizeAnimation(newlySelectedNodes, 8, 8, 0.20).play();
+    }
+
+    /**
+     * Forgets the index of the current rubber-band selection, if any.
+     */
+    private void stopRubberBand() {
+        rubberBandNodes = null;
+        rubberBandEdges = null;
+        isRubberBandNodeSelected = null;
+        isRubberBandEdgeSelected = null;
+        lastSelectionRect = null;
+    }
+
     /**
      * This callback is fired when the mouse wheel is scrolled. It zooms the panel view in or out.
      *
@@ -401,10 +488,11 @@ public class SelectionController extends MouseAdapter {
     }
 
     /**
+     * @param graph The GraphModel whose Nodes to search through.
      * @param position The position in graph space from which to get the Node from.
      * @return A Node approximately around the given position, or null if no Node is close to the position.
      */
-    private Node getNodeAt(Point2D position) {
+    public static Node getNodeAt(Graph graph, Point2D position) {
         List<Node> nodes = graph.getNodes();
 
         Rectangle2D selectionRect = MathUtil.centeredRectangle(position, 5, 5);
@@ -462,20 +550,22 @@ public class SelectionController extends MouseAdapter {
     }
 
     /**
+     * @param graph The GraphModel whose Edges to search through.
      * @param position The position in graph space at which to get the Edge at.
+     * @param scale The scale that the Edges are shown at, which decides how finely their paths are flattened.
      * @return An Edge approximately around the given position, or null if no Edge is close.
      */
-    private Edge getEdgeAt(Point2D position) {
+    public static Edge getEdgeAt(Graph graph, Point2D position, double scale) {
         List<Edge> edges = graph.getEdges();
         Rectangle2D selectionRect = MathUtil.centeredRectangle(position, 5, 5);
 
         //NOTE(Boris): Just like with getNodeAt(), we should loop in reverse here.
         for (int i = edges.size() - 1; i >= 0; --i) {
             Edge edge = edges.get(i);
-            Path2D edgePath = edge.getPath();
             //NOTE(Boris): We can't just use edgePath.intersects(selectionRect) because for some reason Path2D.intersects
             // tests the entire INTERIOR of the path, not just the path itself.. ugh..
-            if (MathUtil.intersects(edgePath, selectionRect, 1))
+            //NOTE: The same flattened path that the GraphPanel draws, so what is hit is exactly what is seen.
+            if (edge.getFlattenedPath(scale).intersects(selectionRect))
                 return edge;
         }
 
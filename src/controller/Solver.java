@@ -8,13 +8,12 @@ import model.Node;
 import utils.Action;
 import utils.TextUtil;
 
-import javax.swing.*;
 import java.awt.*;
 import java.util.*;
 import java.util.List;
 
 /**
- * @version 2.2
+ * @version 2.4
  *
  * This class follows the Singleton Design pattern, meaning only one instance can be created of this class.
  *
@@ -28,6 +27,9 @@ import java.util.List;
  * but we want to also be able to handle this case. What we currently do is find all nodes which can be reached from
  * the negative cycle with a depth-first search and mark them all as -INFINITY distance.
  *
+ * None of the methods in this class touch Swing or keep any state between calls, so they can be used headless and on
+ * several graphs in parallel.
+ *
  * @see Graph
  * @see Node
  * @see Edge
@@ -115,15 +117,15 @@ public class Solver {
     /**
      * Finds the shortest path between the Nodes marked as the start and end nodes in a given GraphModel. If a valid
      * path is found, then the Nodes and Edges along the path are highlighted and the Nodes and Edges not on the path
-     * are dimmed accordingly. If the goal Node is not reachable from the start Node, then a popup message appears to
-     * explain this to the user.
+     * are dimmed accordingly. If the goal Node is not reachable from the start Node, then the graph is left unchanged.
      *
      * @param graph The GraphModel whose start and goal Nodes to find the shortest paths between.
+     * @return Whether a path between the start and goal Nodes was found.
      * @see Graph
      * @see Node
      * @see Edge
      */
-    public void markShortestPath(Graph graph) {
+    public boolean markShortestPath(Graph graph) {
 
         Node startNode = graph.getStartNode();
         Node goalNode = graph.getGoalNode();
@@ -134,46 +136,43 @@ public class Solver {
 
         List<Edge> path = findShortestPath(graph, startNode, goalNode);
 
-        if (path.isEmpty()) {
-            JOptionPane.showMessageDialog(null,
-                    "There is no path between the marked start and goal nodes.",
-                    "No Path Found", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            Action<Node> nodeAction = node -> {
-                if (node == startNode)
-                    node.setActualFillColor(START_COLOR);
-                else if (node == goalNode) {
-                    node.setActualFillColor(GOAL_COLOR);
-                } else {
-
-                    boolean isPartOfPath = false;
-                    for (Edge edge : path) {
-                        if (edge.connectsTo(node)) {
-                            isPartOfPath = true;
-                            break;
-                        }
-                    }
+        if (path.isEmpty())
+            return false;
 
-                    if (isPartOfPath)
-                        node.setActualFillColor(EXPLORED_COLOR);
-                    else
-                        node.setActualFillColor(UNEXPLORED_COLOR);
-                }
+        Action<Node> nodeAction = node -> {
+            if (node == startNode)
+                node.setActualFillColor(START_COLOR);
+            else if (node == goalNode) {
+                node.setActualFillColor(GOAL_COLOR);
+            } else {
 
-                node.setActualBorderColor(node.getActualFillColor().darker());
-                node.setActualTextColor(MARKED_NODE_TEXT_COLOR);
-            };
+                boolean isPartOfPath = false;
+                for (Edge edge : path) {
+                    if (edge.connectsTo(node)) {
+                        isPartOfPath = true;
+                        break;
+                    }
+                }
 
-            Action<Edge> edgeAction = edge -> {
-                if (path.contains(edge))
-                    edge.setActualColor(EXPLORED_COLOR);
+                if (isPartOfPath)
+                    node.setActualFillColor(EXPLORED_COLOR);
                 else
-                    edge.setActualColor(UNEXPLORED_COLOR);
-            };
+                    node.setActualFillColor(UNEXPLORED_COLOR);
+            }
 
-            new NodeAndEdgeEdit(graph, graph.getNodes(), graph.getEdges(), nodeAction, edgeAction);
-        }
+            node.setActualBorderColor(node.getActualFillColor().darker());
+            node.setActualTextColor(MARKED_NODE_TEXT_COLOR);
+        };
 
+        Action<Edge> edgeAction = edge -> {
+            if (path.contains(edge))
+                edge.setActualColor(EXPLORED_COLOR);
+            else
+                edge.setActualColor(UNEXPLORED_COLOR);
+        };
+
+        new NodeAndEdgeEdit(graph, graph.getNodes(), graph.getEdges(), nodeAction, edgeAction);
+        return true;
     }
 
     /**
@@ -186,14 +185,34 @@ public class Solver {
      * @param graph The GraphModel whose Nodes to color.
      */
     public void colorGraph(Graph graph) {
-        List<Node> graphNodes = graph.getNodes();
-        if (graphNodes.isEmpty())
+        if (graph.getNodes().isEmpty())
             return;
 
+        Map<Node, Integer> colorMap = findColoring(graph);
+        int numColors = 1 + Collections.max(colorMap.values());
+
+        new NodeEdit(graph, graph.getNodes(), node -> {
+            float hue = colorMap.get(node) / (float)(numColors);
+            Color color = Color.getHSBColor(hue, 0.5f, 0.8f);
+            node.setActualFillColor(color);
+            node.setActualBorderColor(color.darker());
+            node.setActualTextColor(MARKED_NODE_TEXT_COLOR);
+        });
+    }
+
+    /**
+     * Finds a coloring of the Nodes in the given GraphModel such that no 2 Nodes connected by an Edge have the same
+     * color index, using the same greedy degeneracy ordering as colorGraph(). The graph is not modified.
+     *
+     * @param graph The GraphModel whose Nodes to color.
+     * @return A Map from every Node in the graph to its color index, where color indices start at 0.
+     */
+    public Map<Node, Integer> findColoring(Graph graph) {
+        List<Node> graphNodes = graph.getNodes();
+
         List<Node> nodes = new ArrayList<>(graphNodes.size());
         List<Edge> edges = graph.getEdges();
-        Map<Node, Integer> colorMap = new HashMap<>(nodes.size());
-        int highestColorIndex = -1;
+        Map<Node, Integer> colorMap = new HashMap<>(graphNodes.size());
 
         //NOTE(Boris): Use the degeneracy ordering strategy as a heuristic - this will produce close to optimal
         // colorings in most cases.
@@ -233,20 +252,9 @@ public class Solver {
             while (usedNeighborColors.contains(colorIndex))
                 ++colorIndex;
             colorMap.put(node, colorIndex);
-
-            if (highestColorIndex < colorIndex)
-                highestColorIndex = colorIndex;
         }
 
-        int numColors = 1 + highestColorIndex;
-
-        new NodeEdit(graph, graph.getNodes(), node -> {
-            float hue = colorMap.get(node) / (float)(numColors);
-            Color color = Color.getHSBColor(hue, 0.5f, 0.8f);
-            node.setActualFillColor(color);
-            node.setActualBorderColor(color.darker());
-            node.setActualTextColor(MARKED_NODE_TEXT_COLOR);
-        });
+        return colorMap;
     }
 
     /**
@@ -256,12 +264,15 @@ public class Solver {
      * @param graph The GraphModel in which to search.
      * @param start The Node from which the path should start.
      * @param goal The Node on which the path should end - if possible.
-     * @return A sequence of Edges connecting the start and goal Nodes that minimizes the sum of Edge weights - or an empty List if the goal Node is not reachable, or null if negative cycles were found.
+     * @return A sequence of Edges connecting the start and goal Nodes that minimizes the sum of Edge weights - or an
+     * empty List if the goal Node is not reachable. The Edges are ordered from the goal Node back to the start Node. If
+     * the way back from the goal Node runs into a negative cycle, there is no shortest path, and the Edges end once the
+     * next one would repeat an Edge of the cycle - so they never reach the start Node. The result is never null.
      * @see Graph
      * @see Node
      * @see Edge
      */
-    private List<Edge> findShortestPath(Graph graph, Node start, Node goal) {
+    public List<Edge> findShortestPath(Graph graph, Node start, Node goal) {
         int N = graph.getNodes().size();
         Map<Node, Double> dist = new HashMap<>(N);
         Map<Node, Edge> edgePath = new HashMap<>(N);
@@ -300,7 +311,7 @@ public class Solver {
      * @see Node
      * @see Edge
      */
-    private void exploreWholeGraph(
+    public void exploreWholeGraph(
             Graph graph,
             Node start,
             Map<Node, Double> outDist,
@@ -0,0 +1,149 @@
+package controller;
+
+import model.Subgraph;
+import utils.GraphIO;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.Reader;
+
+/**
+ * @version 1.1
+ *
+ * A SubgraphTransferable puts a Subgraph on the system clipboard, so that it can be pasted into other windows or other
+ * instances of the program. It offers the Subgraph in three flavors: as a stream in the compact BINARY format of the
+ * GraphIO, and as text in the EXTENDED format as a fallback for anything that only understands text - both streamed
+ * from a Reader and as a String.
+ *
+ * Nothing is encoded until the data is actually asked for. Both streams are encoded on a separate thread while they are
+ * being read, so neither copying nor pasting ever blocks the awt Event Dispatch Thread on encoding a large Subgraph.
+ * Only a String can't be handed out before it is complete, so whoever asks for one waits until the text is encoded.
+ *
+ * @see Clipboard
+ * @see GraphIO#writeSubgraph(Subgraph, java.io.OutputStream)
+ */
+public class SubgraphTransferable implements Transferable {
+
+    /**
+     * The flavor of a Subgraph in the BINARY format of the GraphIO, read from an InputStream.
+     */
+    public static final DataFlavor SUBGRAPH_FLAVOR = new DataFlavor(
+            "application/x-mcgraph-subgraph; class=java.io.InputStream", "Graph Subgraph");
+
+    /**
+     * The flavor of a Subgraph as text in the EXTENDED format, read from a Reader.
+     */
+    public static final DataFlavor TEXT_FLAVOR = new DataFlavor("text/plain; class=java.io.Reader", "Graph Text");
+
+    private static final int PIPE_BUFFER_SIZE = 1 << 16;
+
+    private final Subgraph subgraph;
+
+    /**
+     * @param subgraph The Subgraph to transfer.
+     */
+    public SubgraphTransferable(Subgraph subgraph) {
+        this.subgraph = subgraph;
+    }
+
+    /**
+     * @return The Subgraph being transferred.
+     */
+    public Subgraph getSubgraph() {
+        return subgraph;
+    }
+
+    @Override
+    public DataFlavor[] getTransferDataFlavors() {
+        return new DataFlavor[] { SUBGRAPH_FLAVOR, TEXT_FLAVOR, DataFlavor.stringFlavor };
+    }
+
+    @Override
+    public boolean isDataFlavorSupported(DataFlavor flavor) {
+        return SUBGRAPH_FLAVOR.equals(flavor) || TEXT_FLAVOR.equals(flavor) || DataFlavor.stringFlavor.equals(flavor);
+    }
+
+    @Override
+    public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException, IOException {
+        if (SUBGRAPH_FLAVOR.equals(flavor))
+            return openStream();
+        if (TEXT_FLAVOR.equals(flavor))
+            return openReader();
+        if (DataFlavor.stringFlavor.equals(flavor)) {
+            StringBuilder text = new StringBuilder();
+            try (Reader reader = openReader()) {
+                char[] buffer = new char[PIPE_BUFFER_SIZE];
+                for (int read; (read = reader.read(buffer)) >= 0; )
+                    text.append(buffer, 0, read);
+            }
+            return text.toString();
+        }
+        throw new UnsupportedFlavorException(flavor);
+    }
+
+    /**
+     * Opens a stream that the Subgraph is written into in the BINARY format by a separate thread, while it is being
+     * read.
+     *
+     * @return The stream to read the Subgraph from.
+     * @throws IOException If the stream can't be opened.
+     */
+    private InputStream openStream() throws IOException {
+        PipedInputStream in = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream out = new PipedOutputStream(in);
+        startWriter(() -> {
+            try (PipedOutputStream stream = out) {
+                GraphIO.writeSubgraph(subgraph, stream);
+            }
+        });
+        return in;
+    }
+
+    /**
+     * Opens a reader that the Subgraph is written into as text in the EXTENDED format by a separate thread, while it
+     * is being read.
+     *
+     * @return The reader to read the Subgraph from.
+     * @throws IOException If the reader can't be opened.
+     */
+    private Reader openReader() throws IOException {
+        PipedReader in = new PipedReader(PIPE_BUFFER_SIZE);
+        PipedWriter out = new PipedWriter(in);
+        startWriter(() -> {
+            try (PipedWriter writer = out) {
+                GraphIO.writeSubgraph(subgraph, writer);
+            }
+        });
+        return in;
+    }
+
+    /**
+     * Runs the given write on a new daemon thread.
+     */
+    private static void startWriter(Write write) {
+        //NOTE: Not the common pool, since writing blocks whenever the reader falls behind.
+        Thread writer = new Thread(() -> {
+            try {
+                write.run();
+            } catch (IOException e) {
+                //NOTE: The reader stopped reading, so there is nobody left to tell.
+            }
+        }, "Subgraph writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes the Subgraph into one end of a pipe.
+     */
+    private interface Write {
+        void run() throws IOException;
+    }
+}
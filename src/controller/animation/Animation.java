@@ -1,18 +1,25 @@
 package controller.animation;
 
-import utils.BoundedList;
+import model.Graph;
 
-import java.awt.*;
-import java.util.Timer;
-import java.util.TimerTask;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
-* @version 2.0
+* @version 3.2
  *
  * Animations are small snippets of code that execute 60 times per second for a fixed duration while playing. They are
  * meant to be used for moving stuff around the screen, changing colors, etc. without any user input. For example, when
  * a Node is clicked on, an Animation will play that makes the Node expand and then shrink really quickly to show the
  * user that it was selected.
+ *
+ * Animations that only change how things look should write into the AnimationOverlay instead of changing the Nodes and
+ * Edges themselves, and clean up after themselves in onStop().
+ *
+ * @see AnimationOverlay
  */
 public class Animation {
 
@@ -63,6 +70,7 @@ public class Animation {
     public void play() {
         if (!isOver() && !isPlaying()) {
             Manager.playingAnimations.add(this);
+            Manager.wakeUp();
         }
     }
 
@@ -70,7 +78,8 @@ public class Animation {
      * Stops the current Animation.
      */
     public void stop() {
-        Manager.playingAnimations.remove(this);
+        if (Manager.playingAnimations.remove(this))
+            onStop();
     }
 
     /**
@@ -123,53 +132,120 @@ public class Animation {
         updateAction.update(this);
     }
 
+    /**
+     * Called whenever this Animation stops playing, either because it finished, or because it was stopped. Animations
+     * that write into the AnimationOverlay should remove what they wrote here.
+     */
+    protected void onStop() {}
+
     /**
      * The Animation Manager synchronizes and schedules all of the currently playing Animations. All playing Animations
      * are scheduled in the awt Event Dispatch Thread - so Animations should be kept light-weight to avoid bogging it
      * down.
+     *
+     * Every frame, all playing Animations are updated inside a single batched update of the Graph, so the Graph notifies
+     * its observers - and the GraphPanel repaints - only once per frame no matter how many Nodes are being animated.
+     * The frame timer only runs while at least one Animation is playing. There is no limit to the number of playing
+     * Animations, and playing, stopping and checking whether an Animation is playing all take constant time - but when
+     * many elements start animating together, like when selecting many Nodes at once, they should share a single
+     * Animation.
+     *
+     * @see Graph#beginUpdate()
      */
     public static final class Manager {
 
         private static final double ANIMATION_TICKS_PER_SECOND = 60.0;
-        private static final Timer animationTimer = new Timer();
-        private static final BoundedList<Animation> playingAnimations = new BoundedList<>(64);
+        //NOTE: Animations don't override equals(), so this set is keyed by identity.
+        private static final Set<Animation> playingAnimations = new LinkedHashSet<>();
+        private static final List<Animation> frameAnimations = new ArrayList<>();
+        private static final List<Runnable> frameListeners = new ArrayList<>();
+        private static final Timer animationTimer = new Timer((int)(1000.0 / ANIMATION_TICKS_PER_SECOND), e -> tick());
+        private static Graph graph;
+        private static boolean isAnimating;
         private static long lastNanoTime;
 
+        static {
+            animationTimer.setInitialDelay(0);
+            animationTimer.setCoalesce(true);
+        }
+
         /**
-         * Initializes the Manager and Schedules a timer that will play Animations 60 times per second.
+         * Enables playing Animations. Animations will only actually be updated while any of them are playing.
+         *
+         * @param animatedGraph The Graph whose Nodes and Edges the Animations change, so that all changes in a frame
+         *                      can be batched into a single update.
          */
-        public static void startAnimating() {
-            TimerTask updateAnimations = new TimerTask() {
-                @Override
-                public void run() {
-                    // invokeLater() will place this into the even dispatch thread.
-                    EventQueue.invokeLater(() -> {
-                        long nanoTime = System.nanoTime();
-                        double deltaTime = (nanoTime - lastNanoTime) / 1000000000.0;
-
-                        for (Animation animation : playingAnimations) {
-                            animation.triggerUpdate();
-                            animation.setCurrentTime(animation.getCurrentTime() + deltaTime);
-                        }
-
-                        playingAnimations.removeIf(Animation::isOver);
-
-                        lastNanoTime = nanoTime;
-                    });
-                }
-            };
-
-            final long TIMER_PERIOD_IN_MILLISECONDS = (long)(1000.0 / ANIMATION_TICKS_PER_SECOND);
-            lastNanoTime = System.nanoTime();
-            animationTimer.scheduleAtFixedRate(updateAnimations, 0, TIMER_PERIOD_IN_MILLISECONDS);
+        public static void startAnimating(Graph animatedGraph) {
+            graph = animatedGraph;
+            isAnimating = true;
+            wakeUp();
         }
 
         /**
          * Stops all currently playing Animations.
          */
         public static void stopAnimating() {
+            List<Animation> stoppedAnimations = new ArrayList<>(playingAnimations);
             playingAnimations.clear();
-            animationTimer.cancel();
+            for (Animation animation : stoppedAnimations)
+                animation.onStop();
+            animationTimer.stop();
+            isAnimating = false;
+        }
+
+        /**
+         * Adds a listener that runs once after every frame in which any Animation played, e.g. to repaint what the
+         * Animations wrote into the AnimationOverlay.
+         *
+         * @param listener The listener to run after every frame.
+         */
+        public static void addFrameListener(Runnable listener) {
+            frameListeners.add(listener);
+        }
+
+        /**
+         * Starts the frame timer if it isn't already running and there is something to play.
+         */
+        private static void wakeUp() {
+            if (isAnimating && !playingAnimations.isEmpty() && !animationTimer.isRunning()) {
+                lastNanoTime = System.nanoTime();
+                animationTimer.start();
+            }
+        }
+
+        /**
+         * Updates all playing Animations for a single frame, and stops the frame timer once none are left playing.
+         */
+        private static void tick() {
+            long nanoTime = System.nanoTime();
+            double deltaTime = (nanoTime - lastNanoTime) / 1000000000.0;
+            lastNanoTime = nanoTime;
+
+            //NOTE: Animations may start or stop other Animations while updating, so update a snapshot of this frame's
+            // Animations. The snapshot list is reused between frames.
+            frameAnimations.addAll(playingAnimations);
+            if (graph != null)
+                graph.beginUpdate();
+            try {
+                for (Animation animation : frameAnimations) {
+                    if (!animation.isPlaying())
+                        continue;
+                    animation.triggerUpdate();
+                    animation.setCurrentTime(animation.getCurrentTime() + deltaTime);
+                    if (animation.isOver() && playingAnimations.remove(animation))
+                        animation.onStop();
+                }
+            } finally {
+                frameAnimations.clear();
+                if (graph != null)
+                    graph.endUpdate();
+            }
+
+            if (playingAnimations.isEmpty())
+                animationTimer.stop();
+
+            for (Runnable listener : frameListeners)
+                listener.run();
         }
 
         /**
@@ -177,4 +253,4 @@ public class Animation {
          */
         private Manager() {}
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,299 @@
+package controller.animation;
+
+import model.Edge;
+import model.Node;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+* @version 1.3
+ *
+ * The AnimationOverlay stores what Animations currently look like, without ever changing the Nodes and Edges that are
+ * being animated. Animations write their interpolated colors, scales and offsets into a Tween for every element they
+ * animate, and the GraphPanel samples those Tweens when it paints. Since the model stays untouched, an animation frame
+ * doesn't notify any observers and doesn't recalculate any Edge geometry - Edges connected to an animated Node keep
+ * their cached geometry and are painted with a transform instead.
+ *
+ * Like the Animation.Manager, the AnimationOverlay is only ever changed from the awt Event Dispatch Thread, and it
+ * isn't synchronized. Other threads may only read it while the Event Dispatch Thread is blocked waiting for them, so
+ * that no Animation can change it in the meantime. The worker threads of the TiledRenderer rely on this: they read
+ * the Tweens while the Event Dispatch Thread waits in TiledRenderer.paint() until every strip is finished. A renderer
+ * that doesn't wait for its threads has to copy what it needs on the Event Dispatch Thread instead.
+ *
+ * @see Animation
+ * @see Tween
+ */
+public final class AnimationOverlay {
+
+    /**
+     * Represents the animated appearance of a single Node or Edge. A null color means that the element's own color is
+     * used. The scale is applied around the center of the Node, followed by the offset. The Tween also counts how many
+     * Animations are scaling its Node, so that the scale is only reset once the last of them stops.
+     */
+    public static final class Tween {
+
+        private Color fillColor;
+        private Color borderColor;
+        private Color textColor;
+        private Color edgeColor;
+        private double scaleX = 1;
+        private double scaleY = 1;
+        private int scalingAnimations;
+        private double offsetX;
+        private double offsetY;
+
+        /**
+         * @return The animated fill color of a Node, or null if it isn't animated.
+         */
+        public Color getFillColor() {
+            return fillColor;
+        }
+
+        /**
+         * @return The animated border color of a Node, or null if it isn't animated.
+         */
+        public Color getBorderColor() {
+            return borderColor;
+        }
+
+        /**
+         * @return The animated text color of a Node, or null if it isn't animated.
+         */
+        public Color getTextColor() {
+            return textColor;
+        }
+
+        /**
+         * @return The animated color of an Edge, or null if it isn't animated.
+         */
+        public Color getEdgeColor() {
+            return edgeColor;
+        }
+
+        /**
+         * @return Whether this Tween changes the geometry of its element.
+         */
+        public boolean isTransformed() {
+            return scaleX != 1 || scaleY != 1 || offsetX != 0 || offsetY != 0;
+        }
+
+        /**
+         * @param bounds The bounds of the animated Node.
+         * @return The transform that maps the Node's own geometry to its animated geometry.
+         */
+        public AffineTransform getTransform(Rectangle2D bounds) {
+            double centerX = bounds.getCenterX();
+            double centerY = bounds.getCenterY();
+            AffineTransform transform = AffineTransform.getTranslateInstance(centerX + offsetX, centerY + offsetY);
+            transform.scale(scaleX, scaleY);
+            transform.translate(-centerX, -centerY);
+            return transform;
+        }
+
+        /**
+         * @return Whether this Tween doesn't change anything anymore and can be dropped.
+         */
+        private boolean isIdle() {
+            return fillColor == null && borderColor == null && textColor == null && edgeColor == null
+                    && !isTransformed() && scalingAnimations == 0;
+        }
+    }
+
+    //NOTE: Not synchronized - see the class comment for which threads may read it.
+    private static final Map<Object, Tween> tweens = new IdentityHashMap<>();
+    private static final Set<Object> animatedElements = Collections.unmodifiableSet(tweens.keySet());
+
+    /**
+     * @param element A Node or an Edge.
+     * @return The Tween of the given element, or null if it isn't being animated.
+     */
+    public static Tween getTween(Object element) {
+        return tweens.isEmpty() ? null : tweens.get(element);
+    }
+
+    /**
+     * @return A live, unmodifiable view of the Nodes and Edges that are currently being animated. Edges that only move
+     * along with an animated Node aren't part of it.
+     */
+    public static Set<Object> getAnimatedElements() {
+        return animatedElements;
+    }
+
+    /**
+     * @return Whether no element is being animated at all.
+     */
+    public static boolean isEmpty() {
+        return tweens.isEmpty();
+    }
+
+    /**
+     * Sets the animated fill color of a Node.
+     *
+     * @param node The animated Node.
+     * @param color The animated fill color, or null to stop animating it.
+     */
+    public static void setFillColor(Node node, Color color) {
+        update(node, tween -> tween.fillColor = color);
+    }
+
+    /**
+     * Sets the animated border color of a Node.
+     *
+     * @param node The animated Node.
+     * @param color The animated border color, or null to stop animating it.
+     */
+    public static void setBorderColor(Node node, Color color) {
+        update(node, tween -> tween.borderColor = color);
+    }
+
+    /**
+     * Sets the animated text color of a Node.
+     *
+     * @param node The animated Node.
+     * @param color The animated text color, or null to stop animating it.
+     */
+    public static void setTextColor(Node node, Color color) {
+        update(node, tween -> tween.textColor = color);
+    }
+
+    /**
+     * Sets the animated color of an Edge.
+     *
+     * @param edge The animated Edge.
+     * @param color The animated color, or null to stop animating it.
+     */
+    public static void setEdgeColor(Edge edge, Color color) {
+        update(edge, tween -> tween.edgeColor = color);
+    }
+
+    /**
+     * Sets the animated scale of a Node, around its center.
+     *
+     * @param node The animated Node.
+     * @param scaleX The horizontal scale, 1 to stop scaling it.
+     * @param scaleY The vertical scale, 1 to stop scaling it.
+     */
+    public static void setScale(Node node, double scaleX, double scaleY) {
+        update(node, tween -> {
+            tween.scaleX = scaleX;
+            tween.scaleY = scaleY;
+        });
+    }
+
+    /**
+     * Records that one more Animation is scaling a Node, until it calls endScale().
+     *
+     * @param node The Node that is being scaled.
+     */
+    public static void beginScale(Node node) {
+        update(node, tween -> ++tween.scalingAnimations);
+    }
+
+    /**
+     * Records that an Animation that called beginScale() stopped scaling a Node. Once no Animation is scaling the Node
+     * anymore, its scale is reset - until then, the Animations that are still playing keep setting it.
+     *
+     * @param node The Node that was being scaled.
+     */
+    public static void endScale(Node node) {
+        Tween tween = tweens.get(node);
+        if (tween == null || tween.scalingAnimations == 0)
+            return;
+        update(node, t -> {
+            if (--t.scalingAnimations == 0) {
+                t.scaleX = 1;
+                t.scaleY = 1;
+            }
+        });
+    }
+
+    /**
+     * Sets the animated offset of a Node.
+     *
+     * @param node The animated Node.
+     * @param offsetX The horizontal offset, 0 to stop moving it.
+     * @param offsetY The vertical offset, 0 to stop moving it.
+     */
+    public static void setOffset(Node node, double offsetX, double offsetY) {
+        update(node, tween -> {
+            tween.offsetX = offsetX;
+            tween.offsetY = offsetY;
+        });
+    }
+
+    /**
+     * Calculates how an Edge moves along with its animated Nodes. The cached line of the Edge is mapped onto the line
+     * between the animated end points, so the rest of the cached geometry can be painted with the same transform.
+     *
+     * @param edge The Edge to paint.
+     * @return The transform of the Edge's geometry, or null if neither of its Nodes is transformed.
+     */
+    public static AffineTransform getEdgeTransform(Edge edge) {
+        if (tweens.isEmpty())
+            return null;
+
+        Tween tween1 = tweens.get(edge.getNode1());
+        Tween tween2 = tweens.get(edge.getNode2());
+        boolean transformed1 = tween1 != null && tween1.isTransformed();
+        boolean transformed2 = tween2 != null && tween2.isTransformed();
+        if (!transformed1 && !transformed2)
+            return null;
+
+        //NOTE: The line of an Edge always starts on node 1 and ends on node 2.
+        Line2D line = edge.getLine();
+        Point2D from = line.getP1();
+        Point2D to = line.getP2();
+        Point2D newFrom = transformed1 ? tween1.getTransform(edge.getNode1().getVisualBounds()).transform(from, null) : from;
+        Point2D newTo = transformed2 ? tween2.getTransform(edge.getNode2().getVisualBounds()).transform(to, null) : to;
+
+        double dx = to.getX() - from.getX();
+        double dy = to.getY() - from.getY();
+        double newDx = newTo.getX() - newFrom.getX();
+        double newDy = newTo.getY() - newFrom.getY();
+        double lengthSq = dx * dx + dy * dy;
+        if (lengthSq == 0)
+            return null;
+
+        //NOTE: The similarity transform that maps (from, to) onto (newFrom, newTo) - a rotation and uniform scale
+        // given by the complex quotient of the two line directions, followed by a translation.
+        double a = (newDx * dx + newDy * dy) / lengthSq;
+        double b = (newDy * dx - newDx * dy) / lengthSq;
+        return new AffineTransform(a, b, -b, a,
+                newFrom.getX() - (a * from.getX() - b * from.getY()),
+                newFrom.getY() - (b * from.getX() + a * from.getY()));
+    }
+
+    /**
+     * Stops animating all elements.
+     */
+    public static void clear() {
+        tweens.clear();
+    }
+
+    /**
+     * Applies a change to the Tween of an element, and drops the Tween once it doesn't change anything anymore.
+     *
+     * @param element The animated Node or Edge.
+     * @param change The change to apply to its Tween.
+     */
+    private static void update(Object element, Consumer<Tween> change) {
+        Tween tween = tweens.computeIfAbsent(element, e -> new Tween());
+        change.accept(tween);
+        if (tween.isIdle())
+            tweens.remove(element);
+    }
+
+    /**
+     * This class contains only static fields and methods and should never be instantiated.
+     */
+    private AnimationOverlay() {}
+}
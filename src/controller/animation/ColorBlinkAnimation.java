@@ -5,14 +5,17 @@ import utils.MathUtil;
 import utils.Setter;
 
 import java.awt.*;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
-* @version 2.0
+* @version 3.0
  *
  * Represents an Animation that blinks the Color of a list of objects between a Color, and it's lighter or darker
  * variant. This is a generic class that can be used to blink the Color's of any class T, in a fully generic manner.
- * It is used for blinking the Colors of Nodes and Edges.
+ * It is used for blinking the Colors of Nodes and Edges, by setting their Colors in the AnimationOverlay.
  *
  * NOTE that this Animation runs indefinitely. Once you call play(), you need to manually call stop() when you don't
  * need the Animation to play anymore. If you don't do this the Animation will keep playing forever.
@@ -20,6 +23,7 @@ import java.util.List;
  * @param <T> The class whose Color to blink.
  *
  * @see Animation
+ * @see AnimationOverlay
  */
 public class ColorBlinkAnimation<T> extends Animation {
 
@@ -35,17 +39,35 @@ public class ColorBlinkAnimation<T> extends Animation {
         List<T> getObjects();
     }
 
+    private final Set<T> blinkedObjects;
+    private final Setter<T, Color> colorSetter;
+
     /**
      * Constructs a ColorBlinkingAnimation from the given ObjectGetter and a ColorGetter and ColorSetter for the
      * Colors to blink. Every Animation tick, this Animation will loop over all objects retrieved from the ObjectGetter,
-     * retrieve their color using the ColorGetter, and then set their new Color using the ColorSetter.
+     * retrieve their color using the ColorGetter, and then set their new Color using the ColorSetter. Once the
+     * Animation stops, the ColorSetter is called with a null Color for every object that was blinked.
      *
      * @param blinkedObjectGetter The ObjectGetter used to retrieve a List of objects whose color to blink.
      * @param colorGetter The Getter used to retrieve Colors that will be blinked from a Node.
-     * @param colorSetter The Setter used to apply the blinked Colors to the Node.
+     * @param colorSetter The Setter used to apply the blinked Colors to the AnimationOverlay, e.g.
+     *                    AnimationOverlay::setFillColor.
      * @see Animation
      */
     public ColorBlinkAnimation(ObjectGetter<T> blinkedObjectGetter, Getter<T, Color> colorGetter, Setter<T, Color> colorSetter) {
+        this(blinkedObjectGetter, colorGetter, colorSetter, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /**
+     * Constructs a ColorBlinkingAnimation that remembers the blinked objects in the given set.
+     *
+     * @param blinkedObjectGetter The ObjectGetter used to retrieve a List of objects whose color to blink.
+     * @param colorGetter The Getter used to retrieve Colors that will be blinked from a Node.
+     * @param colorSetter The Setter used to apply the blinked Colors to the AnimationOverlay.
+     * @param blinkedObjects The (empty) set of objects whose color has been blinked so far.
+     */
+    private ColorBlinkAnimation(ObjectGetter<T> blinkedObjectGetter, Getter<T, Color> colorGetter,
+                                Setter<T, Color> colorSetter, Set<T> blinkedObjects) {
         super(animation -> {
             double t = animation.getCurrentTime();
             for (T object : blinkedObjectGetter.getObjects()) {
@@ -53,8 +75,18 @@ public class ColorBlinkAnimation<T> extends Animation {
                 Color to = MathUtil.darkerOrLighterColor(from, 0.4f);
                 Color interpolatedColor = MathUtil.lerp(from, to, Math.abs(Math.sin(4 * t)));
                 colorSetter.set(object, interpolatedColor);
+                blinkedObjects.add(object);
             }
         });
+        this.blinkedObjects = blinkedObjects;
+        this.colorSetter = colorSetter;
+    }
+
+    @Override
+    protected void onStop() {
+        for (T object : blinkedObjects)
+            colorSetter.set(object, null);
+        blinkedObjects.clear();
     }
 
 }
\ No newline at end of file
@@ -1,24 +1,27 @@
 package controller.animation;
 
 import model.Node;
-import utils.MathUtil;
 
 import java.awt.geom.Rectangle2D;
 import java.util.Arrays;
 import java.util.List;
 
 /**
-* @version 1.0
+* @version 2.1
  *
  * Represents an Animation that expands and then shrinks the rectangle bounds of Nodes. This Animation plays when the
  * user selects a Node. The Nodes will first expand, and then shrink back to their original size from before the
- * Animation started.
+ * Animation started. The Nodes themselves are never resized, the Animation only scales them in the AnimationOverlay.
+ * Several NodeSizeAnimations may scale the same Node at once - its scale is only reset once the last of them stops.
  *
  * @see Animation
  * @see Node
+ * @see AnimationOverlay
  */
 public class NodeSizeAnimation extends Animation {
 
+    private final List<Node> nodes;
+
     /**
      * Constructs a NodeSizeAnimation for a given list of Nodes, how much they should expand/shrink by, and the duration
      * of the Animation.
@@ -33,11 +36,13 @@ public class NodeSizeAnimation extends Animation {
             double t = animation.getCurrentTime() / animation.getDuration();
             t = 1 - Math.abs(2 * t - 1);
             for (Node node : nodes) {
-                Rectangle2D bounds = MathUtil.growRectangle(node.getActualBounds(),
-                        t * peakDeltaWidth, t * peakDeltaHeight);
-                node.setVisualBounds(bounds);
+                Rectangle2D bounds = node.getVisualBounds();
+                double scaleX = bounds.getWidth() > 0 ? Math.max(bounds.getWidth() + t * peakDeltaWidth, 0) / bounds.getWidth() : 1;
+                double scaleY = bounds.getHeight() > 0 ? Math.max(bounds.getHeight() + t * peakDeltaHeight, 0) / bounds.getHeight() : 1;
+                AnimationOverlay.setScale(node, scaleX, scaleY);
             }
         });
+        this.nodes = nodes;
     }
 
     /**
@@ -52,4 +57,20 @@ public class NodeSizeAnimation extends Animation {
         this(Arrays.asList(node), peakDeltaWidth, peakDeltaHeight, duration);
     }
 
+    @Override
+    public void play() {
+        boolean wasPlaying = isPlaying();
+        super.play();
+        if (!wasPlaying && isPlaying()) {
+            for (Node node : nodes)
+                AnimationOverlay.beginScale(node);
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        for (Node node : nodes)
+            AnimationOverlay.endScale(node);
+    }
+
 }
\ No newline at end of file
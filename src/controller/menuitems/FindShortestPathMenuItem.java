@@ -10,7 +10,7 @@ import java.awt.*;
 import java.awt.event.KeyEvent;
 
 /**
- * @version 1.1
+ * @version 1.2
  *
  * This control allows the user to invoke the Solver to find the shortest path between the "start" and "goal" Nodes.
  *
@@ -40,8 +40,14 @@ public class FindShortestPathMenuItem extends JMenuItem {
         graph.addObserver((obj, msg) -> setProperties());
         addActionListener(event -> {
             panel.setCursor(new Cursor(Cursor.WAIT_CURSOR));
-            solver.markShortestPath(graph);
+            boolean pathFound = solver.markShortestPath(graph);
             panel.setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+
+            if (!pathFound) {
+                JOptionPane.showMessageDialog(null,
+                        "There is no path between the marked start and goal nodes.",
+                        "No Path Found", JOptionPane.INFORMATION_MESSAGE);
+            }
         });
 
         setMnemonic(KeyEvent.VK_F);
@@ -0,0 +1,32 @@
+package controller.menuitems;
+
+import view.GraphPanel;
+
+import javax.swing.*;
+import java.awt.event.KeyEvent;
+
+/**
+* @version 1.0
+ *
+ * This control allows the user to turn painting the graph on several threads at once on or off.
+ *
+ * @see GraphPanel#setTiledRendering(boolean)
+ * @see controller.MenuBar
+ */
+public class ParallelRenderingMenuItem extends JCheckBoxMenuItem {
+
+    /**
+     * Constructs a ParallelRenderingMenuItem for the given panel.
+     *
+     * @param panel The GraphPanel whose rendering will be toggled.
+     */
+    public ParallelRenderingMenuItem(GraphPanel panel) {
+        super("Parallel Rendering", panel.isTiledRendering());
+        setToolTipText("Paint large graphs on several threads at once.");
+
+        addActionListener(e -> panel.setTiledRendering(isSelected()));
+
+        setMnemonic(KeyEvent.VK_P);
+    }
+
+}
@@ -0,0 +1,32 @@
+package controller.menuitems;
+
+import view.GraphPanel;
+
+import javax.swing.*;
+import java.awt.event.KeyEvent;
+
+/**
+* @version 1.0
+ *
+ * This control allows the user to turn painting the graph over several frames on or off.
+ *
+ * @see GraphPanel#setProgressiveRendering(boolean)
+ * @see controller.MenuBar
+ */
+public class ProgressiveRenderingMenuItem extends JCheckBoxMenuItem {
+
+    /**
+     * Constructs a ProgressiveRenderingMenuItem for the given panel.
+     *
+     * @param panel The GraphPanel whose rendering will be toggled.
+     */
+    public ProgressiveRenderingMenuItem(GraphPanel panel) {
+        super("Progressive Rendering", panel.isProgressiveRendering());
+        setToolTipText("Paint large graphs over several frames, the most important parts first.");
+
+        addActionListener(e -> panel.setProgressiveRendering(isSelected()));
+
+        setMnemonic(KeyEvent.VK_R);
+    }
+
+}
@@ -4,6 +4,7 @@ import controller.undoableedits.EdgeEdit;
 import model.Edge;
 import model.Graph;
 import controller.animation.Animation;
+import controller.animation.AnimationOverlay;
 import controller.animation.ColorBlinkAnimation;
 
 import javax.swing.*;
@@ -14,7 +15,7 @@ import java.awt.geom.Rectangle2D;
 import java.util.List;
 
 /**
-* @version 1.3
+* @version 1.4
  *
  * This control allows the user to select a new color for Edges. It also plays a ColorBlinkAnimation for Edge colors
  * when the user hovers their mouse over the button.
@@ -58,7 +59,7 @@ public class EdgeColorChooser extends JButton {
 
         addMouseListener(new MouseAdapter() {
             private final Animation edgeColorAnimation = new ColorBlinkAnimation<>(
-                    graph::getSelectedEdges, Edge::getActualColor, Edge::setVisualColor);
+                    graph::getSelectedEdges, Edge::getActualColor, AnimationOverlay::setEdgeColor);
 
             @Override
             public void mouseEntered(MouseEvent e) {
@@ -69,8 +70,6 @@ public class EdgeColorChooser extends JButton {
             public void mouseExited(MouseEvent e) {
                 edgeColorAnimation.stop();
                 edgeColorAnimation.setCurrentTime(0);
-                for (Edge edge : graph.getEdges())
-                    edge.setVisualColor(edge.getActualColor());
             }
         });
     }
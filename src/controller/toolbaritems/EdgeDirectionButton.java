@@ -6,6 +6,7 @@ import model.EdgeDirection;
 import model.Graph;
 import model.Node;
 import controller.animation.Animation;
+import controller.animation.AnimationOverlay;
 import controller.animation.ColorBlinkAnimation;
 
 import javax.swing.*;
@@ -15,7 +16,7 @@ import java.awt.event.MouseEvent;
 import java.awt.geom.Line2D;
 
 /**
-* @version 2.0
+* @version 2.1
  *
  * This control allows the user to change the directionality of the selected Edges. It also plays a ColorBlinkAnimation
  * when the user hovers over the button in order to indicate which Edges will change to the user. All the EdgeDirections
@@ -64,7 +65,7 @@ public class EdgeDirectionButton extends JButton {
 
         addMouseListener(new MouseAdapter() {
             private final Animation edgeColorAnimation = new ColorBlinkAnimation<>(
-                    graph::getSelectedEdges, Edge::getActualColor, Edge::setVisualColor);
+                    graph::getSelectedEdges, Edge::getActualColor, AnimationOverlay::setEdgeColor);
 
             @Override
             public void mouseEntered(MouseEvent e) {
@@ -75,8 +76,6 @@ public class EdgeDirectionButton extends JButton {
             public void mouseExited(MouseEvent e) {
                 edgeColorAnimation.stop();
                 edgeColorAnimation.setCurrentTime(0);
-                for (Edge edge : graph.getSelectedEdges())
-                    edge.setVisualColor(edge.getActualColor());
             }
         });
     }
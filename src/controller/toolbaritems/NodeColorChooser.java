@@ -3,6 +3,7 @@ package controller.toolbaritems;
 import model.Graph;
 import model.Node;
 import controller.animation.Animation;
+import controller.animation.AnimationOverlay;
 import controller.animation.ColorBlinkAnimation;
 import controller.undoableedits.NodeEdit;
 import utils.Getter;
@@ -16,7 +17,7 @@ import java.awt.geom.Rectangle2D;
 import java.util.List;
 
 /**
-* @version 4.0
+* @version 4.1
  *
  * This control can be used to choose a color for the selected Nodes in a graph. It is generic on how it retrieves and
  * sets colors on the Nodes, so it can be used for changing any colors of a Node, including text color, fill color and
@@ -41,14 +42,14 @@ public class NodeColorChooser extends JButton {
      * @param tooltipText The tooltip text that will appear when the user hovers their mouse over this button.
      * @param actualColorGetter The Getter used to get the relevant actual Color from a Node.
      * @param actualColorSetter The Setter used to set the relevant actual Color to a Node.
-     * @param visualColorSetter The Setter used to set the relevant visual Color to a Node.
+     * @param overlayColorSetter The Setter used to set the relevant animated Color of a Node in the AnimationOverlay.
      */
     public NodeColorChooser(
             Graph graph,
             String tooltipText,
             Getter<Node, Color> actualColorGetter,
             Setter<Node, Color> actualColorSetter,
-            Setter<Node, Color> visualColorSetter)
+            Setter<Node, Color> overlayColorSetter)
     {
         super();
         setToolTipText(tooltipText);
@@ -77,7 +78,7 @@ public class NodeColorChooser extends JButton {
 
         addMouseListener(new MouseAdapter() {
             private final Animation fillColorAnimation = new ColorBlinkAnimation<>(
-                    graph::getSelectedNodes, actualColorGetter, visualColorSetter);
+                    graph::getSelectedNodes, actualColorGetter, overlayColorSetter);
 
             @Override
             public void mouseEntered(MouseEvent e) {
@@ -88,8 +89,6 @@ public class NodeColorChooser extends JButton {
             public void mouseExited(MouseEvent e) {
                 fillColorAnimation.stop();
                 fillColorAnimation.setCurrentTime(0);
-                for (Node node : graph.getNodes())
-                    visualColorSetter.set(node, actualColorGetter.get(node));
             }
         });
     }
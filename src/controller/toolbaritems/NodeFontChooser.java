@@ -3,6 +3,7 @@ package controller.toolbaritems;
 import model.Graph;
 import model.Node;
 import controller.animation.Animation;
+import controller.animation.AnimationOverlay;
 import controller.animation.ColorBlinkAnimation;
 import controller.undoableedits.NodeEdit;
 import utils.TextUtil;
@@ -18,7 +19,7 @@ import java.util.Arrays;
 import java.util.List;
 
 /**
-* @version 2.2
+* @version 2.3
  *
  * This control allows the user to select a font for all selected Nodes from a drop down menu. All entries in the menu
  * have their text shown using the font that they represent in order to make it easier for the user to choose which font
@@ -41,20 +42,20 @@ public class NodeFontChooser extends JComboBox<String> {
      * @param graph The GraphModel whose selected Nodes will have their fonts altered.
      */
     public NodeFontChooser(Graph graph) {
-        super(TextUtil.ALL_FONT_NAMES);
+        super(TextUtil.getAllFontNames());
         setToolTipText("Select a font for the text of the selected nodes.");
         setSelectedIndex(0);
 
         this.graph = graph;
         textColorAnimation = new ColorBlinkAnimation<>(
-                graph::getSelectedNodes, Node::getActualTextColor, Node::setVisualTextColor);
+                graph::getSelectedNodes, Node::getActualTextColor, AnimationOverlay::setTextColor);
         shouldChangeNodes = true;
 
         //NOTE(Boris): The code below makes this combo box actually load at a reasonable speed.
         // Without it, loading the box takes like 2 seconds and feels very unresponsive.
         // Adapted from: https://stackoverflow.com/a/5896414
         setRenderer(new Renderer());
-        setPrototypeDisplayValue(ListUtil.getLongest(TextUtil.ALL_FONT_NAMES));
+        setPrototypeDisplayValue(ListUtil.getLongest(TextUtil.getAllFontNames()));
         ComboPopup popup = (ComboPopup)getUI().getAccessibleChild(this, 0);
         @SuppressWarnings("unchecked")
         JList<String> popupList = popup.getList();
@@ -67,12 +68,10 @@ public class NodeFontChooser extends JComboBox<String> {
             if (!shouldChangeNodes)
                 return;
 
-            String newFontName = TextUtil.ALL_FONT_NAMES[getSelectedIndex()];
+            String newFontName = TextUtil.getAllFontNames()[getSelectedIndex()];
 
             textColorAnimation.stop();
             textColorAnimation.setCurrentTime(0);
-            for (Node node : graph.getSelectedNodes())
-                node.setVisualTextColor(node.getActualTextColor());
 
             new NodeEdit(graph, graph.getSelectedNodes(), node -> {
                 Font oldFont = node.getActualFont();
@@ -91,8 +90,6 @@ public class NodeFontChooser extends JComboBox<String> {
             public void mouseExited(MouseEvent e) {
                 textColorAnimation.stop();
                 textColorAnimation.setCurrentTime(0);
-                for (Node node : graph.getSelectedNodes())
-                    node.setVisualTextColor(node.getActualTextColor());
             }
         };
 
@@ -106,8 +103,6 @@ public class NodeFontChooser extends JComboBox<String> {
                 textColorAnimation.setCurrentTime(0);
                 for (Node node : graph.getSelectedNodes())
                     node.setVisualFont(node.getActualFont());
-                for (Node node : graph.getSelectedNodes())
-                    node.setVisualTextColor(node.getActualTextColor());
             }
 
             @Override
@@ -134,7 +129,7 @@ public class NodeFontChooser extends JComboBox<String> {
             setVisible(true);
             Node firstNode = selectedNodes.get(0);
             String fontName = firstNode.getActualFont().getName();
-            int index = Arrays.binarySearch(TextUtil.ALL_FONT_NAMES, fontName);
+            int index = Arrays.binarySearch(TextUtil.getAllFontNames(), fontName);
             if (index != getSelectedIndex()) {
                 shouldChangeNodes = false;
                 setSelectedIndex(index);
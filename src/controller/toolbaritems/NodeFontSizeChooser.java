@@ -4,6 +4,7 @@ import controller.NodeToolBar;
 import model.Graph;
 import model.Node;
 import controller.animation.Animation;
+import controller.animation.AnimationOverlay;
 import controller.animation.ColorBlinkAnimation;
 import controller.undoableedits.NodeEdit;
 
@@ -12,7 +13,7 @@ import java.awt.*;
 import java.awt.event.*;
 
 /**
-* @version 1.4
+* @version 1.5
  *
  * The user can use this control to change the font size of the selected Nodes in a graph.
  *
@@ -54,7 +55,7 @@ public class NodeFontSizeChooser extends JSpinner {
 
         MouseListener listener = new MouseAdapter() {
             private final Animation textColorAnimation = new ColorBlinkAnimation<>(
-                    graph::getSelectedNodes, Node::getActualTextColor, Node::setVisualTextColor);
+                    graph::getSelectedNodes, Node::getActualTextColor, AnimationOverlay::setTextColor);
 
             @Override
             public void mouseEntered(MouseEvent e) {
@@ -65,8 +66,6 @@ public class NodeFontSizeChooser extends JSpinner {
             public void mouseExited(MouseEvent e) {
                 textColorAnimation.stop();
                 textColorAnimation.setCurrentTime(0);
-                for (Node node : graph.getSelectedNodes())
-                    node.setVisualTextColor(node.getActualTextColor());
             }
         };
 
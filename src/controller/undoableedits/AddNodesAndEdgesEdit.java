@@ -7,14 +7,14 @@ import model.Node;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
-  * @version 2.1
+  * @version 2.2
  *
  * This class takes care of all edits that relate to adding nodes, edges or both.
- * It adds these to the graph, and removes them in the undo method.
+ * It adds these to the graph, and removes them in the undo method. Both happen in bulk,
+ * so adding many nodes at once takes linear time in the size of the graph.
  */
 public class AddNodesAndEdgesEdit extends AbstractUndoableEdit {
 
@@ -37,11 +37,11 @@ public class AddNodesAndEdgesEdit extends AbstractUndoableEdit {
         this.edges = (edges == null) ? null : new ArrayList<>(edges);
 
         if (nodes != null && edges != null) {
-            for (Edge edge: this.graph.getEdges()) {
-                for (Node node: nodes) {
-                    if (edge.connectsTo(node) && !edges.contains(edge))
-                        edges.add(edge);
-                }
+            Set<Edge> edgeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            edgeSet.addAll(edges);
+            for (Edge edge : this.graph.getConnectedEdges(nodes)) {
+                if (edgeSet.add(edge))
+                    edges.add(edge);
             }
         }
 
@@ -56,20 +56,17 @@ public class AddNodesAndEdgesEdit extends AbstractUndoableEdit {
      */
     private void performAction(){
 
+        graph.addAll(nodes == null ? Collections.emptyList() : nodes,
+                edges == null ? Collections.emptyList() : edges);
+
         if (nodes != null) {
             graph.clearSelectedNodes();
-            for (Node node : nodes) {
-                graph.add(node);
-                graph.select(node);
-            }
+            graph.selectAll(nodes, null);
         }
 
         if (edges != null){
             graph.clearSelectedEdges();
-            for (Edge edge : edges) {
-                graph.add(edge);
-                graph.select(edge);
-            }
+            graph.selectAll(null, edges);
         }
 
     }
@@ -95,13 +92,7 @@ public class AddNodesAndEdgesEdit extends AbstractUndoableEdit {
     public void undo() throws CannotUndoException {
         super.undo();
 
-        if (nodes != null){
-            for (Node node : nodes) graph.remove(node);
-        }
-
-        if (edges != null){
-            for (Edge edge : edges) graph.remove(edge);
-        }
+        graph.removeAll(nodes, edges);
 
         graph.clearSelectedNodes();
     }
@@ -0,0 +1,411 @@
+package controller.undoableedits;
+
+import model.*;
+import utils.Palette;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+* @version 1.2
+ *
+ * This class stores the changes of a NodeAndEdgeEdit as a list of field-level deltas. Every delta records which
+ * element changed, which of its fields changed, and the old and the new value of that field. Instead of one object per
+ * delta, the deltas are packed into parallel primitive arrays: numbers are stored as their raw bits, colors as their
+ * ARGB value and styles as their ordinal. Only names and fonts are kept as references, in a separate array.
+ *
+ * The deltas of a single element are always stored next to each other, so that undoing or redoing them sets the data
+ * of every element only once. Within an element, the deltas are sorted by their field, which lets consecutive changes
+ * to the geometry of the same elements be coalesced in a single pass.
+ *
+ * The data of an element is read straight from its primitive fields into a reusable Snapshot before and after its
+ * change, so recording doesn't allocate anything per element beyond the deltas themselves.
+ *
+ * @see NodeAndEdgeEdit
+ */
+final class FieldDeltas {
+
+    /**
+     * The fields of a single Node or Edge at one point in time, packed just like the deltas. A Snapshot can be reused
+     * for any number of elements, one after the other.
+     */
+    static final class Snapshot {
+
+        private final long[] values = new long[FIELD_COUNT];
+        private final Object[] references = new Object[FIELD_COUNT];
+        private final Rectangle2D.Double bounds = new Rectangle2D.Double();
+        private final Point2D.Double weightPoint = new Point2D.Double();
+
+        /**
+         * Reads the actual data of a Node.
+         *
+         * @param node The Node to read.
+         */
+        void readNode(Node node) {
+            node.getActualBounds(bounds);
+            references[NODE_NAME] = node.getActualName();
+            values[NODE_X] = Double.doubleToRawLongBits(bounds.x);
+            values[NODE_Y] = Double.doubleToRawLongBits(bounds.y);
+            values[NODE_WIDTH] = Double.doubleToRawLongBits(bounds.width);
+            values[NODE_HEIGHT] = Double.doubleToRawLongBits(bounds.height);
+            values[NODE_STYLE] = ordinal(node.getActualStyle());
+            values[NODE_FILL_COLOR] = argb(node.getActualFillColor());
+            values[NODE_BORDER_COLOR] = argb(node.getActualBorderColor());
+            values[NODE_TEXT_COLOR] = argb(node.getActualTextColor());
+            references[NODE_FONT] = node.getActualFont();
+        }
+
+        /**
+         * Reads the actual data of an Edge.
+         *
+         * @param edge The Edge to read.
+         */
+        void readEdge(Edge edge) {
+            edge.getActualWeightPoint(weightPoint);
+            values[EDGE_WEIGHT] = Double.doubleToRawLongBits(edge.getActualWeight());
+            values[EDGE_DIRECTION] = ordinal(edge.getActualDirection());
+            values[EDGE_STYLE] = ordinal(edge.getActualStyle());
+            values[EDGE_COLOR] = argb(edge.getActualColor());
+            values[EDGE_WEIGHT_POINT_X] = Double.doubleToRawLongBits(weightPoint.x);
+            values[EDGE_WEIGHT_POINT_Y] = Double.doubleToRawLongBits(weightPoint.y);
+        }
+    }
+
+    private static final byte NODE_NAME = 0;
+    private static final byte NODE_X = 1;
+    private static final byte NODE_Y = 2;
+    private static final byte NODE_WIDTH = 3;
+    private static final byte NODE_HEIGHT = 4;
+    private static final byte NODE_STYLE = 5;
+    private static final byte NODE_FILL_COLOR = 6;
+    private static final byte NODE_BORDER_COLOR = 7;
+    private static final byte NODE_TEXT_COLOR = 8;
+    private static final byte NODE_FONT = 9;
+    private static final byte EDGE_WEIGHT = 10;
+    private static final byte EDGE_DIRECTION = 11;
+    private static final byte EDGE_STYLE = 12;
+    private static final byte EDGE_COLOR = 13;
+    private static final byte EDGE_WEIGHT_POINT_X = 14;
+    private static final byte EDGE_WEIGHT_POINT_Y = 15;
+    private static final int FIELD_COUNT = 16;
+
+    //NOTE: A null color or style is stored as this value, which no ARGB value or ordinal can be.
+    private static final long NULL_VALUE = -1L;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private int elementCount;
+
+    private int[] deltaElements = new int[INITIAL_CAPACITY];
+    private byte[] deltaFields = new byte[INITIAL_CAPACITY];
+    private long[] oldValues = new long[INITIAL_CAPACITY];
+    private long[] newValues = new long[INITIAL_CAPACITY];
+    private int deltaCount;
+
+    private Object[] references = new Object[INITIAL_CAPACITY];
+    private int referenceCount;
+
+    /**
+     * Records the fields in which the old and the new data of a Node differ.
+     *
+     * @param node The changed Node.
+     * @param oldData The data of the Node before the change, read with Snapshot.readNode().
+     * @param newData The data of the Node after the change, read with Snapshot.readNode().
+     * @return Whether any field changed.
+     */
+    boolean addNode(Node node, Snapshot oldData, Snapshot newData) {
+        return addElement(node, oldData, newData, NODE_NAME, NODE_FONT);
+    }
+
+    /**
+     * Records the fields in which the old and the new data of an Edge differ.
+     *
+     * @param edge The changed Edge.
+     * @param oldData The data of the Edge before the change, read with Snapshot.readEdge().
+     * @param newData The data of the Edge after the change, read with Snapshot.readEdge().
+     * @return Whether any field changed.
+     */
+    boolean addEdge(Edge edge, Snapshot oldData, Snapshot newData) {
+        return addElement(edge, oldData, newData, EDGE_WEIGHT, EDGE_WEIGHT_POINT_Y);
+    }
+
+    /**
+     * @return Whether no element changed at all.
+     */
+    boolean isEmpty() {
+        return elementCount == 0;
+    }
+
+    /**
+     * Coalesces the deltas of a later change into these deltas, if both only moved or resized the same elements. Fields
+     * changed by both keep their oldest old value and take the newest new value, and fields that end up unchanged are
+     * dropped.
+     *
+     * @param next The deltas of the change that directly followed these deltas.
+     * @return Whether the deltas were coalesced - if not, neither of them changed.
+     */
+    boolean coalesce(FieldDeltas next) {
+        if (elementCount != next.elementCount || !isOnlyGeometry() || !next.isOnlyGeometry())
+            return false;
+        for (int i = 0; i < elementCount; ++i) {
+            if (elements[i] != next.elements[i])
+                return false;
+        }
+
+        int capacity = deltaCount + next.deltaCount;
+        int[] mergedElements = new int[capacity];
+        byte[] mergedFields = new byte[capacity];
+        long[] mergedOldValues = new long[capacity];
+        long[] mergedNewValues = new long[capacity];
+        int count = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < deltaCount || j < next.deltaCount) {
+            int order;
+            if (i == deltaCount)
+                order = 1;
+            else if (j == next.deltaCount)
+                order = -1;
+            else if (deltaElements[i] != next.deltaElements[j])
+                order = Integer.compare(deltaElements[i], next.deltaElements[j]);
+            else
+                order = Byte.compare(deltaFields[i], next.deltaFields[j]);
+
+            int element = order <= 0 ? deltaElements[i] : next.deltaElements[j];
+            byte field = order <= 0 ? deltaFields[i] : next.deltaFields[j];
+            long oldValue = order <= 0 ? oldValues[i] : next.oldValues[j];
+            long newValue = order >= 0 ? next.newValues[j] : newValues[i];
+            if (order <= 0)
+                ++i;
+            if (order >= 0)
+                ++j;
+
+            if (oldValue != newValue) {
+                mergedElements[count] = element;
+                mergedFields[count] = field;
+                mergedOldValues[count] = oldValue;
+                mergedNewValues[count] = newValue;
+                ++count;
+            }
+        }
+
+        deltaElements = Arrays.copyOf(mergedElements, count);
+        deltaFields = Arrays.copyOf(mergedFields, count);
+        oldValues = Arrays.copyOf(mergedOldValues, count);
+        newValues = Arrays.copyOf(mergedNewValues, count);
+        deltaCount = count;
+        return true;
+    }
+
+    /**
+     * Shrinks the arrays to the number of recorded deltas, once all changes have been recorded.
+     */
+    void trimToSize() {
+        elements = Arrays.copyOf(elements, elementCount);
+        deltaElements = Arrays.copyOf(deltaElements, deltaCount);
+        deltaFields = Arrays.copyOf(deltaFields, deltaCount);
+        oldValues = Arrays.copyOf(oldValues, deltaCount);
+        newValues = Arrays.copyOf(newValues, deltaCount);
+        references = Arrays.copyOf(references, referenceCount);
+    }
+
+    /**
+     * @return The approximate number of bytes these deltas take up in memory.
+     */
+    long getEstimatedSize() {
+        //NOTE: Array headers and references are counted as 16 and 8 bytes, which is what a 64 bit JVM needs at most.
+        return 6 * 16 + 8L * elements.length + (4 + 1 + 8 + 8) * (long) deltaElements.length
+                + 8L * references.length;
+    }
+
+    /**
+     * Sets every changed field of every changed element to either its old or its new value.
+     *
+     * @param useOldValues True to undo the changes, false to redo them.
+     */
+    void apply(boolean useOldValues) {
+        long[] values = useOldValues ? oldValues : newValues;
+        int i = 0;
+        while (i < deltaCount) {
+            int element = deltaElements[i];
+            Object target = elements[element];
+            if (target instanceof Node) {
+                Node node = (Node) target;
+                NodeData data = node.getActualData();
+                for (; i < deltaCount && deltaElements[i] == element; ++i)
+                    setNodeField(data, deltaFields[i], values[i]);
+                node.setData(data);
+            } else {
+                Edge edge = (Edge) target;
+                EdgeData data = edge.getActualData();
+                for (; i < deltaCount && deltaElements[i] == element; ++i)
+                    setEdgeField(data, deltaFields[i], values[i]);
+                edge.setData(data);
+            }
+        }
+    }
+
+    /**
+     * @return Whether all deltas only move or resize Nodes, or move the weight points of Edges.
+     */
+    private boolean isOnlyGeometry() {
+        for (int i = 0; i < deltaCount; ++i) {
+            byte field = deltaFields[i];
+            if ((field < NODE_X || field > NODE_HEIGHT) && field != EDGE_WEIGHT_POINT_X && field != EDGE_WEIGHT_POINT_Y)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param data The data to change.
+     * @param field The field to set.
+     * @param value The packed value of the field.
+     */
+    private void setNodeField(NodeData data, byte field, long value) {
+        Rectangle2D.Double bounds = data.getBounds();
+        switch (field) {
+            case NODE_NAME:
+                data.setName((String) references[(int) value]);
+                break;
+            case NODE_X:
+                bounds.x = Double.longBitsToDouble(value);
+                break;
+            case NODE_Y:
+                bounds.y = Double.longBitsToDouble(value);
+                break;
+            case NODE_WIDTH:
+                bounds.width = Double.longBitsToDouble(value);
+                break;
+            case NODE_HEIGHT:
+                bounds.height = Double.longBitsToDouble(value);
+                break;
+            case NODE_STYLE:
+                data.setStyle(value == NULL_VALUE ? null : NodeStyle.values()[(int) value]);
+                break;
+            case NODE_FILL_COLOR:
+                data.setFillColor(color(value));
+                break;
+            case NODE_BORDER_COLOR:
+                data.setBorderColor(color(value));
+                break;
+            case NODE_TEXT_COLOR:
+                data.setTextColor(color(value));
+                break;
+            case NODE_FONT:
+                data.setFont((Font) references[(int) value]);
+                break;
+            default:
+                throw new IllegalStateException("Unknown node field " + field);
+        }
+    }
+
+    /**
+     * @param data The data to change.
+     * @param field The field to set.
+     * @param value The packed value of the field.
+     */
+    private void setEdgeField(EdgeData data, byte field, long value) {
+        Point2D weightPoint = data.getWeightPoint();
+        switch (field) {
+            case EDGE_WEIGHT:
+                data.setWeight(Double.longBitsToDouble(value));
+                break;
+            case EDGE_DIRECTION:
+                data.setDirection(value == NULL_VALUE ? null : EdgeDirection.values()[(int) value]);
+                break;
+            case EDGE_STYLE:
+                data.setStyle(value == NULL_VALUE ? null : EdgeStyle.values()[(int) value]);
+                break;
+            case EDGE_COLOR:
+                data.setColor(color(value));
+                break;
+            case EDGE_WEIGHT_POINT_X:
+                weightPoint.setLocation(Double.longBitsToDouble(value), weightPoint.getY());
+                break;
+            case EDGE_WEIGHT_POINT_Y:
+                weightPoint.setLocation(weightPoint.getX(), Double.longBitsToDouble(value));
+                break;
+            default:
+                throw new IllegalStateException("Unknown edge field " + field);
+        }
+    }
+
+    /**
+     * Records the fields in the given range in which the old and the new data of an element differ, in the order of
+     * the fields.
+     */
+    private boolean addElement(Object target, Snapshot oldData, Snapshot newData, byte firstField, byte lastField) {
+        int countBefore = deltaCount;
+        int element = elementCount;
+        for (byte field = firstField; field <= lastField; ++field) {
+            if (field == NODE_NAME || field == NODE_FONT) {
+                if (!Objects.equals(oldData.references[field], newData.references[field]))
+                    add(element, field, reference(oldData.references[field]), reference(newData.references[field]));
+            } else if (oldData.values[field] != newData.values[field]) {
+                //NOTE: Numbers are compared by their raw bits, so that undoing restores the exact old value.
+                add(element, field, oldData.values[field], newData.values[field]);
+            }
+        }
+        return addElementIfChanged(target, countBefore);
+    }
+
+    /**
+     * Keeps the element once any of its fields were recorded.
+     *
+     * @param element The Node or Edge whose fields were just compared.
+     * @param countBefore The number of deltas before its fields were compared.
+     * @return Whether any of its fields were recorded.
+     */
+    private boolean addElementIfChanged(Object element, int countBefore) {
+        if (deltaCount == countBefore)
+            return false;
+        if (elementCount == elements.length)
+            elements = Arrays.copyOf(elements, elementCount * 2);
+        elements[elementCount++] = element;
+        return true;
+    }
+
+    private void add(int element, byte field, long oldValue, long newValue) {
+        if (deltaCount == deltaElements.length) {
+            int capacity = deltaCount * 2;
+            deltaElements = Arrays.copyOf(deltaElements, capacity);
+            deltaFields = Arrays.copyOf(deltaFields, capacity);
+            oldValues = Arrays.copyOf(oldValues, capacity);
+            newValues = Arrays.copyOf(newValues, capacity);
+        }
+        deltaElements[deltaCount] = element;
+        deltaFields[deltaCount] = field;
+        oldValues[deltaCount] = oldValue;
+        newValues[deltaCount] = newValue;
+        ++deltaCount;
+    }
+
+    /**
+     * @param reference A name or a font.
+     * @return The index that the reference is stored at.
+     */
+    private long reference(Object reference) {
+        if (referenceCount == references.length)
+            references = Arrays.copyOf(references, referenceCount * 2);
+        references[referenceCount] = reference;
+        return referenceCount++;
+    }
+
+    private static long ordinal(Enum<?> value) {
+        return value == null ? NULL_VALUE : value.ordinal();
+    }
+
+    private static long argb(Color color) {
+        //NOTE: Masked, so that no color can be confused with NULL_VALUE.
+        return color == null ? NULL_VALUE : color.getRGB() & 0xffffffffL;
+    }
+
+    private static Color color(long value) {
+        return value == NULL_VALUE ? null : Palette.argb((int) value);
+    }
+}
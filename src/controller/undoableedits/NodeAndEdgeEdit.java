@@ -6,28 +6,30 @@ import utils.Action;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
-import java.util.ArrayList;
+import javax.swing.undo.UndoableEdit;
 import java.util.List;
 
 /**
-  * @version 3.0
+  * @version 4.2
  *
  * This class handles most edits related to edges and nodes, for example changing the color,
  * the weight, the name of a node, etc. Adding and removing edges is not
  * handled in here, as it can only handle edits on existing edges.
  * This is the template for both NodeEdits and EdgeEdits, which both inherit from this.
  *
+ * Only the fields that actually changed are stored, as field-level deltas, so that e.g. coloring
+ * every node of a large graph keeps a single old and new color per node instead of two copies of
+ * all of its data. Consecutive edits that only move or resize the same nodes, or move the weight
+ * points of the same edges, are coalesced into a single edit by the GraphUndoManager.
+ *
  * @see NodeEdit
  * @see EdgeEdit
+ * @see FieldDeltas
  */
-public class NodeAndEdgeEdit extends AbstractUndoableEdit {
+public class NodeAndEdgeEdit extends AbstractUndoableEdit
+        implements GraphUndoManager.SizedEdit, GraphUndoManager.CoalescingEdit {
 
-    private final List<Node> nodesToChange;
-    private final List<Edge> edgesToChange;
-    private final List<NodeData> newNodeData;
-    private final List<EdgeData> newEdgeData;
-    private final List<NodeData> oldNodeData;
-    private final List<EdgeData> oldEdgeData;
+    private final FieldDeltas deltas;
 
     /**
      * Constructs an edit with all important data and calls the other constructor with it.
@@ -69,53 +71,42 @@ public class NodeAndEdgeEdit extends AbstractUndoableEdit {
             Action<Node> nodeAction,
             Action<Edge> edgeAction)
     {
-        this.nodesToChange = new ArrayList<>();
-        this.edgesToChange = new ArrayList<>();
-        this.newNodeData = new ArrayList<>();
-        this.newEdgeData = new ArrayList<>();
-        this.oldNodeData = new ArrayList<>();
-        this.oldEdgeData = new ArrayList<>();
+        this.deltas = new FieldDeltas();
 
         if (nodesToChange.size() != oldNodes.size())
             return;
         if (edgesToChange.size() != oldEdges.size())
             return;
 
-        // stores copies of the node data in lists, storing the old and new data.
+        // the snapshots are reused for every element, so that recording doesn't allocate per element.
+        FieldDeltas.Snapshot oldData = new FieldDeltas.Snapshot();
+        FieldDeltas.Snapshot newData = new FieldDeltas.Snapshot();
+
+        // compares the old and new data of the nodes, storing only the fields that changed.
         for (int i = 0; i < nodesToChange.size(); ++i) {
             Node oldNode = oldNodes.get(i);
             Node newNode = nodesToChange.get(i);
 
-            NodeData oldData = new NodeData(oldNode.getActualData());
+            oldData.readNode(oldNode);
             nodeAction.doAction(newNode);
-            NodeData newData = new NodeData(newNode.getActualData());
-
-            if (!newData.equals(oldData)) {
-                this.nodesToChange.add(newNode);
-                newNodeData.add(newData);
-                oldNodeData.add(oldData);
-            }
+            newData.readNode(newNode);
+            deltas.addNode(newNode, oldData, newData);
         }
 
-        // stores copies of the edge data in lists, storing the old and new data.
+        // compares the old and new data of the edges, storing only the fields that changed.
         for (int i = 0; i < edgesToChange.size(); ++i) {
             Edge oldEdge = oldEdges.get(i);
             Edge newEdge = edgesToChange.get(i);
 
-            EdgeData oldData = new EdgeData(oldEdge.getActualData());
+            oldData.readEdge(oldEdge);
             edgeAction.doAction(newEdge);
-            EdgeData newData = new EdgeData(newEdge.getActualData());
-
-            if (!newData.equals(oldData)) {
-                this.edgesToChange.add(newEdge);
-                newEdgeData.add(newData);
-                oldEdgeData.add(oldData);
-            }
+            newData.readEdge(newEdge);
+            deltas.addEdge(newEdge, oldData, newData);
         }
 
         // checks if changes have occurred and adds them to the UndoManager.
-        int numChanges = this.nodesToChange.size() + this.edgesToChange.size();
-        if (numChanges > 0) {
+        if (!deltas.isEmpty()) {
+            deltas.trimToSize();
             graph.getUndoManager().addEdit(this);
             graph.setChanged();
             graph.notifyObservers();
@@ -125,43 +116,43 @@ public class NodeAndEdgeEdit extends AbstractUndoableEdit {
     /**
      * Overrides the redo() method of the AbstractUndoableEdit class and contains the code to
      * redo this edit, which can be for example changing the color of nodes and edges. This is done by
-     * setting the data of the actual node/edge to the data that was changed in the constructor (newData).
+     * setting the changed fields of the actual node/edge to their new values.
      * @throws CannotRedoException if edit cannot be redone
      */
     @Override
     public void redo() throws CannotRedoException {
         super.redo();
-        for (int i = 0; i < nodesToChange.size(); i++) {
-            Node nodeToChange = nodesToChange.get(i);
-            NodeData newData = newNodeData.get(i);
-            nodeToChange.setData(newData);
-        }
-        for (int i = 0; i < edgesToChange.size(); i++) {
-            Edge edgeToChange = edgesToChange.get(i);
-            EdgeData newData = newEdgeData.get(i);
-            edgeToChange.setData(newData);
-        }
+        deltas.apply(false);
     }
 
     /**
      * Overrides the undo() method of the AbstractUndoableEdit class and contains the code to
      * redo this edit, i.e. changing a color back to the old one. This is done by setting the
-     * data of the actual node/edge to the old data that was stored.
+     * changed fields of the actual node/edge back to the old values that were stored.
      * @throws CannotUndoException if edit cannot be undone
      */
     @Override
     public void undo() throws CannotUndoException {
         super.undo();
-        for (int i = 0; i < nodesToChange.size(); i++) {
-            Node nodeToChange = nodesToChange.get(i);
-            NodeData oldData = oldNodeData.get(i);
-            nodeToChange.setData(oldData);
-        }
-        for (int i = 0; i < edgesToChange.size(); i++) {
-            Edge edgeToChange = edgesToChange.get(i);
-            EdgeData oldData = oldEdgeData.get(i);
-            edgeToChange.setData(oldData);
-        }
+        deltas.apply(true);
+    }
+
+    /**
+     * Coalesces a following edit into this edit, if both only moved or resized the same nodes and edges.
+     * @param nextEdit the edit that directly followed this edit
+     * @return whether the following edit is now part of this edit
+     */
+    @Override
+    public boolean coalesce(UndoableEdit nextEdit) {
+        return nextEdit instanceof NodeAndEdgeEdit && deltas.coalesce(((NodeAndEdgeEdit) nextEdit).deltas);
+    }
+
+    /**
+     * @return the approximate number of bytes the stored changes take up.
+     */
+    @Override
+    public long getEstimatedSize() {
+        return deltas.getEstimatedSize();
     }
 
 }
\ No newline at end of file
@@ -7,14 +7,14 @@ import model.Node;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
-  * @version 2.0
+  * @version 2.1
  *
  * This class takes care of all edits that relate to removing nodes, edges or both.
- * It removes these from the graph, and adds them back in the undo method.
+ * It removes these from the graph, and adds them back in the undo method. Both happen in bulk,
+ * so deleting many nodes at once takes linear time in the size of the graph.
  *
  * @see Node
  * @see Edge
@@ -36,11 +36,11 @@ public class RemoveNodesAndEdgesEdit extends AbstractUndoableEdit {
         this.selectedNodes = new ArrayList<>(this.graph.getSelectedNodes());
         this.selectedEdges = new ArrayList<>(this.graph.getSelectedEdges());
 
-        for (Edge edge: this.graph.getEdges()){
-            for (Node node: selectedNodes){
-                if (edge.connectsTo(node) && !selectedEdges.contains(edge))
-                    selectedEdges.add(edge);
-            }
+        Set<Edge> selectedEdgeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        selectedEdgeSet.addAll(selectedEdges);
+        for (Edge edge : this.graph.getConnectedEdges(selectedNodes)) {
+            if (selectedEdgeSet.add(edge))
+                selectedEdges.add(edge);
         }
 
         graph.getUndoManager().addEdit(this);
@@ -53,10 +53,7 @@ public class RemoveNodesAndEdgesEdit extends AbstractUndoableEdit {
      * @see Edge
      */
     private void applyChange(){
-        for (Node node : selectedNodes)
-            graph.remove(node);
-        for (Edge edge : selectedEdges)
-            graph.remove(edge);
+        graph.removeAll(selectedNodes, selectedEdges);
     }
 
     /**
@@ -78,9 +75,6 @@ public class RemoveNodesAndEdgesEdit extends AbstractUndoableEdit {
     @Override
     public void undo() throws CannotUndoException {
         super.undo();
-        for (Node node : selectedNodes)
-            graph.add(node);
-        for (Edge edge : selectedEdges)
-            graph.add(edge);
+        graph.addAll(selectedNodes, selectedEdges);
     }
 }
@@ -1,19 +1,34 @@
 package model;
 
 import utils.MathUtil;
+import utils.Palette;
+import utils.Polyline2D;
+import utils.TextUtil;
 
 import java.awt.*;
 import java.awt.geom.*;
+import java.util.Objects;
 import java.util.Observable;
 import java.util.Observer;
-import java.util.List;
 
 /**
-  * @version 10.0
+  * @version 11.6
  *
  * This class is responsible to store all data related to an edge of the graph. An edge is connecting two nodes,
  * at this point is not cyclic, thus cannot connect to itself, and has different shapes, directions, colors and weights.
  *
+ * The line of an edge is only recalculated when the bounds of one of its nodes actually change, and its path and
+ * arrows are only recalculated when they are read after the line, direction, style or weight point changed.
+ *
+ * For drawing and hit testing, the path is also flattened into polylines. Depending on the zoom, one of a few
+ * tolerances is used, so that the polyline is never coarser than a fraction of a pixel on the screen. Each polyline is
+ * flattened the first time it is read at its tolerance, and all of them are dropped once the path changes.
+ *
+ * To keep edges small, the actual data is stored directly in primitive fields. The only visual data that can differ
+ * from the actual data are the color and the style, which are null unless they are being previewed. Colors are
+ * canonicalized with the Palette to share instances, but still compared with equals(), since the Palette doesn't cache
+ * every color.
+ *
  * @see Node
  * @see EdgeData
  * @see EdgeDirection
@@ -24,7 +39,7 @@ public class Edge extends Observable implements Observer {
     /**
      * The default color of an edge.
      */
-    public static final Color DEFAULT_COLOR = new Color(82, 82, 82);
+    public static final Color DEFAULT_COLOR = Palette.color(new Color(82, 82, 82));
 
     /**
      * The default weight of an edge.
@@ -34,19 +49,39 @@ public class Edge extends Observable implements Observer {
     /**
      * The default font of an edge.
      */
-    public static final Font DEFAULT_FONT = new Font(Font.DIALOG, Font.PLAIN, 6);
+    public static final Font DEFAULT_FONT = Palette.font(Font.DIALOG, Font.PLAIN, 6);
 
-    private EdgeData actualData;
-    private EdgeData visualData;
+    //NOTE: Flattened paths deviate at most this many pixels from the path on the screen. The tolerance halves for
+    // every level, and the level is picked by rounding the scale up to the next power of two, within these bounds.
+    private static final double FLATNESS_IN_PIXELS = 0.25;
+    private static final int MIN_FLATNESS_LEVEL = -6;
+    private static final int MAX_FLATNESS_LEVEL = 6;
+
+    private double weight;
+    private EdgeDirection direction;
+    private EdgeStyle style;
+    private Color color;
+    private double weightPointX;
+    private double weightPointY;
+    private Color visualColor;
+    private EdgeStyle visualStyle;
 
     private Node node1;
     private Node node2;
     private double arrow1Angle;
     private double arrow2Angle;
-    private Point2D arrow1Point;
-    private Point2D arrow2Point;
-    private Line2D line;
+    private double arrow1X;
+    private double arrow1Y;
+    private double arrow2X;
+    private double arrow2Y;
+    private final Line2D.Double line = new Line2D.Double();
+    private final Rectangle2D.Double lineBounds1 = new Rectangle2D.Double();
+    private final Rectangle2D.Double lineBounds2 = new Rectangle2D.Double();
     private Path2D path;
+    private boolean isPathDirty;
+    private Polyline2D[] flattenedPaths;
+    private String weightString;
+    private double weightStringWeight;
 
     /**
      * Constructing an edge with all necessary information given to it, without default values.
@@ -70,18 +105,16 @@ public class Edge extends Observable implements Observer {
         this.node1 = node1;
         this.node2 = node2;
 
-        actualData = new EdgeData();
-        actualData.setWeight(weight);
-        actualData.setDirection(direction);
-        actualData.setStyle(style);
-        actualData.setColor(color);
-        actualData.setWeightPoint(new Point2D.Double());
-        visualData = new EdgeData(actualData);
+        this.weight = weight;
+        this.direction = direction;
+        this.style = style;
+        this.color = Palette.color(color);
 
         calculateLine();
-        actualData.getWeightPoint().setLocation(MathUtil.centerPoint(line));
-        visualData.getWeightPoint().setLocation(actualData.getWeightPoint());
-        calculatePath();
+        Point2D center = MathUtil.centerPoint(line);
+        weightPointX = center.getX();
+        weightPointY = center.getY();
+        isPathDirty = true;
 
         node1.addObserver(this);
         node2.addObserver(this);
@@ -123,9 +156,11 @@ public class Edge extends Observable implements Observer {
         //NOTE(Boris): This doesn't copy everything from the other Edge but that's ok - we don't want to copy over stuff
         // like the line and edge anyway..
         this(other.node1, other.node2);
-        actualData = new EdgeData(other.actualData);
-        visualData = new EdgeData(actualData);
-        moveActualWeightPointTo(other.actualData.getWeightPoint().getX(), other.actualData.getWeightPoint().getY());
+        weight = other.weight;
+        direction = other.direction;
+        style = other.style;
+        color = other.color;
+        moveActualWeightPointTo(other.weightPointX, other.weightPointY);
     }
 
     /**
@@ -134,17 +169,24 @@ public class Edge extends Observable implements Observer {
      * @see EdgeData
      */
     public void setData(EdgeData otherData) {
-        actualData = new EdgeData(otherData);
-        visualData = new EdgeData(actualData);
+        weight = otherData.getWeight();
+        direction = otherData.getDirection();
+        style = otherData.getStyle();
+        color = Palette.color(otherData.getColor());
+        weightPointX = otherData.getWeightPoint().getX();
+        weightPointY = otherData.getWeightPoint().getY();
+        visualColor = null;
+        visualStyle = null;
         calculateLine();
-        calculatePath();
+        isPathDirty = true;
         setChanged();
         notifyObservers();
     }
 
     /**
      * Overrides the update-method of the observer interface. Updates the edge when being notified.
-     * In this case if re-calculates the line, when it is notified by the node that the node has changed.
+     * In this case if re-calculates the line, when it is notified by the node that the bounds of the node have changed.
+     * Other changes to the node, like its color or name, leave the geometry of the edge alone.
      * @param o observable
      * @param arg a generic message passed to the observer
      *
@@ -154,23 +196,23 @@ public class Edge extends Observable implements Observer {
     @Override
     public void update(Observable o, Object arg) {
 
-        Line2D oldLine = line;
-        calculateLine();
-        Line2D newLine = line;
+        if (!lineBounds1.equals(node1.getVisualBounds()) || !lineBounds2.equals(node2.getVisualBounds())) {
 
-        if (!newLine.equals(oldLine)) {
+            Line2D oldLine = new Line2D.Double(line.x1, line.y1, line.x2, line.y2);
+            calculateLine();
 
-            if (MathUtil.length(oldLine) == 0) //NOTE(Boris): If old line is degenerate then just replace everything.
-                actualData.getWeightPoint().setLocation(MathUtil.centerPoint(newLine));
-            else {
-                Point2D newPoint = MathUtil.transferPointBetweenLines(actualData.getWeightPoint(), oldLine, newLine);
-                actualData.getWeightPoint().setLocation(newPoint);
-            }
+            if (!line.equals(oldLine)) {
 
-            // setting also visual data
-            visualData.getWeightPoint().setLocation(actualData.getWeightPoint());
-            calculatePath();
+                Point2D newPoint;
+                if (MathUtil.length(oldLine) == 0) //NOTE(Boris): If old line is degenerate then just replace everything.
+                    newPoint = MathUtil.centerPoint(line);
+                else
+                    newPoint = MathUtil.transferPointBetweenLines(getActualWeightPoint(), oldLine, line);
+                weightPointX = newPoint.getX();
+                weightPointY = newPoint.getY();
+                isPathDirty = true;
 
+            }
         }
 
         setChanged();
@@ -178,17 +220,30 @@ public class Edge extends Observable implements Observer {
     }
 
     /**
-     * Calculates the straight line between two nodes.
+     * Calculates the straight line between two nodes, and remembers the bounds of the nodes it was calculated for.
      */
     private void calculateLine() {
         Rectangle2D bounds1 = node1.getVisualBounds();
         Rectangle2D bounds2 = node2.getVisualBounds();
+        lineBounds1.setRect(bounds1);
+        lineBounds2.setRect(bounds2);
 
         if (isDirectedToNode1())
             bounds1 = MathUtil.growRectangle(bounds1, 15, 15);
         if (isDirectedToNode2())
             bounds2 = MathUtil.growRectangle(bounds2, 15, 15);
-        line = MathUtil.lineBetween(bounds1, bounds2);
+        line.setLine(MathUtil.lineBetween(bounds1, bounds2));
+    }
+
+    /**
+     * Recalculates the path and the arrows of the edge if anything they depend on changed since they were last read.
+     */
+    private void updatePath() {
+        if (isPathDirty) {
+            calculatePath();
+            flattenedPaths = null;
+            isPathDirty = false;
+        }
     }
 
     /**
@@ -196,7 +251,8 @@ public class Edge extends Observable implements Observer {
      */
     private void calculatePath() {
 
-        switch (visualData.getStyle()) {
+        Point2D weightPoint = getActualWeightPoint();
+        switch (getVisualStyle()) {
             case ELBOW_JOINT:
                 Rectangle2D bounds1 = node1.getVisualBounds();
                 Rectangle2D bounds2 = node2.getVisualBounds();
@@ -204,20 +260,20 @@ public class Edge extends Observable implements Observer {
                     bounds1 = MathUtil.growRectangle(bounds1, 15, 15);
                 if (isDirectedToNode2())
                     bounds2 = MathUtil.growRectangle(bounds2, 15, 15);
-                path = MathUtil.elbowJointThrough(bounds1, actualData.getWeightPoint(), bounds2);
+                path = MathUtil.elbowJointThrough(bounds1, weightPoint, bounds2);
                 break;
             case QUADRATIC_BEZIER:
-                if (MathUtil.distanceBetween(actualData.getWeightPoint(), line) > 1)
-                    path = new Path2D.Float(MathUtil.quadraticCurveThrough(line.getP1(), actualData.getWeightPoint(), line.getP2()));
+                if (MathUtil.distanceBetween(weightPoint, line) > 1)
+                    path = new Path2D.Float(MathUtil.quadraticCurveThrough(line.getP1(), weightPoint, line.getP2()));
                 else
                     path = new Path2D.Float(line);
                 break;
             default:
             case CUBIC_BEZIER:
-                if (MathUtil.distanceBetween(actualData.getWeightPoint(), line) > 1) {
+                if (MathUtil.distanceBetween(weightPoint, line) > 1) {
                     Point2D p1 = line.getP1();
                     Point2D p2 = MathUtil.centerPoint(new Line2D.Double(line.getP1(), MathUtil.centerPoint(line)));
-                    Point2D p3 = actualData.getWeightPoint();
+                    Point2D p3 = weightPoint;
                     Point2D p4 = MathUtil.centerPoint(new Line2D.Double(line.getP2(), MathUtil.centerPoint(line)));
                     Point2D p5 = line.getP2();
                     path = MathUtil.cubicSplineThrough(p1, p2, p3, p4, p5);
@@ -226,22 +282,68 @@ public class Edge extends Observable implements Observer {
                 break;
         }
 
-        List<Double> angles = MathUtil.pathSegmentAngles(path);
-        List<Point2D> points = MathUtil.pathSegmentPoints(path);
-        arrow1Angle = angles.get(0);
-        arrow2Angle = angles.get(angles.size() - 1);
-        arrow1Point = points.get(0);
-        arrow2Point = points.get(points.size() - 1);
+        calculateArrows();
+    }
+
+    /**
+     * Calculates the points and angles of the arrows from the start of the first segment and the end of the last
+     * segment of the path.
+     */
+    private void calculateArrows() {
+        PathIterator iterator = path.getPathIterator(null);
+        double[] coords = new double[6];
+        double lastX = 0;
+        double lastY = 0;
+        boolean isFirstSegment = true;
+
+        //NOTE: The paths of edges never contain SEG_CLOSE, so it is ignored here.
+        for (; !iterator.isDone(); iterator.next()) {
+            int segType = iterator.currentSegment(coords);
+            if (segType == PathIterator.SEG_MOVETO) {
+                lastX = coords[0];
+                lastY = coords[1];
+                continue;
+            }
+            if (segType == PathIterator.SEG_CLOSE)
+                continue;
+
+            if (isFirstSegment) {
+                arrow1Angle = Math.atan2(lastY - coords[1], lastX - coords[0]);
+                arrow1X = lastX;
+                arrow1Y = lastY;
+                isFirstSegment = false;
+            }
+
+            switch (segType) {
+                case PathIterator.SEG_LINETO:
+                    arrow2Angle = Math.atan2(lastY - coords[1], lastX - coords[0]) + Math.PI;
+                    lastX = coords[0];
+                    lastY = coords[1];
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    arrow2Angle = Math.atan2(coords[3] - coords[1], coords[2] - coords[0]);
+                    lastX = coords[2];
+                    lastY = coords[3];
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    arrow2Angle = Math.atan2(coords[5] - coords[3], coords[4] - coords[2]);
+                    lastX = coords[4];
+                    lastY = coords[5];
+                    break;
+            }
+            arrow2X = lastX;
+            arrow2Y = lastY;
+        }
     }
 
     /**
      * Move actual weight point to a new point. Visual will be set automatically too.
      */
     public void moveActualWeightPointTo(double x, double y) {
-        if (x != actualData.getWeightPoint().getX() || y != actualData.getWeightPoint().getY()) {
-            actualData.getWeightPoint().setLocation(x, y);
-            visualData.getWeightPoint().setLocation(x, y);
-            calculatePath();
+        if (x != weightPointX || y != weightPointY) {
+            weightPointX = x;
+            weightPointY = y;
+            isPathDirty = true;
             setChanged();
             notifyObservers();
         }
@@ -251,7 +353,7 @@ public class Edge extends Observable implements Observer {
      * Move actual weight point by x and y. Visual will be set automatically too.
      */
     public void moveActualWeightPointBy(double deltaX, double deltaY) {
-        moveActualWeightPointTo(actualData.getWeightPoint().getX() + deltaX, actualData.getWeightPoint().getY() + deltaY);
+        moveActualWeightPointTo(weightPointX + deltaX, weightPointY + deltaY);
     }
 
     /**
@@ -322,7 +424,7 @@ public class Edge extends Observable implements Observer {
             node1.deleteObserver(this);
             node1 = node;
             calculateLine();
-            calculatePath();
+            isPathDirty = true;
             node1.addObserver(this);
             setChanged();
             notifyObservers();
@@ -339,7 +441,7 @@ public class Edge extends Observable implements Observer {
             node2.deleteObserver(this);
             node2 = node;
             calculateLine();
-            calculatePath();
+            isPathDirty = true;
             node2.addObserver(this);
             setChanged();
             notifyObservers();
@@ -363,7 +465,7 @@ public class Edge extends Observable implements Observer {
      * @see Node
      */
     public boolean isDirectedToNode1() {
-        return actualData.getDirection().directsToNode1();
+        return direction.directsToNode1();
     }
 
     /**
@@ -372,7 +474,7 @@ public class Edge extends Observable implements Observer {
      * @see Node
      */
     public boolean isDirectedToNode2() {
-        return actualData.getDirection().directsToNode2();
+        return direction.directsToNode2();
     }
 
     /**
@@ -390,11 +492,17 @@ public class Edge extends Observable implements Observer {
     }
 
     /**
-     * Gets the actual data of the edge.
+     * Gets a copy of the actual data of the edge.
      * @return actual data.
      */
     public EdgeData getActualData(){
-        return actualData;
+        EdgeData data = new EdgeData();
+        data.setWeight(weight);
+        data.setDirection(direction);
+        data.setStyle(style);
+        data.setColor(color);
+        data.setWeightPoint(getActualWeightPoint());
+        return data;
     }
 
     /**
@@ -403,7 +511,7 @@ public class Edge extends Observable implements Observer {
      * @see EdgeDirection
      */
     public EdgeDirection getActualDirection() {
-        return actualData.getDirection();
+        return direction;
     }
 
     /**
@@ -412,11 +520,11 @@ public class Edge extends Observable implements Observer {
      * @see EdgeDirection
      */
     public void setActualDirection(EdgeDirection newDirection) {
-        if (actualData.getDirection() == newDirection) return;
+        if (direction == newDirection) return;
 
-        actualData.setDirection(newDirection);
+        direction = newDirection;
         calculateLine();
-        calculatePath();
+        isPathDirty = true;
         setChanged();
         notifyObservers();
 
@@ -429,11 +537,11 @@ public class Edge extends Observable implements Observer {
      * @see EdgeDirection
      */
     public void setVisualDirection(EdgeDirection newDirection) {
-        if (actualData.getDirection() == newDirection) return;
+        //NOTE: Only the actual direction is ever drawn, so there is no visual direction to store.
+        if (direction == newDirection) return;
 
-        visualData.setDirection(newDirection);
         calculateLine();
-        calculatePath();
+        isPathDirty = true;
         setChanged();
         notifyObservers();
 
@@ -444,7 +552,7 @@ public class Edge extends Observable implements Observer {
      * @return color
      */
     public Color getActualColor() {
-        return actualData.getColor();
+        return color;
     }
 
     /**
@@ -452,7 +560,7 @@ public class Edge extends Observable implements Observer {
      * @return color
      */
     public Color getVisualColor() {
-        return visualData.getColor();
+        return visualColor != null ? visualColor : color;
     }
 
     /**
@@ -461,10 +569,11 @@ public class Edge extends Observable implements Observer {
      * @param newColor The new actual color to set the Edge to.
      */
     public void setActualColor(Color newColor) {
-        if (actualData.getColor().equals(newColor)) return;
+        newColor = Palette.color(newColor);
+        if (Objects.equals(color, newColor)) return;
 
-        actualData.setColor(newColor);
-        visualData.setColor(newColor);
+        color = newColor;
+        visualColor = null;
         setChanged();
         notifyObservers();
     }
@@ -475,9 +584,10 @@ public class Edge extends Observable implements Observer {
      * @param newColor the new color of the edge.
      */
     public void setVisualColor(Color newColor) {
-        if (visualData.getColor().equals(newColor)) return;
+        newColor = Palette.color(newColor);
+        if (Objects.equals(getVisualColor(), newColor)) return;
 
-        visualData.setColor(newColor);
+        visualColor = Objects.equals(color, newColor) ? null : newColor;
         setChanged();
         notifyObservers();
     }
@@ -486,14 +596,27 @@ public class Edge extends Observable implements Observer {
      * @return The actual weight of this Edge.
      */
     public double getActualWeight() {
-        return actualData.getWeight();
+        return weight;
     }
 
     /**
      * @return The visual weight used for animation purposes.
      */
     public double getVisualWeight() {
-        return visualData.getWeight();
+        return weight;
+    }
+
+    /**
+     * @return The visual weight formatted for displaying it, which is only formatted again once the weight changes.
+     * @see TextUtil#format(double)
+     */
+    public String getVisualWeightString() {
+        double visualWeight = getVisualWeight();
+        if (weightString == null || Double.compare(weightStringWeight, visualWeight) != 0) {
+            weightString = TextUtil.format(visualWeight);
+            weightStringWeight = visualWeight;
+        }
+        return weightString;
     }
 
     /**
@@ -502,9 +625,8 @@ public class Edge extends Observable implements Observer {
      * @param newWeight The new actual weight of this Edge.
      */
     public void setActualWeight(double newWeight) {
-        if (actualData.getWeight() != newWeight) {
-            actualData.setWeight(newWeight);
-            visualData.setWeight(newWeight);
+        if (weight != newWeight) {
+            weight = newWeight;
             setChanged();
             notifyObservers();
         }
@@ -516,7 +638,16 @@ public class Edge extends Observable implements Observer {
      * @see EdgeStyle
      */
     public EdgeStyle getActualStyle() {
-        return actualData.getStyle();
+        return style;
+    }
+
+    /**
+     * Gets the visual style of an edge, which is what the path of the edge is calculated from.
+     * @return style
+     * @see EdgeStyle
+     */
+    public EdgeStyle getVisualStyle() {
+        return visualStyle != null ? visualStyle : style;
     }
 
     /**
@@ -525,9 +656,10 @@ public class Edge extends Observable implements Observer {
      * @see EdgeStyle
      */
     public void setActualStyle(EdgeStyle newStyle) {
-        if (actualData.getStyle() != newStyle) {
-            actualData.setStyle(newStyle);
-            visualData.setStyle(newStyle);
+        if (style != newStyle) {
+            style = newStyle;
+            visualStyle = null;
+            isPathDirty = true;
             setChanged();
             notifyObservers();
         }
@@ -539,10 +671,9 @@ public class Edge extends Observable implements Observer {
      * @see EdgeStyle
      */
     public void setVisualStyle(EdgeStyle newStyle) {
-        if (visualData.getStyle() != newStyle) {
-            visualData.setStyle(newStyle);
-            calculateLine();
-            calculatePath();
+        if (getVisualStyle() != newStyle) {
+            visualStyle = style == newStyle ? null : newStyle;
+            isPathDirty = true;
             setChanged();
             notifyObservers();
         }
@@ -554,7 +685,17 @@ public class Edge extends Observable implements Observer {
      * @see Point2D
      */
     public Point2D getActualWeightPoint() {
-        return actualData.getWeightPoint();
+        return new Point2D.Double(weightPointX, weightPointY);
+    }
+
+    /**
+     * Gets the actual point where the weight of the edge is without allocating a new point.
+     * @param outPoint the point the actual weight point is stored in
+     * @return outPoint
+     */
+    public Point2D getActualWeightPoint(Point2D outPoint) {
+        outPoint.setLocation(weightPointX, weightPointY);
+        return outPoint;
     }
 
     /**
@@ -563,7 +704,17 @@ public class Edge extends Observable implements Observer {
      * @see Point2D
      */
     public Point2D getVisualWeightPoint() {
-        return visualData.getWeightPoint();
+        return getActualWeightPoint();
+    }
+
+    /**
+     * Gets the visual point where the weight is without allocating a new point.
+     * @param outPoint the point the visual weight point is stored in
+     * @return outPoint
+     */
+    public Point2D getVisualWeightPoint(Point2D outPoint) {
+        outPoint.setLocation(weightPointX, weightPointY);
+        return outPoint;
     }
 
     /**
@@ -579,13 +730,37 @@ public class Edge extends Observable implements Observer {
      * @see Path2D
      */
     public Path2D getPath() {
+        updatePath();
         return path;
     }
 
+    /**
+     * @param scale The scale that the edge is shown at, e.g. the zoom of a GraphPanel.
+     * @return The path of this edge flattened into a polyline, which deviates from the path by at most a fraction of
+     * a pixel when shown at the given scale.
+     * @see Polyline2D
+     */
+    public Polyline2D getFlattenedPath(double scale) {
+        updatePath();
+
+        int level = (int)Math.ceil(Math.log(scale) / Math.log(2));
+        level = Math.max(MIN_FLATNESS_LEVEL, Math.min(MAX_FLATNESS_LEVEL, level));
+        if (flattenedPaths == null)
+            flattenedPaths = new Polyline2D[MAX_FLATNESS_LEVEL - MIN_FLATNESS_LEVEL + 1];
+
+        Polyline2D flattenedPath = flattenedPaths[level - MIN_FLATNESS_LEVEL];
+        if (flattenedPath == null) {
+            flattenedPath = new Polyline2D(MathUtil.flatten(path, Math.scalb(FLATNESS_IN_PIXELS, -level)));
+            flattenedPaths[level - MIN_FLATNESS_LEVEL] = flattenedPath;
+        }
+        return flattenedPath;
+    }
+
     /**
      * @return the angle of the first arrow.
      */
     public double getArrow1Angle() {
+        updatePath();
         return arrow1Angle;
     }
 
@@ -593,6 +768,7 @@ public class Edge extends Observable implements Observer {
      * @return the angle of the second arrow.
      */
     public double getArrow2Angle() {
+        updatePath();
         return arrow2Angle;
     }
 
@@ -600,13 +776,35 @@ public class Edge extends Observable implements Observer {
      * @return the point of the first arrow.
      */
     public Point2D getArrow1Point() {
-        return arrow1Point;
+        updatePath();
+        return new Point2D.Double(arrow1X, arrow1Y);
     }
 
     /**
-     * @return the point of the first arrow.
+     * @param outPoint The point the point of the first arrow is stored in.
+     * @return outPoint
+     */
+    public Point2D getArrow1Point(Point2D outPoint) {
+        updatePath();
+        outPoint.setLocation(arrow1X, arrow1Y);
+        return outPoint;
+    }
+
+    /**
+     * @return the point of the second arrow.
      */
     public Point2D getArrow2Point() {
-        return arrow2Point;
+        updatePath();
+        return new Point2D.Double(arrow2X, arrow2Y);
+    }
+
+    /**
+     * @param outPoint The point the point of the second arrow is stored in.
+     * @return outPoint
+     */
+    public Point2D getArrow2Point(Point2D outPoint) {
+        updatePath();
+        outPoint.setLocation(arrow2X, arrow2Y);
+        return outPoint;
     }
 }
\ No newline at end of file
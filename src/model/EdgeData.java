@@ -1,17 +1,21 @@
 package model;
 
+import utils.Palette;
+
 import java.awt.*;
 import java.awt.geom.Point2D;
 import java.util.Objects;
 
 /**
- * @version 2.0
+ * @version 2.1
  *
  * Data class holds all data of the edge. The edge will be able to have multiple
  * versions of this data, in order to have some only visual data and some actual
- * data. It can also be used in cloning an edge.
+ * data. It can also be used in cloning an edge. Colors and fonts are
+ * canonicalized with the Palette.
  *
  * @see Edge
+ * @see utils.Palette
  * @see EdgeDirection
  * @see EdgeStyle
  * @see Color
@@ -99,7 +103,7 @@ public class EdgeData {
      * Sets the color of the edge data.
      */
     public void setColor(Color color) {
-        this.color = color;
+        this.color = Palette.color(color);
     }
 
     /**
@@ -7,12 +7,19 @@ import java.awt.geom.Rectangle2D;
 import java.util.*;
 
 /**
-  * @version 5.0
+  * @version 5.6
  *
  * This is the model for a graph. It is the main component of this model and keeps track of everything
  * that is happening in a graph, e.g. it stores nodes, edges, which ones are selected etc.
  * GraphModel observes edges and nodes, so that it can then notify the panel whenever its state changes.
  * It also has an UndoManager that can keep track of the edits and enables undoable and redo-able actions.
+ * Many changes to Nodes and Edges, as well as changes to the selection, can be batched between beginUpdate() and
+ * endUpdate(), so that observers are notified only once for all of them instead of once per change.
+ * The version of the graph increases with every change, so views can cheaply tell whether anything changed since they
+ * last looked. The content version only increases when the Nodes and Edges themselves change, and not when just the
+ * selection, the hovered elements, the unfinished edges or other state of the view change. Adding, removing and
+ * selecting many elements at once should use the bulk methods, which take linear time in the size of the graph and
+ * notify observers only once.
  *
  * @see Node
  * @see Edge
@@ -31,8 +38,12 @@ public class Graph extends Observable implements Observer {
     private Node goalNode;
     private String filename;
     private GraphUndoManager undoManager;
-    private int indexOfLastEditSinceSave;
+    private long undoStateAtSave;
+    private long version;
+    private long contentVersion;
     private boolean nodeClicked;
+    private int updateDepth;
+    private boolean changedDuringUpdate;
 
     /**
      * Constructs a new graph model with initialising values.
@@ -86,7 +97,7 @@ public class Graph extends Observable implements Observer {
         startNode = null;
         goalNode = null;
         filename = "";
-        indexOfLastEditSinceSave = -1;
+        undoStateAtSave = 0;
         nodeClicked = false;
 
         setChanged();
@@ -110,7 +121,7 @@ public class Graph extends Observable implements Observer {
         goalNode = other.goalNode;
         filename = other.filename;
         undoManager = other.undoManager;
-        indexOfLastEditSinceSave = other.indexOfLastEditSinceSave;
+        undoStateAtSave = other.undoStateAtSave;
         nodeClicked = other.nodeClicked;
         setChanged();
         notifyObservers();
@@ -138,6 +149,78 @@ public class Graph extends Observable implements Observer {
         notifyObservers();
     }
 
+    /**
+     * Adds a whole batch of nodes and edges to the graph model at once. Observers are only notified a single time
+     * after everything has been added, which makes this much cheaper than calling add() for every element when
+     * loading large graphs.
+     * @param newNodes nodes that are added
+     * @param newEdges edges that are added
+     */
+    public void addAll(List<Node> newNodes, List<Edge> newEdges) {
+        nodes.addAll(newNodes);
+        edges.addAll(newEdges);
+        for (Node node : newNodes)
+            node.addObserver(this);
+        for (Edge edge : newEdges)
+            edge.addObserver(this);
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Removes a whole batch of nodes and edges from the graph model at once, including all edges connected to the
+     * removed nodes. The lists of the graph are compacted in a single pass each, and observers are only notified a
+     * single time, which makes this much cheaper than calling remove() for every element.
+     * @param removedNodes nodes that are removed, or null
+     * @param removedEdges edges that are removed, or null
+     */
+    public void removeAll(Collection<Node> removedNodes, Collection<Edge> removedEdges) {
+        Set<Node> nodeSet = identitySetOf(removedNodes);
+        Set<Edge> edgeSet = identitySetOf(removedEdges);
+        if (nodeSet.isEmpty() && edgeSet.isEmpty())
+            return;
+
+        for (Node node : nodeSet)
+            node.deleteObserver(this);
+        nodes.removeIf(nodeSet::contains);
+        edges.removeIf(edge -> {
+            if (edgeSet.contains(edge) || nodeSet.contains(edge.getNode1()) || nodeSet.contains(edge.getNode2())) {
+                edge.deleteObserver(this);
+                edgeSet.add(edge);
+                return true;
+            }
+            return false;
+        });
+        selectedNodes.removeIf(nodeSet::contains);
+        selectedEdges.removeIf(edgeSet::contains);
+
+        if (nodeSet.contains(startNode))
+            startNode = null;
+        if (nodeSet.contains(goalNode))
+            goalNode = null;
+
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Finds all edges of this graph that are connected to any of the given nodes, in a single pass over the edges.
+     * @param connectedNodes the nodes whose edges are looked for
+     * @return the connected edges, in the order of the graph
+     */
+    public List<Edge> getConnectedEdges(Collection<Node> connectedNodes) {
+        List<Edge> connectedEdges = new ArrayList<>();
+        Set<Node> nodeSet = identitySetOf(connectedNodes);
+        if (nodeSet.isEmpty())
+            return connectedEdges;
+
+        for (Edge edge : edges) {
+            if (nodeSet.contains(edge.getNode1()) || nodeSet.contains(edge.getNode2()))
+                connectedEdges.add(edge);
+        }
+        return connectedEdges;
+    }
+
     /**
      * Removes a node from the graph model. Also removes connected edges.
      * @param node node that is removed
@@ -177,35 +260,43 @@ public class Graph extends Observable implements Observer {
      * @param deltaY number by which the y-coordinates will be moved
      */
     public void moveSelectedNodesBy(double deltaX, double deltaY) {
-        for (Node node : getSelectedNodes()) {
+        for (Node node : getSelectedNodes())
+            moveSelectedNodeBy(node, deltaX, deltaY);
+    }
 
-            NodeBorders selectedBorder = node.getSelectedBorders();
-            if (selectedBorder == NodeBorders.NONE) {
-                node.moveBy(deltaX, deltaY);
-                continue;
-            }
+    /**
+     * Moves a single selected node by the given coordinates, or resizes it if any of its borders are selected.
+     * @param node the node that is moved or resized
+     * @param deltaX number by which the x-coordinates will be moved
+     * @param deltaY number by which the y-coordinates will be moved
+     */
+    public void moveSelectedNodeBy(Node node, double deltaX, double deltaY) {
+        NodeBorders selectedBorder = node.getSelectedBorders();
+        if (selectedBorder == NodeBorders.NONE) {
+            node.moveBy(deltaX, deltaY);
+            return;
+        }
 
-            double dX = 0;
-            double dY = 0;
-            double dW = 0;
-            double dH = 0;
+        double dX = 0;
+        double dY = 0;
+        double dW = 0;
+        double dH = 0;
 
-            if (selectedBorder.isLeft()) {
-                dX += deltaX;
-                dW -= deltaX;
-            }
-            if (selectedBorder.isTop()) {
-                dY += deltaY;
-                dH -= deltaY;
-            }
+        if (selectedBorder.isLeft()) {
+            dX += deltaX;
+            dW -= deltaX;
+        }
+        if (selectedBorder.isTop()) {
+            dY += deltaY;
+            dH -= deltaY;
+        }
 
-            if (selectedBorder.isRight())
-                dW += deltaX;
-            if (selectedBorder.isBottom())
-                dH += deltaY;
+        if (selectedBorder.isRight())
+            dW += deltaX;
+        if (selectedBorder.isBottom())
+            dH += deltaY;
 
-            node.modifyBounds(dX, dY, dW, dH);
-        }
+        node.modifyBounds(dX, dY, dW, dH);
     }
 
     /**
@@ -230,8 +321,7 @@ public class Graph extends Observable implements Observer {
 
         if (!selectedNodes.contains(node)) {
             selectedNodes.add(node);
-            setChanged();
-            notifyObservers();
+            notifyViewChange();
         }
     }
 
@@ -246,8 +336,49 @@ public class Graph extends Observable implements Observer {
 
         if (!selectedEdges.contains(edge)) {
             selectedEdges.add(edge);
-            setChanged();
-            notifyObservers();
+            notifyViewChange();
+        }
+    }
+
+    /**
+     * Selects a whole batch of nodes and edges at once, skipping those that are already selected. Observers are only
+     * notified a single time, if anything was selected.
+     * @param newNodes nodes that are selected, or null
+     * @param newEdges edges that are selected, or null
+     */
+    public void selectAll(Collection<Node> newNodes, Collection<Edge> newEdges) {
+        boolean selectedNodesChanged = addMissing(selectedNodes, newNodes);
+        boolean selectedEdgesChanged = addMissing(selectedEdges, newEdges);
+        if (selectedNodesChanged || selectedEdgesChanged)
+            notifyViewChange();
+    }
+
+    /**
+     * Deselects a whole batch of nodes and edges at once, skipping those that aren't selected. Observers are only
+     * notified a single time, if anything was deselected.
+     * @param oldNodes nodes that are deselected, or null
+     * @param oldEdges edges that are deselected, or null
+     */
+    public void deselectAll(Collection<Node> oldNodes, Collection<Edge> oldEdges) {
+        Set<Node> oldNodeSet = identitySetOf(oldNodes);
+        Set<Edge> oldEdgeSet = identitySetOf(oldEdges);
+
+        //NOTE: Resetting the borders notifies through the nodes, so batch it with the rest.
+        beginUpdate();
+        try {
+            boolean selectedNodesChanged = !oldNodeSet.isEmpty() && selectedNodes.removeIf(oldNodeSet::contains);
+            if (selectedNodesChanged) {
+                for (Node node : oldNodeSet)
+                    node.setSelectedBorders(NodeBorders.NONE);
+                unfinishedEdges.removeIf(edge -> oldNodeSet.contains(edge.getNode1())
+                        || oldNodeSet.contains(edge.getNode2()));
+            }
+            boolean selectedEdgesChanged = !oldEdgeSet.isEmpty() && selectedEdges.removeIf(oldEdgeSet::contains);
+
+            if (selectedNodesChanged || selectedEdgesChanged)
+                notifyViewChange();
+        } finally {
+            endUpdate();
         }
     }
 
@@ -261,8 +392,7 @@ public class Graph extends Observable implements Observer {
             selectedNodes.remove(node);
             unfinishedEdges.removeIf(edge -> edge.connectsTo(node));
             node.setSelectedBorders(NodeBorders.NONE);
-            setChanged();
-            notifyObservers();
+            notifyViewChange();
         }
     }
 
@@ -274,8 +404,7 @@ public class Graph extends Observable implements Observer {
     public void deselect(Edge edge) {
         if (selectedEdges.contains(edge)) {
             selectedEdges.remove(edge);
-            setChanged();
-            notifyObservers();
+            notifyViewChange();
         }
     }
 
@@ -289,7 +418,7 @@ public class Graph extends Observable implements Observer {
                 edge.deleteObserver(this);
             }
             unfinishedEdges.clear();
-            setChanged();
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -365,7 +494,7 @@ public class Graph extends Observable implements Observer {
             unfinishedEdges.removeIf(edge -> selectedNodes.contains(edge.getNode1()));
 
             selectedNodes.clear();
-            setChanged();
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -376,7 +505,7 @@ public class Graph extends Observable implements Observer {
     public void clearSelectedEdges() {
         if (!selectedEdges.isEmpty()) {
             selectedEdges.clear();
-            setChanged();
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -395,7 +524,7 @@ public class Graph extends Observable implements Observer {
     public void setHoveredNode(Node node) {
         if (hoveredNode != node) {
             hoveredNode = node;
-            setChanged();
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -414,7 +543,7 @@ public class Graph extends Observable implements Observer {
     public void setHoveredEdge(Edge edge) {
         if (hoveredEdge != edge) {
             hoveredEdge = edge;
-            setChanged();
+            setViewChanged();
             notifyObservers();
 
         }
@@ -441,7 +570,7 @@ public class Graph extends Observable implements Observer {
     public void setFilename(String newFilename) {
         if (!newFilename.equals(filename)) {
             filename = newFilename;
-            setChanged();
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -464,17 +593,17 @@ public class Graph extends Observable implements Observer {
      * @return boolean indicating whether there are unsaved changes made.
      */
     public boolean hasUnsavedChanges() {
-        return indexOfLastEditSinceSave != undoManager.getUndoPointer();
+        return undoStateAtSave != undoManager.getUndoState();
     }
 
     /**
-     * Resets the index of last edit since saved.
+     * Resets the undo state of the last save.
      */
     public void clearChangedSinceLastSave() {
-        int newUndoPointer = undoManager.getUndoPointer();
-        if (indexOfLastEditSinceSave != newUndoPointer) {
-            indexOfLastEditSinceSave = newUndoPointer;
-            setChanged();
+        long newUndoState = undoManager.getUndoState();
+        if (undoStateAtSave != newUndoState) {
+            undoStateAtSave = newUndoState;
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -521,7 +650,7 @@ public class Graph extends Observable implements Observer {
     public void setStartNode(Node node) {
         if (startNode != node) {
             startNode = node;
-            setChanged();
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -533,7 +662,7 @@ public class Graph extends Observable implements Observer {
     public void setGoalNode(Node node) {
         if (goalNode != node) {
             goalNode = node;
-            setChanged();
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -552,7 +681,7 @@ public class Graph extends Observable implements Observer {
     public void setNodeClicked(boolean value) {
         if (nodeClicked != value) {
             nodeClicked = value;
-            setChanged();
+            setViewChanged();
             notifyObservers();
         }
     }
@@ -566,16 +695,120 @@ public class Graph extends Observable implements Observer {
      */
     @Override
     public void update(Observable o, Object arg) {
-        setChanged();
+        //NOTE: The unfinished edges follow the mouse, which doesn't change the content of the graph.
+        if (isAddingEdges() && unfinishedEdges.contains(o))
+            notifyViewChange();
+        else
+            notifyChange();
+    }
+
+    /**
+     * Starts a batched update. Until the matching call to endUpdate(), changes to the Nodes and Edges of this graph
+     * will not notify the observers of this graph. Batched updates can be nested.
+     */
+    public void beginUpdate() {
+        ++updateDepth;
+    }
+
+    /**
+     * Ends a batched update started with beginUpdate(). Once the outermost batched update ends, the observers of this
+     * graph are notified exactly once if any Node or Edge changed during the update.
+     */
+    public void endUpdate() {
+        if (updateDepth == 0)
+            throw new IllegalStateException("endUpdate() called without beginUpdate()");
+        if (--updateDepth == 0 && changedDuringUpdate) {
+            changedDuringUpdate = false;
+            setViewChanged();
+            notifyObservers();
+        }
+    }
+
+    /**
+     * Notifies the observers that the content of this graph changed, or defers it to the end of the current batched
+     * update.
+     */
+    private void notifyChange() {
+        ++contentVersion;
+        notifyViewChange();
+    }
+
+    /**
+     * Notifies the observers that this graph changed without changing its content, or defers it to the end of the
+     * current batched update.
+     */
+    private void notifyViewChange() {
+        if (updateDepth > 0) {
+            ++version;
+            changedDuringUpdate = true;
+            return;
+        }
+        setViewChanged();
         notifyObservers();
     }
 
+    /**
+     * @param elements nodes or edges, or null
+     * @return a set of the given elements that compares them by identity
+     */
+    private static <T> Set<T> identitySetOf(Collection<T> elements) {
+        Set<T> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (elements != null)
+            set.addAll(elements);
+        return set;
+    }
+
+    /**
+     * Appends the elements that aren't in a list yet to the list.
+     * @param list the list that is added to
+     * @param elements the elements that are added, or null
+     * @return whether any element was added
+     */
+    private static <T> boolean addMissing(List<T> list, Collection<T> elements) {
+        if (elements == null || elements.isEmpty())
+            return false;
+
+        Set<T> contained = identitySetOf(list);
+        int sizeBefore = list.size();
+        for (T element : elements) {
+            if (element != null && contained.add(element))
+                list.add(element);
+        }
+        return list.size() != sizeBefore;
+    }
+
+    /**
+     * @return The modification version of this graph, which increases whenever the graph or any of its Nodes and Edges
+     * changes - including changes during a batched update that haven't been notified yet.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The content version of this graph, which increases whenever the graph or any of its Nodes and Edges
+     * changes. Unlike the version, it doesn't increase when only the selection, the hovered elements, the unfinished
+     * edges or other state of the view change.
+     */
+    public long getContentVersion() {
+        return contentVersion;
+    }
+
     /**
      * Sets this graph model as having changed - we need to access this method outside of GraphModel so we had to
      * redeclare it.
      */
     @Override
     public void setChanged() {
+        ++contentVersion;
+        setViewChanged();
+    }
+
+    /**
+     * Sets this graph model as having changed, without changing its content version.
+     */
+    private void setViewChanged() {
+        ++version;
         super.setChanged();
     }
 }
\ No newline at end of file
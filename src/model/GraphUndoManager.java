@@ -1,23 +1,288 @@
 package model;
 
 import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEdit;
+import java.util.Arrays;
 
 /**
-* @version 1.0
+* @version 2.2
  *
  * This UndoManager is used to keep track of changes in the GraphModel. It has a method that actually allows us to get
  * a index into which UndoableEdit will be undone next - the normal UndoManager doesn't have this functionality for
- * whatever reason.
+ * whatever reason. Both that index and the undo state are available in constant time, no matter how long the history
+ * is, since the Graph asks for them on every change.
+ *
+ * Every edit gets a unique serial number when it's added. The undo state is the serial number of the edit that will be
+ * undone next, so unlike the index, it still identifies the same state after the oldest edits have been discarded, or
+ * after undone edits have been replaced by new ones.
+ *
+ * Besides the limit on the number of edits, the history also has a memory budget. Every edit is charged with its
+ * estimated size, and once the history is over budget, the oldest edits are discarded until it fits again. The most
+ * recent edit is always kept, even if it doesn't fit on its own.
+ *
+ * Edits that follow each other quickly, like the steps of holding down an arrow key, can be coalesced: if an edit is
+ * added within the coalesce window of the previous one, and the previous edit is a CoalescingEdit that accepts it, the
+ * new edit becomes part of the previous edit instead of being added on its own.
  *
  * @see UndoManager
+ * @see SizedEdit
+ * @see CoalescingEdit
  */
 public class GraphUndoManager extends UndoManager {
 
+    /**
+     * An UndoableEdit that knows how much memory it holds on to. Edits that don't implement this interface are charged
+     * with DEFAULT_EDIT_SIZE.
+     */
+    public interface SizedEdit {
+        /**
+         * @return The approximate number of bytes this edit keeps alive.
+         */
+        long getEstimatedSize();
+    }
+
+    /**
+     * An UndoableEdit that can absorb the edit that directly follows it, e.g. because both move the same Nodes.
+     */
+    public interface CoalescingEdit {
+        /**
+         * @param nextEdit The edit that was done directly after this edit, and has already been applied.
+         * @return Whether this edit now also undoes and redoes the next edit. If not, neither edit may have changed.
+         */
+        boolean coalesce(UndoableEdit nextEdit);
+    }
+
+    /**
+     * The default memory budget of the history in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    /**
+     * The size in bytes charged for edits that don't report their own size.
+     */
+    public static final long DEFAULT_EDIT_SIZE = 64;
+
+    /**
+     * The default time in milliseconds within which an edit can be coalesced into the previous one.
+     */
+    public static final long DEFAULT_COALESCE_WINDOW = 1000;
+
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private long memoryUsed;
+    //NOTE: The serial numbers of the edits, in the same order as the edits themselves.
+    private long[] editSerials = new long[16];
+    private int serialCount;
+    private long lastSerial;
+    //NOTE: Mirrors the index of the next edit to add in the UndoManager, which isn't accessible from subclasses.
+    private int nextAddIndex;
+    private long coalesceWindow = DEFAULT_COALESCE_WINDOW;
+    private long lastAddTime;
+    private boolean canCoalesce;
+
     /**
      * @return An index representing which UndoableEdit will be undone next, or -1 if no UndoableEdits can be undone.
      */
-    public int getUndoPointer() {
-        return edits.indexOf(editToBeUndone());
+    public synchronized int getUndoPointer() {
+        //NOTE: The same edit that editToBeUndone() finds, without having to search for it in the edits.
+        int index = nextAddIndex - 1;
+        while (index >= 0 && !edits.get(index).isSignificant())
+            --index;
+        return index;
+    }
+
+    /**
+     * @return The serial number of the UndoableEdit that will be undone next, or 0 if no UndoableEdits can be undone.
+     */
+    public synchronized long getUndoState() {
+        int index = getUndoPointer();
+        return index < 0 ? 0 : editSerials[index];
+    }
+
+    /**
+     * @return The memory budget of the history in bytes.
+     */
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the memory budget of the history, and immediately discards the oldest edits if it's over the new budget.
+     *
+     * @param bytes The new memory budget in bytes.
+     * @throws IllegalArgumentException if the budget is negative.
+     */
+    public synchronized void setMemoryBudget(long bytes) {
+        if (bytes < 0)
+            throw new IllegalArgumentException("memory budget must not be negative");
+        memoryBudget = bytes;
+        trimForMemoryBudget();
+    }
+
+    /**
+     * @return The time in milliseconds within which an edit can be coalesced into the previous one.
+     */
+    public synchronized long getCoalesceWindow() {
+        return coalesceWindow;
+    }
+
+    /**
+     * Sets the time within which an edit can be coalesced into the previous one.
+     *
+     * @param millis The new coalesce window in milliseconds, or 0 to never coalesce edits.
+     * @throws IllegalArgumentException if the window is negative.
+     */
+    public synchronized void setCoalesceWindow(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("coalesce window must not be negative");
+        coalesceWindow = millis;
+    }
+
+    /**
+     * @return The estimated number of bytes all edits in the history keep alive.
+     */
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * Adds an edit like the UndoManager does, and then discards the oldest edits if the history is over its budget. If
+     * the edit follows the previous edit closely enough, it may be coalesced into the previous edit instead.
+     *
+     * @param anEdit The edit to add.
+     * @return Whether the edit was added.
+     */
+    @Override
+    public synchronized boolean addEdit(UndoableEdit anEdit) {
+        long now = System.nanoTime();
+        boolean isWithinWindow = canCoalesce && now - lastAddTime < coalesceWindow * 1_000_000;
+        lastAddTime = now;
+        canCoalesce = true;
+        if (isWithinWindow && coalesce(anEdit))
+            return true;
+
+        //NOTE: The serial number is added before the UndoManager discards the edits that can't be redone anymore, so
+        // that it ends up at the same index as the new edit.
+        if (serialCount == editSerials.length)
+            editSerials = Arrays.copyOf(editSerials, serialCount * 2);
+        editSerials[serialCount++] = ++lastSerial;
+
+        boolean added = super.addEdit(anEdit);
+        if (isInProgress())
+            nextAddIndex = edits.size();
+        if (added && lastEdit() == anEdit) {
+            memoryUsed += sizeOf(anEdit);
+            trimForMemoryBudget();
+        } else {
+            --serialCount;
+        }
+        return added;
+    }
+
+    /**
+     * Discards all edits, and resets the memory used.
+     */
+    @Override
+    public synchronized void discardAllEdits() {
+        super.discardAllEdits();
+        memoryUsed = 0;
+        serialCount = 0;
+        nextAddIndex = 0;
+        canCoalesce = false;
+    }
+
+    /**
+     * Undoes edits like the UndoManager does, and moves the undo position back past the given edit.
+     *
+     * @param edit The last edit to undo.
+     */
+    @Override
+    protected void undoTo(UndoableEdit edit) {
+        super.undoTo(edit);
+        canCoalesce = false;
+        do {
+            --nextAddIndex;
+        } while (edits.get(nextAddIndex) != edit);
+    }
+
+    /**
+     * Redoes edits like the UndoManager does, and moves the undo position forward past the given edit.
+     *
+     * @param edit The last edit to redo.
+     */
+    @Override
+    protected void redoTo(UndoableEdit edit) {
+        super.redoTo(edit);
+        canCoalesce = false;
+        do {
+            ++nextAddIndex;
+        } while (edits.get(nextAddIndex - 1) != edit);
+    }
+
+    /**
+     * Removes edits like the UndoManager does, along with their serial numbers, and no longer charges them to the
+     * memory budget. This is used both for the edits that can't be redone anymore after a new edit, and for the oldest
+     * edits once a limit is reached.
+     *
+     * @param from The index of the first edit to remove.
+     * @param to The index of the last edit to remove.
+     */
+    @Override
+    protected void trimEdits(int from, int to) {
+        if (from <= to) {
+            for (int i = from; i <= to; ++i)
+                memoryUsed -= sizeOf(edits.get(i));
+            System.arraycopy(editSerials, to + 1, editSerials, from, serialCount - to - 1);
+            serialCount -= to - from + 1;
+            if (nextAddIndex > to)
+                nextAddIndex -= to - from + 1;
+            else if (nextAddIndex > from)
+                nextAddIndex = from;
+        }
+        super.trimEdits(from, to);
+    }
+
+    /**
+     * Tries to coalesce an edit into the last edit. This only happens if nothing can be redone, so the last edit is
+     * also the one that was done last. The last edit gets a new serial number, since it now ends in a different state.
+     *
+     * @param anEdit The edit to coalesce.
+     * @return Whether the edit was coalesced into the last edit.
+     */
+    private boolean coalesce(UndoableEdit anEdit) {
+        if (!isInProgress() || nextAddIndex == 0 || nextAddIndex != edits.size())
+            return false;
+        UndoableEdit lastEdit = edits.get(nextAddIndex - 1);
+        if (!(lastEdit instanceof CoalescingEdit))
+            return false;
+
+        long sizeBefore = sizeOf(lastEdit);
+        if (!((CoalescingEdit) lastEdit).coalesce(anEdit))
+            return false;
+        anEdit.die();
+        memoryUsed += sizeOf(lastEdit) - sizeBefore;
+        editSerials[nextAddIndex - 1] = ++lastSerial;
+        trimForMemoryBudget();
+        return true;
+    }
+
+    /**
+     * Discards the oldest edits until the history fits into its memory budget again.
+     */
+    private void trimForMemoryBudget() {
+        int count = 0;
+        long used = memoryUsed;
+        while (used > memoryBudget && count < edits.size() - 1)
+            used -= sizeOf(edits.get(count++));
+        if (count > 0)
+            trimEdits(0, count - 1);
+    }
+
+    /**
+     * @param edit An edit in the history.
+     * @return The number of bytes the edit is charged with.
+     */
+    private static long sizeOf(UndoableEdit edit) {
+        return edit instanceof SizedEdit ? ((SizedEdit) edit).getEstimatedSize() : DEFAULT_EDIT_SIZE;
     }
 
-}
\ No newline at end of file
+}
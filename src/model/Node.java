@@ -1,6 +1,7 @@
 package model;
 
 import utils.Diamond2D;
+import utils.Palette;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
@@ -9,10 +10,14 @@ import java.awt.geom.RoundRectangle2D;
 import java.util.Observable;
 
 /**
-  * @version 10.0
+  * @version 11.5
  *
- * This is the class that stores all data of a node. A node has two references to data, once the actual data that
- * the node has and once the visual data, that is used for animations and should not change actual data.
+ * This is the class that stores all data of a node. A node has two versions of its data, once the actual data that
+ * the node has and once the visual data, that is used for previews and should not change actual data.
+ *
+ * To keep nodes small, the actual data is stored directly in primitive fields, and the visual data is only allocated
+ * while it differs from the actual data - most nodes never have any. All colors and fonts are canonicalized with the
+ * Palette to share instances, but they are still compared with equals(), since the Palette doesn't cache every color.
  *
  * @see NodeData
  * @see NodeStyle
@@ -23,22 +28,22 @@ public class Node extends Observable {
     /**
      * The default color used to fill the node.
      */
-    public static final Color DEFAULT_FILL_COLOR = new Color(149, 149, 149);
+    public static final Color DEFAULT_FILL_COLOR = Palette.color(new Color(149, 149, 149));
 
     /**
      * The default color used to color the border.
      */
-    public static final Color DEFAULT_BORDER_COLOR = new Color(0, 0, 0);
+    public static final Color DEFAULT_BORDER_COLOR = Palette.color(new Color(0, 0, 0));
 
     /**
      * The color used to color the text of a node.
      */
-    public static final Color DEFAULT_TEXT_COLOR = new Color(255, 255, 255);
+    public static final Color DEFAULT_TEXT_COLOR = Palette.color(new Color(255, 255, 255));
 
     /**
      * The font used for the text of a node.
      */
-    public static final Font DEFAULT_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    public static final Font DEFAULT_FONT = Palette.font(Font.SANS_SERIF, Font.PLAIN, 12);
 
     /**
      * The width of the node.
@@ -60,8 +65,17 @@ public class Node extends Observable {
      */
     public static final String DEFAULT_NAME = "New Node";
 
+    private String name;
+    private double x;
+    private double y;
+    private double width;
+    private double height;
+    private NodeStyle style;
+    private Color fillColor;
+    private Color borderColor;
+    private Color textColor;
+    private Font font;
     private NodeData visualData;
-    private NodeData actualData;
     private NodeBorders selectedBorders;
 
     /**
@@ -80,15 +94,16 @@ public class Node extends Observable {
      */
     public Node(String name, double x, double y, double width, double height, NodeStyle style,
                 Color fillColor, Color borderColor, Color textColor, Font font) {
-        actualData = new NodeData();
-        actualData.setName(name);
-        actualData.getBounds().setRect(x, y, width, height);
-        actualData.setStyle(style);
-        actualData.setFillColor(fillColor);
-        actualData.setBorderColor(borderColor);
-        actualData.setTextColor(textColor);
-        actualData.setFont(font);
-        visualData = new NodeData(actualData);
+        this.name = name;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.style = style;
+        this.fillColor = Palette.color(fillColor);
+        this.borderColor = Palette.color(borderColor);
+        this.textColor = Palette.color(textColor);
+        this.font = Palette.font(font);
         selectedBorders = NodeBorders.NONE;
     }
 
@@ -139,9 +154,8 @@ public class Node extends Observable {
      * @param other the other node that the data is copied from
      */
     public Node(Node other) {
-        actualData = new NodeData(other.actualData);
-        visualData = new NodeData(actualData);
-        selectedBorders = NodeBorders.NONE;
+        this(other.name, other.x, other.y, other.width, other.height, other.style,
+                other.fillColor, other.borderColor, other.textColor, other.font);
     }
 
     /**
@@ -150,8 +164,17 @@ public class Node extends Observable {
      * @param otherData the new data of the node
      */
     public void setData(NodeData otherData){
-        actualData = new NodeData(otherData);
-        visualData = new NodeData(actualData);
+        name = otherData.getName();
+        x = otherData.getBounds().x;
+        y = otherData.getBounds().y;
+        width = otherData.getBounds().width;
+        height = otherData.getBounds().height;
+        style = otherData.getStyle();
+        fillColor = Palette.color(otherData.getFillColor());
+        borderColor = Palette.color(otherData.getBorderColor());
+        textColor = Palette.color(otherData.getTextColor());
+        font = Palette.font(otherData.getFont());
+        visualData = null;
 
         setChanged();
         notifyObservers();
@@ -162,8 +185,9 @@ public class Node extends Observable {
      * @param bounds the bounds it will be set to.
      */
     public void setVisualBounds(Rectangle2D bounds) {
-        if (bounds != null && !visualData.getBounds().equals(bounds)) {
-            visualData.getBounds().setRect(bounds);
+        if (bounds != null && !(visualData != null ? visualData.getBounds().equals(bounds) : hasActualBounds(bounds))) {
+            getOrCreateVisualData().getBounds().setRect(bounds);
+            dropUnchangedVisualData();
             setChanged();
             notifyObservers();
         }
@@ -174,9 +198,15 @@ public class Node extends Observable {
      * @param bounds new bounds it will be set to
      */
     public void setActualBounds(Rectangle2D bounds) {
-        if (bounds != null && !actualData.getBounds().equals(bounds)) {
-            actualData.getBounds().setRect(bounds);
-            visualData.getBounds().setRect(bounds);
+        if (bounds != null && !hasActualBounds(bounds)) {
+            x = bounds.getX();
+            y = bounds.getY();
+            width = bounds.getWidth();
+            height = bounds.getHeight();
+            if (visualData != null) {
+                visualData.getBounds().setRect(bounds);
+                dropUnchangedVisualData();
+            }
             setChanged();
             notifyObservers();
         }
@@ -235,7 +265,7 @@ public class Node extends Observable {
      * @param deltaY number the y will be moved
      */
     public void moveBy(double deltaX, double deltaY) {
-        moveTo(actualData.getBounds().x + deltaX, actualData.getBounds().y + deltaY);
+        moveTo(x + deltaX, y + deltaY);
     }
 
     /**
@@ -267,7 +297,20 @@ public class Node extends Observable {
      * @return visual bounds
      */
     public Rectangle2D getVisualBounds() {
-        return visualData.getBounds().getBounds2D();
+        return visualData != null ? visualData.getBounds().getBounds2D() : getActualBounds();
+    }
+
+    /**
+     * Gets the visual bounds of the node without allocating a new rectangle.
+     * @param outBounds the rectangle the visual bounds are stored in
+     * @return outBounds
+     */
+    public Rectangle2D getVisualBounds(Rectangle2D outBounds) {
+        if (visualData != null)
+            outBounds.setRect(visualData.getBounds());
+        else
+            outBounds.setRect(x, y, width, height);
+        return outBounds;
     }
 
     /**
@@ -275,7 +318,17 @@ public class Node extends Observable {
      * @return actual bounds of the node
      */
     public Rectangle2D getActualBounds() {
-        return actualData.getBounds().getBounds2D();
+        return new Rectangle2D.Double(x, y, width, height);
+    }
+
+    /**
+     * Gets the actual bounds of the node without allocating a new rectangle.
+     * @param outBounds the rectangle the actual bounds are stored in
+     * @return outBounds
+     */
+    public Rectangle2D getActualBounds(Rectangle2D outBounds) {
+        outBounds.setRect(x, y, width, height);
+        return outBounds;
     }
 
     /**
@@ -283,7 +336,7 @@ public class Node extends Observable {
      * @return visual name
      */
     public String getVisualName() {
-        return visualData.getName();
+        return visualData != null ? visualData.getName() : name;
     }
 
     /**
@@ -291,7 +344,7 @@ public class Node extends Observable {
      * @return actual name
      */
     public String getActualName() {
-        return actualData.getName();
+        return name;
     }
 
     /**
@@ -299,12 +352,15 @@ public class Node extends Observable {
      * @param newName new name it will be set to
      */
     public void setActualName(String newName) {
-        if (newName != null && !actualData.getName().equals(newName)) {
-            actualData.setName(newName);
+        if (newName != null && !name.equals(newName)) {
+            name = newName;
             setChanged();
             notifyObservers();
         }
-        visualData.setName(newName);
+        if (visualData != null && newName != null) {
+            visualData.setName(newName);
+            dropUnchangedVisualData();
+        }
 
     }
 
@@ -313,7 +369,7 @@ public class Node extends Observable {
      * @return visual fill color
      */
     public Color getVisualFillColor() {
-        return visualData.getFillColor();
+        return visualData != null ? visualData.getFillColor() : fillColor;
     }
 
     /**
@@ -321,7 +377,7 @@ public class Node extends Observable {
      * @return actual fill color
      */
     public Color getActualFillColor() {
-        return actualData.getFillColor();
+        return fillColor;
     }
 
     /**
@@ -329,8 +385,10 @@ public class Node extends Observable {
      * @param newColor new color of the node
      */
     public void setVisualFillColor(Color newColor) {
-        if (newColor != null && !visualData.getFillColor().equals(newColor)) {
-            visualData.setFillColor(newColor);
+        newColor = Palette.color(newColor);
+        if (newColor != null && !getVisualFillColor().equals(newColor)) {
+            getOrCreateVisualData().setFillColor(newColor);
+            dropUnchangedVisualData();
             setChanged();
             notifyObservers();
         }
@@ -341,8 +399,9 @@ public class Node extends Observable {
      * @param newColor new color of the node
      */
     public void setActualFillColor(Color newColor) {
-        if (newColor != null && !actualData.getFillColor().equals(newColor)) {
-            actualData.setFillColor(newColor);
+        newColor = Palette.color(newColor);
+        if (newColor != null && !fillColor.equals(newColor)) {
+            fillColor = newColor;
             setChanged();
             notifyObservers();
         }
@@ -353,7 +412,7 @@ public class Node extends Observable {
      * Gets the visual border color of the node.
      */
     public Color getVisualBorderColor() {
-        return visualData.getBorderColor();
+        return visualData != null ? visualData.getBorderColor() : borderColor;
     }
 
     /**
@@ -361,7 +420,7 @@ public class Node extends Observable {
      * @return border color new color of the node
      */
     public Color getActualBorderColor() {
-        return actualData.getBorderColor();
+        return borderColor;
     }
 
     /**
@@ -369,8 +428,10 @@ public class Node extends Observable {
      * @param newColor new color of the node
      */
     public void setVisualBorderColor(Color newColor) {
-        if (newColor != null && !visualData.getBorderColor().equals(newColor)) {
-            visualData.setBorderColor(newColor);
+        newColor = Palette.color(newColor);
+        if (newColor != null && !getVisualBorderColor().equals(newColor)) {
+            getOrCreateVisualData().setBorderColor(newColor);
+            dropUnchangedVisualData();
             setChanged();
             notifyObservers();
         }
@@ -381,8 +442,9 @@ public class Node extends Observable {
      * @param newColor new color of the node
      */
     public void setActualBorderColor(Color newColor) {
-        if (newColor != null && !actualData.getBorderColor().equals(newColor)) {
-            actualData.setBorderColor(newColor);
+        newColor = Palette.color(newColor);
+        if (newColor != null && !borderColor.equals(newColor)) {
+            borderColor = newColor;
             setChanged();
             notifyObservers();
         }
@@ -393,7 +455,7 @@ public class Node extends Observable {
      * Gets the visual text color of the node.
      */
     public Color getVisualTextColor() {
-        return visualData.getTextColor();
+        return visualData != null ? visualData.getTextColor() : textColor;
     }
 
     /**
@@ -401,7 +463,7 @@ public class Node extends Observable {
      * @return newColor new color of the node text
      */
     public Color getActualTextColor() {
-        return actualData.getTextColor();
+        return textColor;
     }
 
     /**
@@ -409,8 +471,10 @@ public class Node extends Observable {
      * @param newColor new color of the node text
      */
     public void setVisualTextColor(Color newColor) {
-        if (newColor != null && !visualData.getTextColor().equals(newColor)) {
-            visualData.setTextColor(newColor);
+        newColor = Palette.color(newColor);
+        if (newColor != null && !getVisualTextColor().equals(newColor)) {
+            getOrCreateVisualData().setTextColor(newColor);
+            dropUnchangedVisualData();
             setChanged();
             notifyObservers();
         }
@@ -421,8 +485,9 @@ public class Node extends Observable {
      * @param newColor new color of the node text
      */
     public void setActualTextColor(Color newColor) {
-        if (newColor != null && !actualData.getTextColor().equals(newColor)) {
-            actualData.setTextColor(newColor);
+        newColor = Palette.color(newColor);
+        if (newColor != null && !textColor.equals(newColor)) {
+            textColor = newColor;
             setChanged();
             notifyObservers();
         }
@@ -434,7 +499,7 @@ public class Node extends Observable {
      * @return font of the node
      */
     public Font getVisualFont() {
-        return visualData.getFont();
+        return visualData != null ? visualData.getFont() : font;
     }
 
     /**
@@ -442,7 +507,7 @@ public class Node extends Observable {
      * @return font of the node
      */
     public Font getActualFont() {
-        return actualData.getFont();
+        return font;
     }
 
     /**
@@ -450,8 +515,10 @@ public class Node extends Observable {
      * @param newFont new font of the node
      */
     public void setVisualFont(Font newFont) {
-        if (newFont != null && !visualData.getFont().equals(newFont)) {
-            visualData.setFont(newFont);
+        newFont = Palette.font(newFont);
+        if (newFont != null && !getVisualFont().equals(newFont)) {
+            getOrCreateVisualData().setFont(newFont);
+            dropUnchangedVisualData();
             setChanged();
             notifyObservers();
         }
@@ -462,8 +529,9 @@ public class Node extends Observable {
      * @param newFont new font it will be set to
      */
     public void setActualFont(Font newFont) {
-        if (newFont != null && !actualData.getFont().equals(newFont)) {
-            actualData.setFont(newFont);
+        newFont = Palette.font(newFont);
+        if (newFont != null && !font.equals(newFont)) {
+            font = newFont;
             setChanged();
             notifyObservers();
         }
@@ -475,7 +543,7 @@ public class Node extends Observable {
      * @return style of the node
      */
     public NodeStyle getVisualStyle() {
-        return visualData.getStyle();
+        return visualData != null ? visualData.getStyle() : style;
     }
 
     /**
@@ -483,7 +551,7 @@ public class Node extends Observable {
      * @return style of the node
      */
     public NodeStyle getActualStyle() {
-        return actualData.getStyle();
+        return style;
     }
 
     /**
@@ -491,8 +559,9 @@ public class Node extends Observable {
      * @param newStyle new style of the node
      */
     public void setVisualStyle(NodeStyle newStyle) {
-        if (newStyle != null && visualData.getStyle() != newStyle) {
-            visualData.setStyle(newStyle);
+        if (newStyle != null && getVisualStyle() != newStyle) {
+            getOrCreateVisualData().setStyle(newStyle);
+            dropUnchangedVisualData();
             setChanged();
             notifyObservers();
         }
@@ -503,8 +572,8 @@ public class Node extends Observable {
      * @param newStyle new style of the node
      */
     public void setActualStyle(NodeStyle newStyle) {
-        if (newStyle != null && actualData.getStyle() != newStyle) {
-            actualData.setStyle(newStyle);
+        if (newStyle != null && style != newStyle) {
+            style = newStyle;
             setChanged();
             notifyObservers();
         }
@@ -532,18 +601,63 @@ public class Node extends Observable {
     }
 
     /**
-     * Gets the actual data.
+     * Gets a copy of the actual data.
      * @return actual data
      */
     public NodeData getActualData(){
-        return actualData;
+        NodeData data = new NodeData();
+        data.setName(name);
+        data.getBounds().setRect(x, y, width, height);
+        data.setStyle(style);
+        data.setFillColor(fillColor);
+        data.setBorderColor(borderColor);
+        data.setTextColor(textColor);
+        data.setFont(font);
+        return data;
+    }
+
+    /**
+     * Gets the visual data, and allocates it as a copy of the actual data if the node didn't have any.
+     * @return visual data
+     */
+    private NodeData getOrCreateVisualData() {
+        if (visualData == null)
+            visualData = getActualData();
+        return visualData;
+    }
+
+    /**
+     * @param bounds Some bounds.
+     * @return Whether the given bounds are the actual bounds of the node, compared like Rectangle2D.equals().
+     */
+    private boolean hasActualBounds(Rectangle2D bounds) {
+        return bounds.getX() == x && bounds.getY() == y && bounds.getWidth() == width && bounds.getHeight() == height;
+    }
+
+    /**
+     * Drops the visual data once it is the same as the actual data again.
+     */
+    private void dropUnchangedVisualData() {
+        if (visualData == null)
+            return;
+
+        //NOTE: Compared field by field instead of with getActualData(), so that the many visual changes of animations
+        // and drags don't allocate a copy of the actual data every time.
+        if (hasActualBounds(visualData.getBounds())
+                && visualData.getStyle() == style
+                && visualData.getName().equals(name)
+                && visualData.getFillColor().equals(fillColor)
+                && visualData.getBorderColor().equals(borderColor)
+                && visualData.getTextColor().equals(textColor)
+                && visualData.getFont().equals(font))
+            visualData = null;
     }
 
 
     @Override
     public String toString() {
         return "Node{" +
-                "name=" + actualData.getName() +
+                "name=" + name +
                 '}';
     }
 }
\ No newline at end of file
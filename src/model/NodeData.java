@@ -1,18 +1,22 @@
 package model;
 
+import utils.Palette;
+
 import java.awt.*;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.Objects;
 
 /**
- * @version 2.0
+ * @version 2.1
  *
  * Data class holds all data of the node. The edge will be able to have multiple
  * versions of this data, in order to have some only visual data and some actual
- * data. It can also be used in cloning an edge.
+ * data. It can also be used in cloning an edge. Colors and fonts are
+ * canonicalized with the Palette.
  *
  * @see Node
+ * @see utils.Palette
  * @see NodeStyle
  * @see Color
  * @see Point2D
@@ -76,7 +80,7 @@ public class NodeData {
      * @param font new font
      */
     public void setFont(Font font) {
-        this.font = font;
+        this.font = Palette.font(font);
     }
 
     /**
@@ -91,7 +95,7 @@ public class NodeData {
      * @param fillColor new color to fill the node
      */
     public void setFillColor(Color fillColor) {
-        this.fillColor = fillColor;
+        this.fillColor = Palette.color(fillColor);
     }
 
     /**
@@ -106,7 +110,7 @@ public class NodeData {
      * @param borderColor new color for the border
      */
     public void setBorderColor(Color borderColor) {
-        this.borderColor = borderColor;
+        this.borderColor = Palette.color(borderColor);
     }
 
     /**
@@ -121,7 +125,7 @@ public class NodeData {
      * @param textColor new color
      */
     public void setTextColor(Color textColor) {
-        this.textColor = textColor;
+        this.textColor = Palette.color(textColor);
     }
 
     /**
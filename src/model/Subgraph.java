@@ -0,0 +1,178 @@
+package model;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+* @version 1.1
+ *
+ * A Subgraph is a detached, immutable snapshot of some Nodes and the Edges between them. Instead of copying whole Nodes
+ * and Edges, it only keeps their data, and stores which Nodes an Edge connects as indices into the Nodes - packed into a
+ * single int array with two entries per Edge. This keeps a snapshot of a large selection small, and lets it be turned
+ * back into Nodes and Edges without ever searching for a Node.
+ *
+ * Subgraphs can also be written to and read from streams by the GraphIO, so that they can be copied between
+ * applications through the system clipboard.
+ *
+ * @see Node
+ * @see Edge
+ * @see controller.Clipboard
+ * @see utils.GraphIO#writeSubgraph(Subgraph, java.io.OutputStream)
+ */
+public class Subgraph {
+
+    private final NodeData[] nodeData;
+    private final EdgeData[] edgeData;
+    private final int[] edgeEndpoints;
+
+    /**
+     * Takes a snapshot of the given Nodes and Edges. Only Edges that connect two of the given Nodes are kept.
+     *
+     * @param nodes The Nodes to take a snapshot of.
+     * @param edges The Edges to take a snapshot of.
+     */
+    public Subgraph(List<Node> nodes, List<Edge> edges) {
+        Map<Node, Integer> nodeIndices = new IdentityHashMap<>(nodes.size());
+        nodeData = new NodeData[nodes.size()];
+        for (int i = 0; i < nodeData.length; ++i) {
+            Node node = nodes.get(i);
+            nodeIndices.putIfAbsent(node, i);
+            nodeData[i] = node.getActualData();
+        }
+
+        EdgeData[] allEdgeData = new EdgeData[edges.size()];
+        int[] allEdgeEndpoints = new int[2 * edges.size()];
+        int edgeCount = 0;
+        for (Edge edge : edges) {
+            Integer node1Index = nodeIndices.get(edge.getNode1());
+            Integer node2Index = nodeIndices.get(edge.getNode2());
+            if (node1Index != null && node2Index != null) {
+                allEdgeData[edgeCount] = edge.getActualData();
+                allEdgeEndpoints[2 * edgeCount] = node1Index;
+                allEdgeEndpoints[2 * edgeCount + 1] = node2Index;
+                ++edgeCount;
+            }
+        }
+
+        if (edgeCount == edges.size()) {
+            edgeData = allEdgeData;
+            edgeEndpoints = allEdgeEndpoints;
+        } else {
+            edgeData = new EdgeData[edgeCount];
+            edgeEndpoints = new int[2 * edgeCount];
+            System.arraycopy(allEdgeData, 0, edgeData, 0, edgeCount);
+            System.arraycopy(allEdgeEndpoints, 0, edgeEndpoints, 0, 2 * edgeCount);
+        }
+    }
+
+    /**
+     * Constructs a Subgraph directly from its data, e.g. after reading it from a stream. The arrays are used as they
+     * are, and must not be changed afterwards.
+     *
+     * @param nodeData The data of every Node.
+     * @param edgeData The data of every Edge.
+     * @param edgeEndpoints The indices of the two Nodes of every Edge, one after the other.
+     * @throws IllegalArgumentException If the endpoints don't match the Edges, or refer to a Node that doesn't exist.
+     */
+    public Subgraph(NodeData[] nodeData, EdgeData[] edgeData, int[] edgeEndpoints) {
+        if (edgeEndpoints.length != 2 * edgeData.length)
+            throw new IllegalArgumentException("Every edge needs exactly two endpoints");
+        for (int i = 0; i < edgeEndpoints.length; i += 2) {
+            int node1Index = edgeEndpoints[i];
+            int node2Index = edgeEndpoints[i + 1];
+            if (node1Index < 0 || node1Index >= nodeData.length || node2Index < 0 || node2Index >= nodeData.length)
+                throw new IllegalArgumentException("Edge " + i / 2 + " connects to a node that doesn't exist");
+            if (node1Index == node2Index)
+                throw new IllegalArgumentException("Edge " + i / 2 + " connects a node to itself");
+        }
+
+        this.nodeData = nodeData;
+        this.edgeData = edgeData;
+        this.edgeEndpoints = edgeEndpoints;
+    }
+
+    /**
+     * @return The number of Nodes in this Subgraph.
+     */
+    public int getNodeCount() {
+        return nodeData.length;
+    }
+
+    /**
+     * @return The number of Edges in this Subgraph.
+     */
+    public int getEdgeCount() {
+        return edgeData.length;
+    }
+
+    /**
+     * @param index The index of a Node.
+     * @return The data of the Node. It must not be changed.
+     */
+    public NodeData getNodeData(int index) {
+        return nodeData[index];
+    }
+
+    /**
+     * @param index The index of an Edge.
+     * @return The data of the Edge. It must not be changed.
+     */
+    public EdgeData getEdgeData(int index) {
+        return edgeData[index];
+    }
+
+    /**
+     * @param index The index of an Edge.
+     * @return The index of the first Node of the Edge.
+     */
+    public int getEdgeNode1(int index) {
+        return edgeEndpoints[2 * index];
+    }
+
+    /**
+     * @param index The index of an Edge.
+     * @return The index of the second Node of the Edge.
+     */
+    public int getEdgeNode2(int index) {
+        return edgeEndpoints[2 * index + 1];
+    }
+
+    /**
+     * @return Whether this Subgraph has neither Nodes nor Edges.
+     */
+    public boolean isEmpty() {
+        return nodeData.length == 0 && edgeData.length == 0;
+    }
+
+    /**
+     * Creates new Nodes and Edges from this Subgraph, which connect to each other just like the Nodes and Edges this
+     * Subgraph was taken from. The new Nodes and Edges aren't added to any Graph.
+     *
+     * @param offsetX How far to move the new Nodes and weight points horizontally.
+     * @param offsetY How far to move the new Nodes and weight points vertically.
+     * @param outNodes The list the new Nodes are appended to, in the same order they were given in.
+     * @param outEdges The list the new Edges are appended to, in the same order they were given in.
+     */
+    public void instantiate(double offsetX, double offsetY, List<Node> outNodes, List<Edge> outEdges) {
+        Node[] newNodes = new Node[nodeData.length];
+        for (int i = 0; i < newNodes.length; ++i) {
+            NodeData data = nodeData[i];
+            Rectangle2D.Double bounds = data.getBounds();
+            newNodes[i] = new Node(data.getName(), bounds.x + offsetX, bounds.y + offsetY, bounds.width, bounds.height,
+                    data.getStyle(), data.getFillColor(), data.getBorderColor(), data.getTextColor(), data.getFont());
+            outNodes.add(newNodes[i]);
+        }
+
+        for (int i = 0; i < edgeData.length; ++i) {
+            EdgeData data = edgeData[i];
+            Edge newEdge = new Edge(newNodes[edgeEndpoints[2 * i]], newNodes[edgeEndpoints[2 * i + 1]],
+                    data.getWeight(), data.getDirection(), data.getStyle(), data.getColor());
+            Point2D weightPoint = data.getWeightPoint();
+            newEdge.moveActualWeightPointTo(weightPoint.getX() + offsetX, weightPoint.getY() + offsetY);
+            outEdges.add(newEdge);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * @version 1.0
+ *
+ * Counts how many bytes the painting thread allocates per frame, so that garbage produced by the paint loop can be
+ * spotted and tracked down. Counting is disabled unless start() is called, in which case frameStarted() and
+ * frameFinished() measure the bytes allocated between them, and the average is printed every REPORT_INTERVAL frames.
+ * Once disabled, both are cheap no-ops.
+ *
+ * The bytes are taken from the ThreadMXBean of the JVM, so counting only works on JVMs that support measuring thread
+ * allocations, like HotSpot.
+ *
+ * @see com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)
+ */
+public final class AllocationCounter {
+
+    private static final int REPORT_INTERVAL = 100;
+
+    private static volatile boolean running = false;
+    private static com.sun.management.ThreadMXBean threads;
+    private static long frameStartBytes;
+    private static long lastFrameBytes;
+    private static long intervalBytes;
+    private static int intervalFrames;
+
+    /**
+     * Starts counting allocations, if the JVM supports it.
+     *
+     * @return Whether allocations are being counted.
+     */
+    public static synchronized boolean start() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return false;
+
+        threads = (com.sun.management.ThreadMXBean)bean;
+        if (!threads.isThreadAllocatedMemorySupported())
+            return false;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        lastFrameBytes = -1;
+        running = true;
+        return true;
+    }
+
+    /**
+     * Records the start of a frame. Must be called on the thread that paints the frame.
+     */
+    public static void frameStarted() {
+        if (!running)
+            return;
+
+        frameStartBytes = allocatedBytes();
+    }
+
+    /**
+     * Records the end of a frame that was started with frameStarted() on the same thread, and prints the average
+     * bytes allocated per frame every REPORT_INTERVAL frames.
+     */
+    public static void frameFinished() {
+        if (!running || frameStartBytes < 0)
+            return;
+
+        lastFrameBytes = allocatedBytes() - frameStartBytes;
+        frameStartBytes = -1;
+        intervalBytes += lastFrameBytes;
+        if (++intervalFrames == REPORT_INTERVAL) {
+            System.out.printf("Allocated %.1f KB per frame over the last %d frames%n",
+                    intervalBytes / 1024.0 / intervalFrames, intervalFrames);
+            intervalBytes = 0;
+            intervalFrames = 0;
+        }
+    }
+
+    /**
+     * @return The bytes allocated during the last finished frame, or -1 if no frame has been counted.
+     */
+    public static long getLastFrameBytes() {
+        return running ? lastFrameBytes : -1;
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far.
+     */
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * This class contains only static fields and methods and should never be instantiated.
+     */
+    private AllocationCounter() {}
+
+}
@@ -0,0 +1,199 @@
+package utils;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * @version 1.1
+ *
+ * An InputStream that reads data written by a BlockCompressedOutputStream. Since every block was compressed on its
+ * own, the stream reads ahead a bounded number of blocks and inflates them on the fork-join pool while the caller is
+ * still consuming the current block. The lengths in the block headers are checked against the largest block that a
+ * BlockCompressedOutputStream writes before anything is allocated for them, so a corrupt header can't make the stream
+ * allocate more than that.
+ *
+ * @see BlockCompressedOutputStream
+ * @see Inflater
+ */
+public class BlockCompressedInputStream extends InputStream {
+
+    private static final int MAX_BLOCKS_IN_FLIGHT = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+
+    //NOTE: The most that deflating a full block can produce, like compressBound() of zlib.
+    private static final int MAX_COMPRESSED_LENGTH = BlockCompressedOutputStream.BLOCK_SIZE
+            + (BlockCompressedOutputStream.BLOCK_SIZE >> 12) + (BlockCompressedOutputStream.BLOCK_SIZE >> 14)
+            + (BlockCompressedOutputStream.BLOCK_SIZE >> 25) + 13;
+
+    private final DataInputStream in;
+    private final Queue<Future<byte[]>> blocksInFlight;
+    private byte[] block;
+    private int blockPosition;
+    private boolean endReached;
+
+    /**
+     * Constructs a BlockCompressedInputStream that reads from the given stream, and immediately reads and checks the
+     * header.
+     *
+     * @param in The InputStream from which the compressed blocks will be read.
+     * @throws IOException If the header could not be read, or if it is not a supported block-compressed header.
+     */
+    public BlockCompressedInputStream(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        this.blocksInFlight = new ArrayDeque<>();
+        this.block = new byte[0];
+        this.blockPosition = 0;
+        this.endReached = false;
+
+        byte[] magic = new byte[BlockCompressedOutputStream.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, BlockCompressedOutputStream.MAGIC))
+            throw new IOException("Not a block-compressed stream");
+        int version = this.in.readUnsignedByte();
+        if (version != BlockCompressedOutputStream.VERSION)
+            throw new IOException("Unsupported block-compressed version: " + version);
+    }
+
+    /**
+     * @param header The first bytes of a stream.
+     * @return Whether the given bytes start with the magic of a block-compressed stream.
+     */
+    public static boolean hasMagic(byte[] header) {
+        if (header.length < BlockCompressedOutputStream.MAGIC.length)
+            return false;
+        for (int i = 0; i < BlockCompressedOutputStream.MAGIC.length; i++)
+            if (header[i] != BlockCompressedOutputStream.MAGIC[i])
+                return false;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBlockAvailable())
+            return -1;
+        return block[blockPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0)
+            return 0;
+        if (!ensureBlockAvailable())
+            return -1;
+
+        int count = Math.min(length, block.length - blockPosition);
+        System.arraycopy(block, blockPosition, bytes, offset, count);
+        blockPosition += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return block.length - blockPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Future<byte[]> future : blocksInFlight)
+            future.cancel(false);
+        blocksInFlight.clear();
+        endReached = true;
+        in.close();
+    }
+
+    /**
+     * Makes sure that there are unread bytes left in the current block, moving on to the next block if necessary.
+     *
+     * @return Whether there is data left to be read, i.e. false at the end of the stream.
+     * @throws IOException If the next block could not be read or inflated.
+     */
+    private boolean ensureBlockAvailable() throws IOException {
+        while (blockPosition == block.length) {
+            submitBlocks();
+            if (blocksInFlight.isEmpty())
+                return false;
+
+            try {
+                block = blocksInFlight.remove().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while decompressing", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException)
+                    throw ((UncheckedIOException)e.getCause()).getCause();
+                throw new IOException("Failed to decompress block", e.getCause());
+            }
+            blockPosition = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Reads compressed blocks from the underlying stream and hands them off to the fork-join pool, until either the
+     * maximum number of blocks in flight or the end marker has been reached.
+     *
+     * @throws IOException If a block could not be read.
+     * @throws StreamCorruptedException If the header of a block holds impossible lengths.
+     */
+    private void submitBlocks() throws IOException {
+        while (!endReached && blocksInFlight.size() < MAX_BLOCKS_IN_FLIGHT) {
+            int uncompressedLength = in.readInt();
+            if (uncompressedLength == 0) {
+                endReached = true;
+                break;
+            }
+            if (uncompressedLength < 0 || uncompressedLength > BlockCompressedOutputStream.BLOCK_SIZE)
+                throw new StreamCorruptedException("Corrupt block header: block of " + uncompressedLength + " bytes");
+            int compressedLength = in.readInt();
+            if (compressedLength < 0 || compressedLength > MAX_COMPRESSED_LENGTH)
+                throw new StreamCorruptedException("Corrupt block header: " + compressedLength + " compressed bytes");
+
+            byte[] compressed = new byte[compressedLength];
+            try {
+                in.readFully(compressed);
+            } catch (EOFException e) {
+                throw new IOException("Truncated block-compressed stream", e);
+            }
+            blocksInFlight.add(ForkJoinPool.commonPool().submit(() -> decompress(compressed, uncompressedLength)));
+        }
+    }
+
+    /**
+     * @param compressed The deflated block data.
+     * @param uncompressedLength The number of bytes that the block inflates to.
+     * @return The inflated block data.
+     */
+    private static byte[] decompress(byte[] compressed, int uncompressedLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] data = new byte[uncompressedLength];
+            int length = 0;
+            while (length < uncompressedLength && !inflater.finished()) {
+                int count = inflater.inflate(data, length, uncompressedLength - length);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                length += count;
+            }
+            if (length != uncompressedLength)
+                throw new UncheckedIOException(new IOException("Block inflated to " + length + " instead of "
+                        + uncompressedLength + " bytes"));
+            return data;
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt block", e));
+        } finally {
+            inflater.end();
+        }
+    }
+}
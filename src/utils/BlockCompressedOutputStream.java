@@ -0,0 +1,203 @@
+package utils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+/**
+ * @version 1.0
+ *
+ * An OutputStream that splits everything written to it into fixed size blocks and deflate-compresses every block
+ * independently of all other blocks. Because no block depends on any other block, they can all be compressed - and
+ * later decompressed by a BlockCompressedInputStream - in parallel. Blocks are compressed on the fork-join pool while
+ * the next block is being filled.
+ *
+ * A block-compressed stream is structured like this:
+ *
+ * MAGIC(4 bytes) VERSION(byte)
+ * BLOCK[0:NUM_BLOCKS]..
+ * 0(int)
+ *
+ * BLOCKs are written like this:
+ * UNCOMPRESSED_LENGTH(int) COMPRESSED_LENGTH(int) DEFLATED_DATA(COMPRESSED_LENGTH bytes)
+ *
+ * @see BlockCompressedInputStream
+ * @see Deflater
+ */
+public class BlockCompressedOutputStream extends OutputStream {
+
+    /**
+     * The bytes that every block-compressed stream starts with.
+     */
+    public static final byte[] MAGIC = { 'M', 'C', 'G', 'Z' };
+
+    /**
+     * The version of the block-compressed format that is written.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The number of uncompressed bytes stored in every block except for the last one.
+     */
+    public static final int BLOCK_SIZE = 1 << 20;
+
+    private static final int MAX_BLOCKS_IN_FLIGHT = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+
+    private final DataOutputStream out;
+    private final Queue<Future<byte[]>> blocksInFlight;
+    private byte[] block;
+    private int blockLength;
+    private boolean closed;
+
+    /**
+     * Constructs a BlockCompressedOutputStream that writes to the given stream, and immediately writes the header.
+     *
+     * @param out The OutputStream to which the compressed blocks will be written.
+     * @throws IOException If the header could not be written.
+     */
+    public BlockCompressedOutputStream(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.blocksInFlight = new ArrayDeque<>();
+        this.block = new byte[BLOCK_SIZE];
+        this.blockLength = 0;
+        this.closed = false;
+
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (blockLength == block.length)
+            submitBlock();
+        block[blockLength++] = (byte)b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (blockLength == block.length)
+                submitBlock();
+            int count = Math.min(length, block.length - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, count);
+            blockLength += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Compresses and writes out all of the blocks that have been completely filled so far. The last partially filled
+     * block stays buffered since every block except the last one has to hold exactly BLOCK_SIZE bytes.
+     *
+     * @throws IOException If the blocks could not be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!blocksInFlight.isEmpty())
+            writeNextBlock();
+        out.flush();
+    }
+
+    /**
+     * Compresses and writes out any remaining data followed by the end marker, and then closes the underlying stream.
+     *
+     * @throws IOException If the remaining blocks could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+
+        try {
+            if (blockLength > 0)
+                submitBlock();
+            flush();
+            out.writeInt(0);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Hands the current block off to the fork-join pool to be compressed and starts a new one. If too many blocks are
+     * already waiting to be written then the oldest one is written out first so memory use stays bounded.
+     *
+     * @throws IOException If an older block could not be written.
+     */
+    private void submitBlock() throws IOException {
+        byte[] data = block;
+        int length = blockLength;
+        blocksInFlight.add(ForkJoinPool.commonPool().submit(() -> compress(data, length)));
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+
+        while (blocksInFlight.size() > MAX_BLOCKS_IN_FLIGHT)
+            writeNextBlock();
+    }
+
+    /**
+     * Waits for the oldest block in flight to be compressed and writes it to the underlying stream.
+     *
+     * @throws IOException If the block could not be compressed or written.
+     */
+    private void writeNextBlock() throws IOException {
+        byte[] compressed;
+        try {
+            compressed = blocksInFlight.remove().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress block", e.getCause());
+        }
+
+        //NOTE: Both block lengths were already written in front of the deflated data by compress().
+        out.write(compressed);
+    }
+
+    /**
+     * @param data The uncompressed block data.
+     * @param length The number of bytes of the block data that should be compressed.
+     * @return The full on-disk representation of the block, i.e. both lengths followed by the deflated data.
+     */
+    private static byte[] compress(byte[] data, int length) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+
+            byte[] buffer = new byte[8 + length + (length >> 6) + 64];
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (8 + compressedLength == buffer.length)
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                compressedLength += deflater.deflate(buffer, 8 + compressedLength, buffer.length - 8 - compressedLength);
+            }
+
+            writeInt(buffer, 0, length);
+            writeInt(buffer, 4, compressedLength);
+            return Arrays.copyOf(buffer, 8 + compressedLength);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Writes a big-endian int into a byte array, the same way DataOutputStream.writeInt() would.
+     */
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset]     = (byte)(value >>> 24);
+        buffer[offset + 1] = (byte)(value >>> 16);
+        buffer[offset + 2] = (byte)(value >>> 8);
+        buffer[offset + 3] = (byte)value;
+    }
+}
@@ -0,0 +1,331 @@
+package utils;
+
+import model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * @version 1.1
+ *
+ * Generates random graphs for stress testing and benchmarking. Graphs are generated from one of several well known
+ * random graph models, and everything about them - the layout, the Edge weights, directions, and styles - is derived
+ * from a single seed, so the same settings always generate exactly the same graph.
+ *
+ * The supported models are:
+ *
+ * ERDOS_RENYI      - Edges connect uniformly random pairs of Nodes, and Nodes are scattered randomly.
+ * GRID             - Nodes sit on a jittered square grid and connect to some of their 4 neighbors, like a road map.
+ * BARABASI_ALBERT  - Every new Node connects to existing Nodes with a probability proportional to their degree, which
+ *                    results in a few highly connected hubs (a scale-free graph).
+ * RANDOM_GEOMETRIC - Nodes are scattered randomly and connect to every Node within a fixed distance of them.
+ *
+ * The average degree is the average number of Edges connected to a Node. Every model aims for it, but GRID can't have
+ * an average degree above 4. Graphs never contain self looping Edges or two Edges between the same pair of Nodes.
+ *
+ * @see Graph
+ */
+public class GraphGenerator {
+
+    /**
+     * The random graph models that graphs can be generated from.
+     */
+    public enum Model { ERDOS_RENYI, GRID, BARABASI_ALBERT, RANDOM_GEOMETRIC }
+
+    private static final double NODE_SPACING = 200;
+
+    private final Model model;
+    private final int numNodes;
+    private double averageDegree;
+    private double directedFraction;
+    private double negativeWeightFraction;
+    private int maxWeight;
+    private NodeStyle[] nodeStyles;
+    private EdgeStyle[] edgeStyles;
+    private long seed;
+
+    /**
+     * Constructs a GraphGenerator for graphs of the given model and size. By default, Nodes have an average degree of
+     * 4, all Edges are directed, weights are positive whole numbers up to 10, Nodes and Edges use their default style,
+     * and the seed is 0.
+     *
+     * @param model The random graph model to generate graphs from.
+     * @param numNodes The number of Nodes in the generated graphs.
+     */
+    public GraphGenerator(Model model, int numNodes) {
+        if (numNodes < 0)
+            throw new IllegalArgumentException("Number of nodes must not be negative");
+
+        this.model = model;
+        this.numNodes = numNodes;
+        this.averageDegree = 4;
+        this.directedFraction = 1;
+        this.negativeWeightFraction = 0;
+        this.maxWeight = 10;
+        this.nodeStyles = new NodeStyle[] { Node.DEFAULT_STYLE };
+        this.edgeStyles = new EdgeStyle[] { EdgeStyle.CUBIC_BEZIER };
+        this.seed = 0;
+    }
+
+    /**
+     * @param averageDegree The average number of Edges connected to every Node.
+     */
+    public void setAverageDegree(double averageDegree) {
+        this.averageDegree = Math.max(0, averageDegree);
+    }
+
+    /**
+     * @param directedFraction The fraction of Edges that are directed to one of their Nodes, between 0 and 1. All
+     *                         other Edges are directed to both of their Nodes.
+     */
+    public void setDirectedFraction(double directedFraction) {
+        this.directedFraction = Math.max(0, Math.min(1, directedFraction));
+    }
+
+    /**
+     * @param negativeWeightFraction The fraction of Edges with a negative weight, between 0 and 1.
+     */
+    public void setNegativeWeightFraction(double negativeWeightFraction) {
+        this.negativeWeightFraction = Math.max(0, Math.min(1, negativeWeightFraction));
+    }
+
+    /**
+     * @param maxWeight The largest absolute Edge weight. Weights are whole numbers from 1 up to this.
+     */
+    public void setMaxWeight(int maxWeight) {
+        this.maxWeight = Math.max(1, maxWeight);
+    }
+
+    /**
+     * @param nodeStyles The NodeStyles to pick from uniformly at random for every Node.
+     */
+    public void setNodeStyles(NodeStyle... nodeStyles) {
+        if (nodeStyles.length == 0)
+            throw new IllegalArgumentException("At least one node style is required");
+        this.nodeStyles = nodeStyles.clone();
+    }
+
+    /**
+     * @param edgeStyles The EdgeStyles to pick from uniformly at random for every Edge.
+     */
+    public void setEdgeStyles(EdgeStyle... edgeStyles) {
+        if (edgeStyles.length == 0)
+            throw new IllegalArgumentException("At least one edge style is required");
+        this.edgeStyles = edgeStyles.clone();
+    }
+
+    /**
+     * @param seed The seed from which everything about the generated graph is derived.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return A new graph generated with the current settings. The graph has no start or goal Node.
+     */
+    public Graph generate() {
+        Random random = new Random(seed);
+        double side = Math.ceil(Math.sqrt(numNodes)) * NODE_SPACING;
+
+        double[] xs = new double[numNodes];
+        double[] ys = new double[numNodes];
+        List<int[]> pairs;
+        switch (model) {
+            case GRID:
+                pairs = generateGrid(random, xs, ys);
+                break;
+            case BARABASI_ALBERT:
+                scatter(random, side, xs, ys);
+                pairs = generateBarabasiAlbert(random);
+                break;
+            case RANDOM_GEOMETRIC:
+                scatter(random, side, xs, ys);
+                pairs = generateRandomGeometric(side, xs, ys);
+                break;
+            default:
+                scatter(random, side, xs, ys);
+                pairs = generateErdosRenyi(random);
+                break;
+        }
+
+        List<Node> nodes = new ArrayList<>(numNodes);
+        for (int i = 0; i < numNodes; ++i) {
+            NodeStyle style = nodeStyles[random.nextInt(nodeStyles.length)];
+            nodes.add(new Node(String.valueOf(i), xs[i], ys[i], Node.DEFAULT_WIDTH, Node.DEFAULT_HEIGHT, style,
+                    Node.DEFAULT_FILL_COLOR, Node.DEFAULT_BORDER_COLOR, Node.DEFAULT_TEXT_COLOR, Node.DEFAULT_FONT));
+        }
+
+        List<Edge> edges = new ArrayList<>(pairs.size());
+        for (int[] pair : pairs) {
+            double weight = 1 + random.nextInt(maxWeight);
+            if (random.nextDouble() < negativeWeightFraction)
+                weight = -weight;
+
+            EdgeDirection direction = EdgeDirection.DIRECTED_TO_BOTH_NODES;
+            if (random.nextDouble() < directedFraction)
+                direction = random.nextBoolean() ? EdgeDirection.DIRECTED_TO_NODE_2 : EdgeDirection.DIRECTED_TO_NODE_1;
+
+            EdgeStyle style = edgeStyles[random.nextInt(edgeStyles.length)];
+            edges.add(new Edge(nodes.get(pair[0]), nodes.get(pair[1]), weight, direction, style, Edge.DEFAULT_COLOR));
+        }
+
+        Graph graph = new Graph();
+        graph.addAll(nodes, edges);
+        return graph;
+    }
+
+    /**
+     * @return The number of Edges that should be generated to reach the average degree.
+     */
+    private long getTargetNumEdges() {
+        long maxEdges = (long)numNodes * (numNodes - 1) / 2;
+        return Math.min(maxEdges, Math.round(numNodes * averageDegree / 2));
+    }
+
+    /**
+     * Places all Nodes uniformly at random in a square.
+     */
+    private void scatter(Random random, double side, double[] outXs, double[] outYs) {
+        for (int i = 0; i < numNodes; ++i) {
+            outXs[i] = random.nextDouble() * side;
+            outYs[i] = random.nextDouble() * side;
+        }
+    }
+
+    /**
+     * Picks Edges between uniformly random pairs of distinct Nodes, skipping pairs that are already connected.
+     */
+    private List<int[]> generateErdosRenyi(Random random) {
+        long numEdges = getTargetNumEdges();
+        List<int[]> pairs = new ArrayList<>((int)numEdges);
+        Set<Long> connected = new HashSet<>();
+        while (pairs.size() < numEdges) {
+            int a = random.nextInt(numNodes);
+            int b = random.nextInt(numNodes);
+            if (a != b && connected.add(pairKey(a, b)))
+                pairs.add(new int[] { a, b });
+        }
+        return pairs;
+    }
+
+    /**
+     * Places the Nodes on a jittered square grid and connects every Node to its right and bottom neighbors with a
+     * probability that results in the average degree.
+     */
+    private List<int[]> generateGrid(Random random, double[] outXs, double[] outYs) {
+        int columns = (int)Math.ceil(Math.sqrt(numNodes));
+        for (int i = 0; i < numNodes; ++i) {
+            outXs[i] = (i % columns + 0.5 * random.nextDouble()) * NODE_SPACING;
+            outYs[i] = (i / columns + 0.5 * random.nextDouble()) * NODE_SPACING;
+        }
+
+        double keepProbability = Math.min(1, averageDegree / 4);
+        List<int[]> pairs = new ArrayList<>((int)getTargetNumEdges());
+        for (int i = 0; i < numNodes; ++i) {
+            int right = i + 1;
+            int below = i + columns;
+            if (right % columns != 0 && right < numNodes && random.nextDouble() < keepProbability)
+                pairs.add(new int[] { i, right });
+            if (below < numNodes && random.nextDouble() < keepProbability)
+                pairs.add(new int[] { i, below });
+        }
+        return pairs;
+    }
+
+    /**
+     * Starts with a small fully connected core, then connects every following Node to m distinct existing Nodes
+     * picked with a probability proportional to their degree, where m is half the average degree.
+     */
+    private List<int[]> generateBarabasiAlbert(Random random) {
+        int m = Math.max(1, (int)Math.round(averageDegree / 2));
+        int coreSize = Math.min(numNodes, m + 1);
+
+        List<int[]> pairs = new ArrayList<>(numNodes * m);
+        //NOTE: Every Node appears in here once for every Edge it is connected to, so picking a uniformly random entry
+        // picks a Node with a probability proportional to its degree.
+        int[] endpoints = new int[2 * (coreSize * coreSize + numNodes * m)];
+        int numEndpoints = 0;
+
+        for (int a = 0; a < coreSize; ++a) {
+            for (int b = a + 1; b < coreSize; ++b) {
+                pairs.add(new int[] { a, b });
+                endpoints[numEndpoints++] = a;
+                endpoints[numEndpoints++] = b;
+            }
+        }
+
+        Set<Integer> targets = new HashSet<>();
+        for (int node = coreSize; node < numNodes; ++node) {
+            targets.clear();
+            while (targets.size() < Math.min(m, node)) {
+                int target = numEndpoints > 0 ? endpoints[random.nextInt(numEndpoints)] : random.nextInt(node);
+                targets.add(target);
+            }
+            for (int target : targets) {
+                pairs.add(new int[] { node, target });
+                endpoints[numEndpoints++] = node;
+                endpoints[numEndpoints++] = target;
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Connects every pair of Nodes closer than the radius at which the expected degree equals the average degree.
+     * Nodes are bucketed into cells at least as large as the radius, so only Nodes in neighboring cells have to be
+     * compared. There are at most as many cells as Nodes, so that a tiny radius doesn't need a huge grid.
+     */
+    private List<int[]> generateRandomGeometric(double side, double[] xs, double[] ys) {
+        List<int[]> pairs = new ArrayList<>((int)getTargetNumEdges());
+        if (numNodes < 2)
+            return pairs;
+
+        double radius = side * Math.sqrt(averageDegree / (Math.PI * numNodes));
+        if (radius <= 0)
+            return pairs;
+        int maxCells = (int)Math.sqrt(numNodes);
+        int numCells = (int)Math.max(1, Math.min(maxCells, side / radius));
+        double cellSize = side / numCells;
+
+        //NOTE: A singly linked list of Nodes per cell, stored in two int arrays to keep this fast for millions of Nodes.
+        int[] cellHeads = new int[numCells * numCells];
+        int[] nextInCell = new int[numNodes];
+        Arrays.fill(cellHeads, -1);
+        for (int i = 0; i < numNodes; ++i) {
+            int cell = getCell(xs[i], cellSize, numCells) * numCells + getCell(ys[i], cellSize, numCells);
+            nextInCell[i] = cellHeads[cell];
+            cellHeads[cell] = i;
+        }
+
+        double radiusSquared = radius * radius;
+        for (int a = 0; a < numNodes; ++a) {
+            int cellX = getCell(xs[a], cellSize, numCells);
+            int cellY = getCell(ys[a], cellSize, numCells);
+            for (int cx = Math.max(0, cellX - 1); cx <= Math.min(numCells - 1, cellX + 1); ++cx) {
+                for (int cy = Math.max(0, cellY - 1); cy <= Math.min(numCells - 1, cellY + 1); ++cy) {
+                    for (int b = cellHeads[cx * numCells + cy]; b != -1; b = nextInCell[b]) {
+                        double dx = xs[a] - xs[b];
+                        double dy = ys[a] - ys[b];
+                        //NOTE: Only take pairs with a < b, so every pair is added exactly once.
+                        if (a < b && dx * dx + dy * dy <= radiusSquared)
+                            pairs.add(new int[] { a, b });
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static int getCell(double coordinate, double cellSize, int numCells) {
+        return Math.min(numCells - 1, (int)(coordinate / cellSize));
+    }
+
+    private static long pairKey(int a, int b) {
+        return a < b ? ((long)a << 32) | b : ((long)b << 32) | a;
+    }
+}
@@ -7,15 +7,27 @@ import view.GraphPanel;
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * @version 10.0
+ * @version 11.5
  *
  * A collection of utilities for saving and loading graph files, session properties, etc. Methods in this class can load
  * graphs from both an EXTENDED format which can be used to save ALL of the information in a GraphModel or from a NON
@@ -58,6 +70,38 @@ import java.util.Set;
  *
  * ============================================================
  *
+ * Graph files in either format can also be stored compressed. Files ending in ".graph.gz" are gzip-compressed, and
+ * files ending in ".graphz" are block-compressed (see BlockCompressedOutputStream), which allows them to be compressed
+ * and decompressed in parallel. When loading, the compression is detected from the first bytes of the file rather than
+ * from its extension.
+ *
+ * saveGraph() and loadGraph() report failures to the user with a dialog. readGraph() and writeGraph() throw instead and
+ * never touch Swing, so they can also be used in a headless environment.
+ *
+ * ============================================================
+ *
+ * Subgraphs, like the contents of the clipboard, can be written either as text in the EXTENDED format, or in a compact
+ * BINARY format that is streamed with big-endian primitives (see DataOutputStream):
+ *
+ * MAGIC(int) VERSION(byte) NUM_FONTS(int) NUM_NODES(int) NUM_EDGES(int)
+ * FONT[0:NUM_FONTS]..
+ * NODE[0:NUM_NODES]..
+ * EDGE[0:NUM_EDGES]..
+ *
+ * FONTs in the BINARY format are written like this:
+ * STYLE(int) SIZE(int) NAME(String)
+ *
+ * NODEs in the BINARY format are written like this:
+ * X(double) Y(double) WIDTH(double) HEIGHT(double) STYLE(byte) FILL_ARGB(int) BORDER_ARGB(int) TEXT_ARGB(int) FONT_INDEX(int) TEXT(String)
+ *
+ * EDGEs in the BINARY format are written like this:
+ * INDEX_NODE1(int) INDEX_NODE2(int) WEIGHT(double) X(double) Y(double) DIRECTION(byte) STYLE(byte) COLOR_ARGB(int)
+ *
+ * Styles and directions are written as their ordinal, and Strings as their length in UTF-8 bytes(int) followed by the
+ * bytes themselves. Strings may be at most MAX_STRING_LENGTH bytes long.
+ *
+ * ============================================================
+ *
  * @see Graph
  * @see Node
  * @see Edge
@@ -66,12 +110,23 @@ public final class GraphIO {
 
     private static final String DATA_DIRECTORY = "McGraph";
     private static final String SESSION_FILENAME = "session.properties";
+    private static final int PARSE_CHUNK_SIZE = 4096;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_STRING_LENGTH = 1 << 24;
+
+    private static final String GRAPH_EXTENSION = "graph";
+    private static final String GZIP_EXTENSION = "gz";
+    private static final String BLOCK_COMPRESSED_EXTENSION = "graphz";
+
+    private static final int SUBGRAPH_MAGIC = 0x4D435347; // "MCSG"
+    private static final byte SUBGRAPH_VERSION = 1;
 
     /**
      * Attempts to save the data from the given GraphModel to the given file. The files will be saved in the EXTENDED
      * format, and files saved in this way can later be losslessly loaded via loadGraph(). If any exception occurs
      * during file saving, the file will most likely be left in a partially corrupted state - unable to be loaded again.
-     * The user will be notified if this occurs.
+     * The user will be notified if this occurs. The file is compressed if its path ends in ".graph.gz" or ".graphz",
+     * and any other path gets ".graph" appended to it.
      *
      * @param graph The GraphModel to save to the file. The graph will NOT be modified during this function.
      * @param filepath A path to the file to which the graph will be saved to.
@@ -80,12 +135,11 @@ public final class GraphIO {
         if (filepath == null || filepath.length() == 0)
             return;
 
-        String extension = getFileExtension(filepath);
-        if (!extension.equals("graph"))
-            filepath += ".graph";
+        if (!isGraphFile(filepath))
+            filepath += "." + GRAPH_EXTENSION;
 
-        try(FileWriter fileWriter = new FileWriter(filepath)) {
-            writeGraph(graph, fileWriter);
+        try {
+            writeGraph(graph, filepath);
             graph.setFilename(filepath);
             graph.clearChangedSinceLastSave();
             System.out.println("Save successful");
@@ -100,7 +154,7 @@ public final class GraphIO {
      * Attempts to load the given GraphModel with the data saved in the given graph file. This function can be called
      * with files in either the EXTENDED or the NON-EXTENDED graph formats. If any exception occurs during loading of
      * the graph, the graph will be restored to its original state before calling this function and the user will be
-     * notified.
+     * notified. Compressed graph files are decompressed transparently.
      *
      * @param graph The GraphModel to load to - the graph might be modified during this function.
      * @param filepath The path of the graph file from which to load. The file can be in either the EXTENDED or NON-EXTENDED formats.
@@ -111,19 +165,8 @@ public final class GraphIO {
 
         Graph backup = new Graph(graph);
 
-        try(BufferedReader reader = new BufferedReader(new FileReader(filepath))) {
-
-            reader.mark(1024);
-            String firstLine = reader.readLine();
-            reader.reset();
-
-            if (firstLine.equals("#extended format"))
-                loadGraphFromExtendedFormat(graph, reader);
-            else
-                loadGraphFromNonExtendedFormat(graph, reader);
-
-            graph.setFilename(filepath);
-            graph.clearChangedSinceLastSave();
+        try {
+            readGraph(graph, filepath, true);
             System.out.println("Load successful");
         } catch (Exception e) {
             graph.set(backup);
@@ -133,6 +176,217 @@ public final class GraphIO {
         }
     }
 
+    /**
+     * Writes the data from the given GraphModel to the given file in the EXTENDED format, compressing it according to
+     * the file extension. Unlike saveGraph(), the file path is used as is and the graph is not marked as saved.
+     *
+     * @param graph The GraphModel to write to the file. The graph will NOT be modified during this function.
+     * @param filepath A path to the file to which the graph will be written.
+     * @throws IOException If the file could not be written.
+     */
+    public static void writeGraph(Graph graph, String filepath) throws IOException {
+        try(Writer writer = new BufferedWriter(new OutputStreamWriter(openOutputStream(filepath)), IO_BUFFER_SIZE)) {
+            writeGraph(graph, writer);
+        }
+    }
+
+    /**
+     * Loads the given GraphModel with the data saved in the given graph file, in either the EXTENDED or NON-EXTENDED
+     * format. Unlike loadGraph(), any failure is thrown to the caller and the graph is NOT restored - it may be left
+     * partially loaded.
+     *
+     * @param graph The GraphModel to load to.
+     * @param filepath The path of the graph file from which to load.
+     * @param resolveFonts Whether fonts that are not installed should be replaced by the default font. If false, fonts
+     *                     are kept exactly as named in the file, which avoids initializing the font system at all.
+     * @throws IOException If the file could not be read.
+     */
+    public static void readGraph(Graph graph, String filepath, boolean resolveFonts) throws IOException {
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(openInputStream(filepath)), IO_BUFFER_SIZE)) {
+
+            loadGraphFromEitherFormat(graph, reader, resolveFonts);
+            graph.setFilename(filepath);
+            graph.clearChangedSinceLastSave();
+        }
+    }
+
+    /**
+     * Writes a Subgraph to the given stream in the BINARY format. The stream is flushed, but not closed.
+     *
+     * @param subgraph The Subgraph to write.
+     * @param stream The stream to write to.
+     * @throws IOException If the stream fails to write for whatever reason.
+     */
+    public static void writeSubgraph(Subgraph subgraph, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, IO_BUFFER_SIZE));
+
+        Map<Font, Integer> fontIndices = new HashMap<>();
+        List<Font> fonts = new ArrayList<>();
+        for (int i = 0; i < subgraph.getNodeCount(); ++i) {
+            Font font = subgraph.getNodeData(i).getFont();
+            if (fontIndices.putIfAbsent(font, fonts.size()) == null)
+                fonts.add(font);
+        }
+
+        out.writeInt(SUBGRAPH_MAGIC);
+        out.writeByte(SUBGRAPH_VERSION);
+        out.writeInt(fonts.size());
+        out.writeInt(subgraph.getNodeCount());
+        out.writeInt(subgraph.getEdgeCount());
+
+        for (Font font : fonts) {
+            out.writeInt(font.getStyle());
+            out.writeInt(font.getSize());
+            writeString(out, font.getName());
+        }
+
+        for (int i = 0; i < subgraph.getNodeCount(); ++i) {
+            NodeData data = subgraph.getNodeData(i);
+            Rectangle2D bounds = data.getBounds();
+            out.writeDouble(bounds.getX());
+            out.writeDouble(bounds.getY());
+            out.writeDouble(bounds.getWidth());
+            out.writeDouble(bounds.getHeight());
+            out.writeByte(data.getStyle().ordinal());
+            out.writeInt(data.getFillColor().getRGB());
+            out.writeInt(data.getBorderColor().getRGB());
+            out.writeInt(data.getTextColor().getRGB());
+            out.writeInt(fontIndices.get(data.getFont()));
+            writeString(out, data.getName());
+        }
+
+        for (int i = 0; i < subgraph.getEdgeCount(); ++i) {
+            EdgeData data = subgraph.getEdgeData(i);
+            out.writeInt(subgraph.getEdgeNode1(i));
+            out.writeInt(subgraph.getEdgeNode2(i));
+            out.writeDouble(data.getWeight());
+            out.writeDouble(data.getWeightPoint().getX());
+            out.writeDouble(data.getWeightPoint().getY());
+            out.writeByte(data.getDirection().ordinal());
+            out.writeByte(data.getStyle().ordinal());
+            out.writeInt(data.getColor().getRGB());
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Reads a Subgraph in the BINARY format from the given stream. Only as much of the stream is read as the Subgraph
+     * takes up, and the stream is not closed.
+     *
+     * @param stream The stream to read from.
+     * @param resolveFonts Whether fonts that are not installed should be replaced by the default font.
+     * @return The Subgraph that was read.
+     * @throws IOException If the stream fails to read, or doesn't contain a valid Subgraph.
+     */
+    public static Subgraph readSubgraph(InputStream stream, boolean resolveFonts) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, IO_BUFFER_SIZE));
+
+        if (in.readInt() != SUBGRAPH_MAGIC)
+            throw new StreamCorruptedException("Not a subgraph");
+        if (in.readByte() != SUBGRAPH_VERSION)
+            throw new StreamCorruptedException("Unsupported subgraph version");
+        int numFonts = readCount(in);
+        int numNodes = readCount(in);
+        int numEdges = readCount(in);
+
+        //NOTE: The counts come from wherever the stream comes from, e.g. another process through the clipboard. So
+        // the lists start out small and only grow as their elements are actually read - a corrupted count just makes
+        // the stream end early. There are never more fonts than nodes.
+        if (numFonts > numNodes)
+            throw new StreamCorruptedException("More fonts than nodes");
+        List<Font> fonts = new ArrayList<>(Math.min(numFonts, PARSE_CHUNK_SIZE));
+        for (int i = 0; i < numFonts; ++i) {
+            int style = in.readInt();
+            int size = in.readInt();
+            String name = readString(in);
+            fonts.add(!resolveFonts || TextUtil.fontExists(name) ? Palette.font(name, style, size)
+                    : Palette.font(Font.DIALOG, style, size));
+        }
+
+        List<NodeData> nodeData = new ArrayList<>(Math.min(numNodes, PARSE_CHUNK_SIZE));
+        NodeStyle[] nodeStyles = NodeStyle.values();
+        for (int i = 0; i < numNodes; ++i) {
+            NodeData data = new NodeData();
+            data.getBounds().setRect(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+            data.setStyle(readOrdinal(in, nodeStyles));
+            data.setFillColor(Palette.argb(in.readInt()));
+            data.setBorderColor(Palette.argb(in.readInt()));
+            data.setTextColor(Palette.argb(in.readInt()));
+            int fontIndex = readCount(in);
+            if (fontIndex >= fonts.size())
+                throw new StreamCorruptedException("Font index " + fontIndex + " out of range");
+            data.setFont(fonts.get(fontIndex));
+            data.setName(readString(in));
+            nodeData.add(data);
+        }
+
+        List<EdgeData> edgeData = new ArrayList<>(Math.min(numEdges, PARSE_CHUNK_SIZE));
+        int[] edgeEndpoints = new int[2 * Math.min(numEdges, PARSE_CHUNK_SIZE)];
+        EdgeDirection[] directions = EdgeDirection.values();
+        EdgeStyle[] edgeStyles = EdgeStyle.values();
+        for (int i = 0; i < numEdges; ++i) {
+            if (2 * i == edgeEndpoints.length)
+                edgeEndpoints = Arrays.copyOf(edgeEndpoints, 2 * edgeEndpoints.length);
+            edgeEndpoints[2 * i] = in.readInt();
+            edgeEndpoints[2 * i + 1] = in.readInt();
+            EdgeData data = new EdgeData();
+            data.setWeight(in.readDouble());
+            data.setWeightPoint(new Point2D.Double(in.readDouble(), in.readDouble()));
+            data.setDirection(readOrdinal(in, directions));
+            data.setStyle(readOrdinal(in, edgeStyles));
+            data.setColor(Palette.argb(in.readInt()));
+            edgeData.add(data);
+        }
+
+        try {
+            return new Subgraph(nodeData.toArray(new NodeData[0]), edgeData.toArray(new EdgeData[0]),
+                    Arrays.copyOf(edgeEndpoints, 2 * numEdges));
+        } catch (IllegalArgumentException e) {
+            throw new StreamCorruptedException(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a Subgraph to the given writer as text in the EXTENDED format, just like a graph file. The writer is
+     * flushed, but not closed.
+     *
+     * @param subgraph The Subgraph to write.
+     * @param writer The Writer to write to.
+     * @throws IOException If the writer fails to write for whatever reason.
+     */
+    public static void writeSubgraph(Subgraph subgraph, Writer writer) throws IOException {
+        List<Node> nodes = new ArrayList<>(subgraph.getNodeCount());
+        List<Edge> edges = new ArrayList<>(subgraph.getEdgeCount());
+        subgraph.instantiate(0, 0, nodes, edges);
+        Graph graph = new Graph();
+        graph.addAll(nodes, edges);
+
+        BufferedWriter bufferedWriter = new BufferedWriter(writer, IO_BUFFER_SIZE);
+        writeGraph(graph, bufferedWriter);
+        bufferedWriter.flush();
+    }
+
+    /**
+     * Reads a Subgraph from text in either the EXTENDED or NON-EXTENDED format, just like a graph file. The start and
+     * goal nodes are ignored.
+     *
+     * @param reader The Reader to read from.
+     * @param resolveFonts Whether fonts that are not installed should be replaced by the default font.
+     * @return The Subgraph that was read.
+     * @throws IOException If the reader fails to read, or doesn't contain a valid graph.
+     */
+    public static Subgraph readSubgraph(Reader reader, boolean resolveFonts) throws IOException {
+        Graph graph = new Graph();
+        try {
+            loadGraphFromEitherFormat(graph, new BufferedReader(reader, IO_BUFFER_SIZE), resolveFonts);
+        } catch (RuntimeException e) {
+            //NOTE: Text can come from anywhere, so anything that doesn't parse is simply not a graph.
+            throw new StreamCorruptedException("Not a graph: " + e.getMessage());
+        }
+        return new Subgraph(graph.getNodes(), graph.getEdges());
+    }
+
     /**
      * Presents a dialog to the user where they can choose which file to save their graph to.
      *
@@ -160,7 +414,8 @@ public final class GraphIO {
         JFileChooser chooser = new JFileChooser();
         chooser.setCurrentDirectory(new File(startDirectory));
         chooser.setDialogTitle("Choose a graph-file to load");
-        chooser.setFileFilter(new FileNameExtensionFilter("Graph files", "graph"));
+        chooser.setFileFilter(new FileNameExtensionFilter("Graph files",
+                GRAPH_EXTENSION, GZIP_EXTENSION, BLOCK_COMPRESSED_EXTENSION));
         chooser.setAcceptAllFileFilterUsed(false);
 
         if (chooser.showOpenDialog(null) == JFileChooser.APPROVE_OPTION)
@@ -223,25 +478,89 @@ public final class GraphIO {
     /**
      * @param filepath A path to a file.
      * @return The filename pointed to by the given file path, without the file extension. E.g. "dir/file.graph" -> "file".
+     * A trailing gzip extension is stripped along with the extension in front of it. E.g. "dir/file.graph.gz" -> "file".
      */
     public static String getFilenameWithoutExtension(String filepath) {
         String filename = new File(filepath).getName();
+        if (getFileExtension(filename).equals(GZIP_EXTENSION))
+            filename = filename.substring(0, filename.length() - GZIP_EXTENSION.length() - 1);
         int extensionStart = filename.lastIndexOf('.');
         if (extensionStart <= 0)
             return filename;
         return filename.substring(0, extensionStart);
     }
 
+    /**
+     * @param filepath A path to a file.
+     * @return Whether the file path has one of the extensions that graphs are saved with, i.e. ".graph", ".graph.gz", or ".graphz".
+     */
+    public static boolean isGraphFile(String filepath) {
+        String extension = getFileExtension(filepath);
+        if (extension.equals(GZIP_EXTENSION))
+            extension = getFileExtension(filepath.substring(0, filepath.length() - GZIP_EXTENSION.length() - 1));
+        return extension.equals(GRAPH_EXTENSION) || extension.equals(BLOCK_COMPRESSED_EXTENSION);
+    }
+
+    /**
+     * Opens a file for writing, compressing everything written to it according to the file extension: gzip for
+     * ".gz" files, block-compression for ".graphz" files, and no compression otherwise.
+     *
+     * @param filepath A path to the file to write to.
+     * @return A buffered OutputStream writing to the file.
+     * @throws IOException If the file could not be opened.
+     */
+    private static OutputStream openOutputStream(String filepath) throws IOException {
+        OutputStream out = new FileOutputStream(filepath);
+        String extension = getFileExtension(filepath);
+        try {
+            if (extension.equals(GZIP_EXTENSION))
+                return new GZIPOutputStream(out, IO_BUFFER_SIZE);
+            if (extension.equals(BLOCK_COMPRESSED_EXTENSION))
+                return new BlockCompressedOutputStream(out);
+            return new BufferedOutputStream(out, IO_BUFFER_SIZE);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file for reading, transparently decompressing it if it starts with either the gzip magic number or the
+     * block-compressed magic. The extension is deliberately ignored, so a renamed file is still loaded correctly.
+     *
+     * @param filepath A path to the file to read from.
+     * @return A buffered InputStream of the (uncompressed) file contents.
+     * @throws IOException If the file could not be opened or if its compression header is corrupt.
+     */
+    private static InputStream openInputStream(String filepath) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(filepath), IO_BUFFER_SIZE);
+        try {
+            byte[] header = new byte[BlockCompressedOutputStream.MAGIC.length];
+            in.mark(header.length);
+            int headerLength = in.read(header);
+            in.reset();
+
+            if (headerLength >= 2 && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B)
+                return new GZIPInputStream(in, IO_BUFFER_SIZE);
+            if (headerLength == header.length && BlockCompressedInputStream.hasMagic(header))
+                return new BlockCompressedInputStream(in);
+            return in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
     /**
      * Writes all the Fonts, Nodes, and Edges from a given GraphModel to a given file stream in the EXTENDED format.
      * The index of the "start" and "goal" Nodes of the graph are also written. The file resulting from this operation
      * is only be valid if the file being written to is completely empty before calling this function.
      *
      * @param graph The GraphModel whose Fonts, Nodes, and Edges to write.
-     * @param writer The FileWriter to which data will be written to.
+     * @param writer The Writer to which data will be written to.
      * @throws IOException If the writer fails to write for whatever reason.
      */
-    private static void writeGraph(Graph graph, FileWriter writer) throws IOException {
+    private static void writeGraph(Graph graph, Writer writer) throws IOException {
         List<Node> nodes = graph.getNodes();
         List<Edge> edges = graph.getEdges();
 
@@ -255,12 +574,17 @@ public final class GraphIO {
         writer.write(String.format("%d %d %d\n", nodes.size(), edges.size(), fonts.length));
         writeFonts(fonts, writer);
         writeNodes(nodes, fonts, writer);
-        writeEdges(nodes, edges, writer);
+
+        //NOTE: Look Node indices up in a map - searching the Node list for every Edge is quadratic in the graph size.
+        Map<Node, Integer> nodeIndices = new IdentityHashMap<>(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i)
+            nodeIndices.put(nodes.get(i), i);
+        writeEdges(nodeIndices, edges, writer);
 
         Node start = graph.getStartNode();
         Node goal = graph.getGoalNode();
-        int startIndex = start != null ? nodes.indexOf(start) : -1;
-        int goalIndex = goal != null ? nodes.indexOf(goal) : -1;
+        int startIndex = start != null ? nodeIndices.get(start) : -1;
+        int goalIndex = goal != null ? nodeIndices.get(goal) : -1;
         writer.write(String.format("%d %d", startIndex, goalIndex));
     }
 
@@ -268,10 +592,10 @@ public final class GraphIO {
      * Writes a given array of Fonts to a given file stream in the EXTENDED format.
      *
      * @param fonts The array of Fonts to write to the file.
-     * @param writer The FileWriter to which the Font data will be written to.
+     * @param writer The Writer to which the Font data will be written to.
      * @throws IOException If the writer fails to write for whatever reason.
      */
-    private static void writeFonts(Font[] fonts, FileWriter writer) throws IOException {
+    private static void writeFonts(Font[] fonts, Writer writer) throws IOException {
         for (Font font : fonts) {
             writer.write(String.format("%d %d %s\n",
                     font.getStyle(), font.getSize(), font.getName()));
@@ -283,10 +607,10 @@ public final class GraphIO {
      *
      * @param nodes The List of Nodes to write to the file.
      * @param fonts An array of Fonts used by all Nodes.
-     * @param writer The FileWriter to which the Node data will be written to.
+     * @param writer The Writer to which the Node data will be written to.
      * @throws IOException If the writer fails to write for whatever reason.
      */
-    private static void writeNodes(List<Node> nodes, Font[] fonts, FileWriter writer) throws IOException {
+    private static void writeNodes(List<Node> nodes, Font[] fonts, Writer writer) throws IOException {
         for (Node node : nodes) {
             Rectangle2D bounds = node.getActualBounds();
             int fillRGB = node.getActualFillColor().getRGB();
@@ -302,17 +626,15 @@ public final class GraphIO {
     /**
      * Writes a given List of Edges from a GraphModel to a given file stream in the EXTENDED format.
      *
-     * @param nodes The List of Nodes that the Edges to write might connect to.
+     * @param nodeIndices The index of every Node that the Edges to write might connect to.
      * @param edges The List of Edges to write to the file.
-     * @param writer A FileWriter to which the Edge data will be written to.
+     * @param writer A Writer to which the Edge data will be written to.
      * @throws IOException If the writer fails to write for whatever reason.
      */
-    private static void writeEdges(List<Node> nodes, List<Edge> edges, FileWriter writer) throws IOException {
+    private static void writeEdges(Map<Node, Integer> nodeIndices, List<Edge> edges, Writer writer) throws IOException {
         for (Edge edge : edges) {
-            Node node1 = edge.getNode1();
-            Node node2 = edge.getNode2();
-            int indexNode1 = nodes.indexOf(node1);
-            int indexNode2 = nodes.indexOf(node2);
+            int indexNode1 = nodeIndices.get(edge.getNode1());
+            int indexNode2 = nodeIndices.get(edge.getNode2());
             double weight = edge.getActualWeight();
             double weightX = edge.getActualWeightPoint().getX();
             double weightY = edge.getActualWeightPoint().getY();
@@ -324,15 +646,40 @@ public final class GraphIO {
         }
     }
 
+    /**
+     * Initializes the Nodes and Edges of a given GraphModel with the data from a given BufferedReader, which may read
+     * either EXTENDED or NON-EXTENDED format graph data.
+     *
+     * @param graph The GraphModel whose data to set using the data read from the reader.
+     * @param reader The BufferedReader of a graph data-stream.
+     * @param resolveFonts Whether fonts that are not installed should be replaced by the default font.
+     * @throws IOException If the reader fails to read a line, or is empty.
+     */
+    private static void loadGraphFromEitherFormat(Graph graph, BufferedReader reader, boolean resolveFonts)
+            throws IOException {
+        reader.mark(1024);
+        String firstLine = reader.readLine();
+        reader.reset();
+
+        if (firstLine == null)
+            throw new EOFException("The file is empty");
+        if (firstLine.equals("#extended format"))
+            loadGraphFromExtendedFormat(graph, reader, resolveFonts);
+        else
+            loadGraphFromNonExtendedFormat(graph, reader);
+    }
+
     /**
      * Initializes the Nodes and Edges of a given GraphModel with the data from a given BufferedReader. The buffered
      * reader is assumed to read EXTENDED format graph data.
      *
      * @param graph The GraphModel whose data to set using the data read from the reader.
      * @param reader The BufferedReader of an EXTENDED format data-stream.
+     * @param resolveFonts Whether fonts that are not installed should be replaced by the default font.
      * @throws IOException If the reader fails to read a line.
      */
-    private static void loadGraphFromExtendedFormat(Graph graph, BufferedReader reader) throws IOException {
+    private static void loadGraphFromExtendedFormat(Graph graph, BufferedReader reader, boolean resolveFonts)
+            throws IOException {
         reader.readLine(); // Skip the initial header '#extended format' - just assume it's there.
 
         String[] sizeStrings = reader.readLine().split(" ");
@@ -342,15 +689,19 @@ public final class GraphIO {
 
         Font[] fonts = new Font[numFonts];
         for (int i = 0; i < numFonts; ++i)
-            fonts[i] = parseFontExtended(reader.readLine());
+            fonts[i] = parseFontExtended(reader.readLine(), resolveFonts);
 
-        graph.clear();
-        for (int i = 0; i < numNodes; ++i)
-            graph.add(parseNodeExtended(fonts, reader.readLine()));
-        for (int i = 0; i < numEdges; ++i)
-            graph.add(parseEdgeExtended(graph.getNodes(), reader.readLine()));
+        //NOTE: Once the header is known every Node and Edge line can be parsed independently of the others, so they are
+        // parsed in parallel straight into pre-sized arrays. Edges only need their Nodes to exist, so all Nodes have to
+        // be finished before the first Edge is parsed.
+        Node[] nodeArray = new Node[numNodes];
+        Edge[] edgeArray = new Edge[numEdges];
+        parseLinesInParallel(reader, nodeArray, line -> parseNodeExtended(fonts, line));
+        List<Node> nodes = Arrays.asList(nodeArray);
+        parseLinesInParallel(reader, edgeArray, line -> parseEdgeExtended(nodes, line));
 
-        List<Node> nodes = graph.getNodes();
+        graph.clear();
+        graph.addAll(nodes, Arrays.asList(edgeArray));
 
         String[] startAndGoalStrings = reader.readLine().split(" ");
         int startIndex = Integer.parseInt(startAndGoalStrings[0]);
@@ -361,6 +712,70 @@ public final class GraphIO {
             graph.setGoalNode(nodes.get(goalIndex));
     }
 
+    /**
+     * Reads exactly out.length lines from the given reader and parses every line into the matching slot of the given
+     * array. Lines are read sequentially in line-aligned chunks of PARSE_CHUNK_SIZE lines, and each chunk is handed off
+     * to the fork-join pool to be parsed while the next chunk is being read. Small inputs that fit into a single chunk
+     * are simply parsed on the calling thread. This method only returns once every line has been parsed. If reading or
+     * parsing fails, no further chunks are read, the chunks that haven't started yet are skipped and the ones being
+     * parsed are waited for, so that nothing is written into the array anymore once this method threw.
+     *
+     * @param reader The BufferedReader from which the lines are read.
+     * @param out The pre-sized array into which the parsed objects are stored - one for every line.
+     * @param parser The Getter used to parse a single line into an object. It will be called from multiple threads.
+     * @param <T> The type of object that each line is parsed into.
+     * @throws IOException If the reader fails to read a line, or if the stream ends before all lines could be read.
+     */
+    private static <T> void parseLinesInParallel(BufferedReader reader, T[] out, Getter<String, T> parser) throws IOException {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        AtomicBoolean hasFailed = new AtomicBoolean();
+        boolean isParsed = false;
+
+        try {
+            for (int chunkStart = 0; chunkStart < out.length && !hasFailed.get(); chunkStart += PARSE_CHUNK_SIZE) {
+                String[] lines = new String[Math.min(PARSE_CHUNK_SIZE, out.length - chunkStart)];
+                for (int i = 0; i < lines.length; ++i) {
+                    lines[i] = reader.readLine();
+                    if (lines[i] == null)
+                        throw new EOFException("File ended before all nodes and edges could be read.");
+                }
+
+                int offset = chunkStart;
+                Runnable parseChunk = () -> {
+                    if (hasFailed.get())
+                        return;
+                    try {
+                        for (int i = 0; i < lines.length; ++i) {
+                            out[offset + i] = parser.get(lines[i]);
+                            //NOTE: Let the line be collected right away, huge files don't fit in memory twice.
+                            lines[i] = null;
+                        }
+                    } catch (RuntimeException e) {
+                        hasFailed.set(true);
+                        throw e;
+                    }
+                };
+
+                if (out.length <= PARSE_CHUNK_SIZE)
+                    parseChunk.run();
+                else
+                    tasks.add(ForkJoinPool.commonPool().submit(parseChunk));
+            }
+
+            for (ForkJoinTask<?> task : tasks)
+                task.join();
+            isParsed = true;
+        } finally {
+            //NOTE: ForkJoinTask.cancel() neither stops a chunk that is already being parsed nor waits for it - so the
+            // chunks skip themselves instead, and every one of them is waited for.
+            if (!isParsed) {
+                hasFailed.set(true);
+                for (ForkJoinTask<?> task : tasks)
+                    task.quietlyJoin();
+            }
+        }
+    }
+
     /**
      * Initializes the Nodes and Edges of a given GraphModel with the data from a given BufferedReader. The buffered
      * reader is assumed to read NON-EXTENDED graph data, and will initialize the graph with default values for Nodes
@@ -403,9 +818,9 @@ public final class GraphIO {
         int fontIndex = Integer.parseInt(splitData[8]);
         String name = splitData[9];
 
-        Color fillColor = new Color(fillRGB);
-        Color borderColor = new Color(borderRGB);
-        Color textColor = new Color(textRGB);
+        Color fillColor = Palette.rgb(fillRGB);
+        Color borderColor = Palette.rgb(borderRGB);
+        Color textColor = Palette.rgb(textRGB);
         Font font = fonts[fontIndex];
 
         return new Node(name, x, y, width, height, style, fillColor, borderColor, textColor, font);
@@ -429,7 +844,7 @@ public final class GraphIO {
         EdgeDirection direction = EdgeDirection.valueOf(splitData[5]);
         EdgeStyle style = EdgeStyle.valueOf(splitData[6]);
         int colorRGB = (int)Long.parseLong(splitData[7], 16);
-        Color color = new Color(colorRGB);
+        Color color = Palette.rgb(colorRGB);
         Edge edge = new Edge(nodes.get(node1Index), nodes.get(node2Index), weight, direction, style, color);
         edge.moveActualWeightPointTo(weightX, weightY);
         return edge;
@@ -437,17 +852,18 @@ public final class GraphIO {
 
     /**
      * @param fontData The String containing Font data in the extended-format that should be parsed.
-     * @return The Font resulting from parsing the given extended format String. If the system does not have the font a default Font is returned.
+     * @param resolveFonts Whether to check if the system has the font at all.
+     * @return The Font resulting from parsing the given extended format String. If fonts are resolved and the system does not have the font a default Font is returned.
      */
-    private static Font parseFontExtended(String fontData) {
+    private static Font parseFontExtended(String fontData, boolean resolveFonts) {
         String[] splitData = fontData.split(" ", 3);
         int style = Integer.parseInt(splitData[0]);
         int size = Integer.parseInt(splitData[1]);
         String name = splitData[2];
-        if (TextUtil.fontExists(name))
-            return new Font(name, style, size);
+        if (!resolveFonts || TextUtil.fontExists(name))
+            return Palette.font(name, style, size);
         else
-            return new Font(Font.DIALOG, style, size);
+            return Palette.font(Font.DIALOG, style, size);
     }
 
     /**
@@ -477,6 +893,65 @@ public final class GraphIO {
         return new Edge(nodes.get(node1Index), nodes.get(node2Index));
     }
 
+    /**
+     * @param out The stream to write to.
+     * @param string The String to write as UTF-8, preceded by its length in bytes.
+     * @throws IOException If the stream fails to write, or the String is longer than MAX_STRING_LENGTH bytes.
+     */
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        //NOTE: Not writeUTF(), which can't write Strings longer than 64KB.
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH)
+            throw new IOException("String of " + bytes.length + " bytes is too long to write");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @param in The stream to read from.
+     * @return The String read from the stream, as written by writeString().
+     * @throws IOException If the stream fails to read, or the length is invalid.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readCount(in);
+        if (length > MAX_STRING_LENGTH)
+            throw new StreamCorruptedException("String length " + length + " out of range");
+
+        //NOTE: Read in chunks, so that only as many bytes are allocated as the stream actually contains.
+        byte[] bytes = new byte[Math.min(length, IO_BUFFER_SIZE)];
+        for (int read = 0; read < length; read += IO_BUFFER_SIZE) {
+            if (read == bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.min(length, 2 * bytes.length));
+            in.readFully(bytes, read, Math.min(length - read, IO_BUFFER_SIZE));
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param in The stream to read from.
+     * @return The count read from the stream.
+     * @throws IOException If the stream fails to read, or the count is negative.
+     */
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new StreamCorruptedException("Negative count " + count);
+        return count;
+    }
+
+    /**
+     * @param in The stream to read from.
+     * @param values All constants of an enum.
+     * @return The constant whose ordinal is read from the stream.
+     * @throws IOException If the stream fails to read, or the ordinal is out of range.
+     */
+    private static <T extends Enum<T>> T readOrdinal(DataInputStream in, T[] values) throws IOException {
+        int index = in.readUnsignedByte();
+        if (index >= values.length)
+            throw new StreamCorruptedException("Index " + index + " out of range");
+        return values[index];
+    }
+
     /**
      * This class contains only static methods and fields and should never be instantiated.
      */
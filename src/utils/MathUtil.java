@@ -3,14 +3,19 @@ package utils;
 import java.awt.Color;
 import java.awt.geom.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * @version 999.0
+ * @version 999.2
 *
  * This class contains a bunch of useful mathematical operations on scalars, Points, Lines, Rectangles, and other Shapes
  * as well as Colors.
  *
+ * The hit tests on bezier curves subdivide the curves on plain coordinates instead of curve objects, so that testing
+ * many curves, e.g. while hovering or dragging a selection rectangle, doesn't allocate anything per subdivision. Paths
+ * can also be flattened into polylines of packed floats, which can be tested again and again without subdividing.
+ *
  * @see Rectangle2D
  * @see Line2D
  * @see Point2D
@@ -415,16 +420,8 @@ public final class MathUtil {
      * @return Whether the given rectangle intersects the given quadratic bezier curve.
      */
     public static boolean intersects(QuadCurve2D curve, Rectangle2D rect, double threshold) {
-        Line2D line = new Line2D.Double(curve.getP1(), curve.getP2());
-        if (length(line) < threshold)
-            return line.intersects(rect);
-        else if (curve.intersects(rect)) {
-            QuadCurve2D left = new QuadCurve2D.Double();
-            QuadCurve2D right = new QuadCurve2D.Double();
-            curve.subdivide(left, right);
-            return intersects(left, rect, threshold) || intersects(right, rect, threshold);
-        } else
-            return false;
+        return intersectsQuad(rect, curve.getX1(), curve.getY1(), curve.getCtrlX(), curve.getCtrlY(),
+                curve.getX2(), curve.getY2(), threshold);
     }
 
     /**
@@ -434,16 +431,67 @@ public final class MathUtil {
      * @return Whether the given rectangle intersects the given cubic bezier curve.
      */
     public static boolean intersects(CubicCurve2D curve, Rectangle2D rect, double threshold) {
-        Line2D line = new Line2D.Double(curve.getP1(), curve.getP2());
-        if (length(line) < threshold)
-            return line.intersects(rect);
-        else if (curve.intersects(rect)) {
-            CubicCurve2D left = new CubicCurve2D.Double();
-            CubicCurve2D right = new CubicCurve2D.Double();
-            curve.subdivide(left, right);
-            return intersects(left, rect, threshold) || intersects(right, rect, threshold);
-        } else
+        return intersectsCubic(rect, curve.getX1(), curve.getY1(), curve.getCtrlX1(), curve.getCtrlY1(),
+                curve.getCtrlX2(), curve.getCtrlY2(), curve.getX2(), curve.getY2(), threshold);
+    }
+
+    /**
+     * The same as intersects(QuadCurve2D, Rectangle2D, double), but on the coordinates of the curve, so that
+     * subdividing it doesn't allocate anything.
+     *
+     * @return Whether the given rectangle intersects the quadratic bezier curve with the given coordinates.
+     */
+    public static boolean intersectsQuad(Rectangle2D rect, double x1, double y1, double ctrlX, double ctrlY,
+                                         double x2, double y2, double threshold) {
+        if (Point2D.distance(x1, y1, x2, y2) < threshold)
+            return rect.intersectsLine(x1, y1, x2, y2);
+
+        //NOTE: The curve lies within the bounds of its control points, so it can't intersect if they don't.
+        if (!intersectsBounds(rect, Math.min(x1, Math.min(ctrlX, x2)), Math.min(y1, Math.min(ctrlY, y2)),
+                Math.max(x1, Math.max(ctrlX, x2)), Math.max(y1, Math.max(ctrlY, y2))))
+            return false;
+
+        double leftCtrlX = (x1 + ctrlX) / 2;
+        double leftCtrlY = (y1 + ctrlY) / 2;
+        double rightCtrlX = (ctrlX + x2) / 2;
+        double rightCtrlY = (ctrlY + y2) / 2;
+        double midX = (leftCtrlX + rightCtrlX) / 2;
+        double midY = (leftCtrlY + rightCtrlY) / 2;
+        return intersectsQuad(rect, x1, y1, leftCtrlX, leftCtrlY, midX, midY, threshold)
+                || intersectsQuad(rect, midX, midY, rightCtrlX, rightCtrlY, x2, y2, threshold);
+    }
+
+    /**
+     * The same as intersects(CubicCurve2D, Rectangle2D, double), but on the coordinates of the curve, so that
+     * subdividing it doesn't allocate anything.
+     *
+     * @return Whether the given rectangle intersects the cubic bezier curve with the given coordinates.
+     */
+    public static boolean intersectsCubic(Rectangle2D rect, double x1, double y1, double ctrlX1, double ctrlY1,
+                                          double ctrlX2, double ctrlY2, double x2, double y2, double threshold) {
+        if (Point2D.distance(x1, y1, x2, y2) < threshold)
+            return rect.intersectsLine(x1, y1, x2, y2);
+
+        //NOTE: The curve lies within the bounds of its control points, so it can't intersect if they don't.
+        if (!intersectsBounds(rect,
+                Math.min(Math.min(x1, ctrlX1), Math.min(ctrlX2, x2)), Math.min(Math.min(y1, ctrlY1), Math.min(ctrlY2, y2)),
+                Math.max(Math.max(x1, ctrlX1), Math.max(ctrlX2, x2)), Math.max(Math.max(y1, ctrlY1), Math.max(ctrlY2, y2))))
             return false;
+
+        double centerX = (ctrlX1 + ctrlX2) / 2;
+        double centerY = (ctrlY1 + ctrlY2) / 2;
+        double leftCtrlX1 = (x1 + ctrlX1) / 2;
+        double leftCtrlY1 = (y1 + ctrlY1) / 2;
+        double rightCtrlX2 = (x2 + ctrlX2) / 2;
+        double rightCtrlY2 = (y2 + ctrlY2) / 2;
+        double leftCtrlX2 = (leftCtrlX1 + centerX) / 2;
+        double leftCtrlY2 = (leftCtrlY1 + centerY) / 2;
+        double rightCtrlX1 = (rightCtrlX2 + centerX) / 2;
+        double rightCtrlY1 = (rightCtrlY2 + centerY) / 2;
+        double midX = (leftCtrlX2 + rightCtrlX1) / 2;
+        double midY = (leftCtrlY2 + rightCtrlY1) / 2;
+        return intersectsCubic(rect, x1, y1, leftCtrlX1, leftCtrlY1, leftCtrlX2, leftCtrlY2, midX, midY, threshold)
+                || intersectsCubic(rect, midX, midY, rightCtrlX1, rightCtrlY1, rightCtrlX2, rightCtrlY2, x2, y2, threshold);
     }
 
     /**
@@ -483,22 +531,19 @@ public final class MathUtil {
                     y1 = moveY;
                     // fallthrough (no break)
                 case PathIterator.SEG_LINETO:
-                    Line2D line = new Line2D.Double(lastX, lastY, x1, y1);
-                    if (line.intersects(rect))
+                    if (rect.intersectsLine(lastX, lastY, x1, y1))
                         return true;
                     lastX = x1;
                     lastY = y1;
                     break;
                 case PathIterator.SEG_QUADTO:
-                    QuadCurve2D quadBezier = new QuadCurve2D.Double(lastX, lastY, x1, y1, x2, y2);
-                    if (intersects(quadBezier, rect, threshold))
+                    if (intersectsQuad(rect, lastX, lastY, x1, y1, x2, y2, threshold))
                         return true;
                     lastX = x2;
                     lastY = y2;
                     break;
                 case PathIterator.SEG_CUBICTO:
-                    CubicCurve2D cubicBezier = new CubicCurve2D.Double(lastX, lastY, x1, y1, x2, y2, x3, y3);
-                    if (intersects(cubicBezier, rect, threshold))
+                    if (intersectsCubic(rect, lastX, lastY, x1, y1, x2, y2, x3, y3, threshold))
                         return true;
                     lastX = x3;
                     lastY = y3;
@@ -518,24 +563,8 @@ public final class MathUtil {
      * @return Whether the given rectangle completely encloses the given quadratic bezier curve.
      */
     public static boolean contains(Rectangle2D rect, QuadCurve2D curve, double threshold) {
-        if (rect.contains(curve.getBounds2D()))
-            return true;
-
-        Point2D p1 = curve.getP1();
-        Point2D p2 = curve.getP2();
-
-        if (rect.contains(p1) && rect.contains(p2)) {
-            Line2D line = new Line2D.Double(p1, p2);
-            if (length(line) < threshold)
-                return true;
-            else {
-                QuadCurve2D left = new QuadCurve2D.Double();
-                QuadCurve2D right = new QuadCurve2D.Double();
-                curve.subdivide(left, right);
-                return contains(rect, left, threshold) && contains(rect, right, threshold);
-            }
-        } else
-            return false;
+        return containsQuad(rect, curve.getX1(), curve.getY1(), curve.getCtrlX(), curve.getCtrlY(),
+                curve.getX2(), curve.getY2(), threshold);
     }
 
     /**
@@ -545,24 +574,72 @@ public final class MathUtil {
      * @return Whether the given rectangle completely encloses the given cubic bezier curve.
      */
     public static boolean contains(Rectangle2D rect, CubicCurve2D curve, double threshold) {
-        if (rect.contains(curve.getBounds2D()))
+        return containsCubic(rect, curve.getX1(), curve.getY1(), curve.getCtrlX1(), curve.getCtrlY1(),
+                curve.getCtrlX2(), curve.getCtrlY2(), curve.getX2(), curve.getY2(), threshold);
+    }
+
+    /**
+     * The same as contains(Rectangle2D, QuadCurve2D, double), but on the coordinates of the curve, so that
+     * subdividing it doesn't allocate anything.
+     *
+     * @return Whether the given rectangle completely encloses the quadratic bezier curve with the given coordinates.
+     */
+    public static boolean containsQuad(Rectangle2D rect, double x1, double y1, double ctrlX, double ctrlY,
+                                       double x2, double y2, double threshold) {
+        double minX = Math.min(x1, Math.min(ctrlX, x2));
+        double minY = Math.min(y1, Math.min(ctrlY, y2));
+        if (rect.contains(minX, minY, Math.max(x1, Math.max(ctrlX, x2)) - minX,
+                Math.max(y1, Math.max(ctrlY, y2)) - minY))
             return true;
 
-        Point2D p1 = curve.getP1();
-        Point2D p2 = curve.getP2();
+        if (!rect.contains(x1, y1) || !rect.contains(x2, y2))
+            return false;
+        if (Point2D.distance(x1, y1, x2, y2) < threshold)
+            return true;
 
-        if (rect.contains(p1) && rect.contains(p2)) {
-            Line2D line = new Line2D.Double(p1, p2);
-            if (length(line) < threshold)
-                return true;
-            else {
-                CubicCurve2D left = new CubicCurve2D.Double();
-                CubicCurve2D right = new CubicCurve2D.Double();
-                curve.subdivide(left, right);
-                return contains(rect, left, threshold) && contains(rect, right, threshold);
-            }
-        } else
+        double leftCtrlX = (x1 + ctrlX) / 2;
+        double leftCtrlY = (y1 + ctrlY) / 2;
+        double rightCtrlX = (ctrlX + x2) / 2;
+        double rightCtrlY = (ctrlY + y2) / 2;
+        double midX = (leftCtrlX + rightCtrlX) / 2;
+        double midY = (leftCtrlY + rightCtrlY) / 2;
+        return containsQuad(rect, x1, y1, leftCtrlX, leftCtrlY, midX, midY, threshold)
+                && containsQuad(rect, midX, midY, rightCtrlX, rightCtrlY, x2, y2, threshold);
+    }
+
+    /**
+     * The same as contains(Rectangle2D, CubicCurve2D, double), but on the coordinates of the curve, so that
+     * subdividing it doesn't allocate anything.
+     *
+     * @return Whether the given rectangle completely encloses the cubic bezier curve with the given coordinates.
+     */
+    public static boolean containsCubic(Rectangle2D rect, double x1, double y1, double ctrlX1, double ctrlY1,
+                                        double ctrlX2, double ctrlY2, double x2, double y2, double threshold) {
+        double minX = Math.min(Math.min(x1, ctrlX1), Math.min(ctrlX2, x2));
+        double minY = Math.min(Math.min(y1, ctrlY1), Math.min(ctrlY2, y2));
+        if (rect.contains(minX, minY, Math.max(Math.max(x1, ctrlX1), Math.max(ctrlX2, x2)) - minX,
+                Math.max(Math.max(y1, ctrlY1), Math.max(ctrlY2, y2)) - minY))
+            return true;
+
+        if (!rect.contains(x1, y1) || !rect.contains(x2, y2))
             return false;
+        if (Point2D.distance(x1, y1, x2, y2) < threshold)
+            return true;
+
+        double centerX = (ctrlX1 + ctrlX2) / 2;
+        double centerY = (ctrlY1 + ctrlY2) / 2;
+        double leftCtrlX1 = (x1 + ctrlX1) / 2;
+        double leftCtrlY1 = (y1 + ctrlY1) / 2;
+        double rightCtrlX2 = (x2 + ctrlX2) / 2;
+        double rightCtrlY2 = (y2 + ctrlY2) / 2;
+        double leftCtrlX2 = (leftCtrlX1 + centerX) / 2;
+        double leftCtrlY2 = (leftCtrlY1 + centerY) / 2;
+        double rightCtrlX1 = (rightCtrlX2 + centerX) / 2;
+        double rightCtrlY1 = (rightCtrlY2 + centerY) / 2;
+        double midX = (leftCtrlX2 + rightCtrlX1) / 2;
+        double midY = (leftCtrlY2 + rightCtrlY1) / 2;
+        return containsCubic(rect, x1, y1, leftCtrlX1, leftCtrlY1, leftCtrlX2, leftCtrlY2, midX, midY, threshold)
+                && containsCubic(rect, midX, midY, rightCtrlX1, rightCtrlY1, rightCtrlX2, rightCtrlY2, x2, y2, threshold);
     }
 
     /**
@@ -602,22 +679,19 @@ public final class MathUtil {
                     y1 = moveY;
                     // fallthrough (no break)
                 case PathIterator.SEG_LINETO:
-                    Line2D line = new Line2D.Double(lastX, lastY, x1, y1);
-                    if (!rect.contains(line.getP1()) || !rect.contains(line.getP2()))
+                    if (!rect.contains(lastX, lastY) || !rect.contains(x1, y1))
                         return false;
                     lastX = x1;
                     lastY = y1;
                     break;
                 case PathIterator.SEG_QUADTO:
-                    QuadCurve2D quadBezier = new QuadCurve2D.Double(lastX, lastY, x1, y1, x2, y2);
-                    if (!contains(rect, quadBezier, threshold))
+                    if (!containsQuad(rect, lastX, lastY, x1, y1, x2, y2, threshold))
                         return false;
                     lastX = x2;
                     lastY = y2;
                     break;
                 case PathIterator.SEG_CUBICTO:
-                    CubicCurve2D cubicBezier = new CubicCurve2D.Double(lastX, lastY, x1, y1, x2, y2, x3, y3);
-                    if (!contains(rect, cubicBezier, threshold))
+                    if (!containsCubic(rect, lastX, lastY, x1, y1, x2, y2, x3, y3, threshold))
                         return false;
                     lastX = x3;
                     lastY = y3;
@@ -630,6 +704,93 @@ public final class MathUtil {
         return true;
     }
 
+    /**
+     * Flattens a path into a polyline, whose points are packed into a float array as x, y pairs. Where the path starts
+     * a new subpath, a pair of NaNs separates it from the previous one.
+     *
+     * @param path The Path2D to flatten.
+     * @param flatness The maximum distance between the path and the polyline.
+     * @return The points of the polyline.
+     */
+    public static float[] flatten(Path2D path, double flatness) {
+        PathIterator iterator = path.getPathIterator(null, flatness);
+        float[] coords = new float[6];
+        float[] points = new float[32];
+        int length = 0;
+
+        float moveX = 0;
+        float moveY = 0;
+
+        while (!iterator.isDone()) {
+            int segType = iterator.currentSegment(coords);
+            if (length + 4 > points.length)
+                points = Arrays.copyOf(points, 2 * points.length);
+
+            switch (segType) {
+                case PathIterator.SEG_MOVETO:
+                    if (length > 0) {
+                        points[length++] = Float.NaN;
+                        points[length++] = Float.NaN;
+                    }
+                    moveX = coords[0];
+                    moveY = coords[1];
+                    points[length++] = moveX;
+                    points[length++] = moveY;
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    points[length++] = moveX;
+                    points[length++] = moveY;
+                    break;
+                default: //NOTE: A flattened path only contains lines.
+                    points[length++] = coords[0];
+                    points[length++] = coords[1];
+                    break;
+            }
+
+            iterator.next();
+        }
+
+        return Arrays.copyOf(points, length);
+    }
+
+    /**
+     * @param polyline The points of a polyline as x, y pairs, e.g. as returned by flatten().
+     * @param rect The Rectangle2D to check for intersections.
+     * @return Whether the given rectangle intersects any of the segments of the polyline.
+     */
+    public static boolean intersects(float[] polyline, Rectangle2D rect) {
+        for (int i = 2; i < polyline.length; i += 2) {
+            float x1 = polyline[i - 2];
+            float x2 = polyline[i];
+            //NOTE: A NaN separates two subpaths, so there is no segment here.
+            if (Float.isNaN(x1) || Float.isNaN(x2))
+                continue;
+            if (rect.intersectsLine(x1, polyline[i - 1], x2, polyline[i + 1]))
+                return true;
+        }
+        return polyline.length == 2 && rect.contains(polyline[0], polyline[1]);
+    }
+
+    /**
+     * @param rect The Rectangle2D to check for containment.
+     * @param polyline The points of a polyline as x, y pairs, e.g. as returned by flatten().
+     * @return Whether the given rectangle completely encloses all of the points of the polyline.
+     */
+    public static boolean contains(Rectangle2D rect, float[] polyline) {
+        for (int i = 0; i < polyline.length; i += 2) {
+            if (!Float.isNaN(polyline[i]) && !rect.contains(polyline[i], polyline[i + 1]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the given rectangle intersects the closed bounds between the given minimum and maximum.
+     */
+    private static boolean intersectsBounds(Rectangle2D rect, double minX, double minY, double maxX, double maxY) {
+        return minX <= rect.getMaxX() && maxX >= rect.getMinX() && minY <= rect.getMaxY() && maxY >= rect.getMinY();
+    }
+
     /**
      * @param line The Line2D whose *end points* to cut.
      * @param rect The Rectangle2D by which to cut out the given line.
@@ -952,7 +1113,7 @@ public final class MathUtil {
         float r = saturate(lerp(r0, r1, t));
         float g = saturate(lerp(g0, g1, t));
         float b = saturate(lerp(b0, b1, t));
-        return new Color(r, g, b);
+        return Palette.color(r, g, b, 1);
     }
 
     /**
@@ -981,7 +1142,7 @@ public final class MathUtil {
         float r = color.getRed() / 255.0f;
         float g = color.getGreen() / 255.0f;
         float b = color.getBlue() / 255.0f;
-        return new Color(r, g, b, alpha);
+        return Palette.color(r, g, b, saturate(alpha));
     }
 
     /**
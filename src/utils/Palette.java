@@ -0,0 +1,110 @@
+package utils;
+
+import java.awt.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+* @version 1.1
+ *
+ * This utility class canonicalizes Colors and Fonts, so that equal Colors and equal Fonts used across the whole model
+ * share a single instance. Colors are keyed by their ARGB value, and Fonts by their name, style and size.
+ *
+ * Every Node and Edge stores the instances returned here, so that the many Nodes and Edges of a large graph don't each
+ * hold on to a Color or Font of their own. The caches are safe to use from several threads at once, since graphs are
+ * parsed in parallel. Once a cache is full, new instances are simply not cached anymore - so an instance returned here
+ * is only canonical as long as the cache had room for it, and Colors and Fonts must still be compared with equals().
+ *
+ * @see Color
+ * @see Font
+ */
+public final class Palette {
+
+    private static final int MAX_CACHED_COLORS = 1 << 14;
+    private static final int MAX_CACHED_FONTS = 1 << 10;
+
+    private static final Map<Integer, Color> COLORS = new ConcurrentHashMap<>();
+    private static final Map<String, Font> FONTS = new ConcurrentHashMap<>();
+
+    /**
+     * @param argb The alpha, red, green and blue components of the Color packed into an int, like Color.getRGB().
+     * @return The canonical Color with the given ARGB value, or a new one if the cache is full.
+     */
+    public static Color argb(int argb) {
+        Color color = COLORS.get(argb);
+        if (color == null) {
+            color = new Color(argb, true);
+            if (COLORS.size() < MAX_CACHED_COLORS) {
+                Color existing = COLORS.putIfAbsent(argb, color);
+                if (existing != null)
+                    color = existing;
+            }
+        }
+        return color;
+    }
+
+    /**
+     * @param rgb The red, green and blue components of the Color packed into an int. The alpha bits are ignored, like
+     *            new Color(rgb) does.
+     * @return The canonical opaque Color with the given RGB value.
+     */
+    public static Color rgb(int rgb) {
+        return argb(0xff000000 | rgb);
+    }
+
+    /**
+     * @param r The red component in the range [0, 1].
+     * @param g The green component in the range [0, 1].
+     * @param b The blue component in the range [0, 1].
+     * @param a The alpha component in the range [0, 1].
+     * @return The canonical Color with the given components, rounded the same way as new Color(r, g, b, a).
+     */
+    public static Color color(float r, float g, float b, float a) {
+        return argb(((int)(a * 255 + 0.5f) << 24) | ((int)(r * 255 + 0.5f) << 16)
+                | ((int)(g * 255 + 0.5f) << 8) | (int)(b * 255 + 0.5f));
+    }
+
+    /**
+     * @param color A Color, or null.
+     * @return The canonical Color equal to the given Color, or null if the Color was null.
+     */
+    public static Color color(Color color) {
+        return color == null ? null : argb(color.getRGB());
+    }
+
+    /**
+     * @param name The name of the Font.
+     * @param style The style of the Font, e.g. Font.BOLD.
+     * @param size The point size of the Font.
+     * @return The canonical Font with the given name, style and size.
+     */
+    public static Font font(String name, int style, int size) {
+        String key = name + '\0' + style + '\0' + size;
+        Font font = FONTS.get(key);
+        if (font == null) {
+            font = new Font(name, style, size);
+            if (FONTS.size() < MAX_CACHED_FONTS) {
+                Font existing = FONTS.putIfAbsent(key, font);
+                if (existing != null)
+                    font = existing;
+            }
+        }
+        return font;
+    }
+
+    /**
+     * @param font A Font, or null.
+     * @return The canonical Font equal to the given Font, or the given Font itself if it has a fractional size or any
+     * attributes that a name, style and size can't describe.
+     */
+    public static Font font(Font font) {
+        if (font == null || font.isTransformed() || font.hasLayoutAttributes() || font.getSize2D() != font.getSize())
+            return font;
+        return font(font.getName(), font.getStyle(), font.getSize());
+    }
+
+    /**
+     * This class only contains static methods and shouldn't ever be instantiated.
+     */
+    private Palette() {}
+}
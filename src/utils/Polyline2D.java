@@ -0,0 +1,182 @@
+package utils;
+
+import java.awt.*;
+import java.awt.geom.*;
+
+/**
+* @version 1.0
+ *
+ * A Polyline2D is an immutable Shape made of straight segments between points, which are packed into a float array as
+ * x, y pairs. A pair of NaNs starts a new subpath. Polylines are what MathUtil.flatten() turns curved paths into, so
+ * that they can be drawn and hit tested again and again without flattening the curves each time.
+ *
+ * Just like a Line2D, a Polyline2D has no interior, so it never contains any point or rectangle - it can only be
+ * intersected and drawn.
+ *
+ * @see MathUtil#flatten(Path2D, double)
+ * @see Shape
+ */
+public class Polyline2D implements Shape {
+
+    private final float[] points;
+    private final float minX;
+    private final float minY;
+    private final float maxX;
+    private final float maxY;
+
+    /**
+     * Constructs a Polyline2D through the given points. The array is used as it is, and must not be changed afterwards.
+     *
+     * @param points The points of the polyline as x, y pairs.
+     */
+    public Polyline2D(float[] points) {
+        this.points = points;
+
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < points.length; i += 2) {
+            if (Float.isNaN(points[i]))
+                continue;
+            minX = Math.min(minX, points[i]);
+            minY = Math.min(minY, points[i + 1]);
+            maxX = Math.max(maxX, points[i]);
+            maxY = Math.max(maxY, points[i + 1]);
+        }
+        if (minX > maxX)
+            minX = minY = maxX = maxY = 0;
+
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * @return The points of the polyline as x, y pairs. They must not be changed.
+     */
+    public float[] getPoints() {
+        return points;
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return getBounds2D().getBounds();
+    }
+
+    @Override
+    public Rectangle2D getBounds2D() {
+        return new Rectangle2D.Float(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(Point2D p) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(double x, double y, double w, double h) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(Rectangle2D r) {
+        return false;
+    }
+
+    @Override
+    public boolean intersects(double x, double y, double w, double h) {
+        return intersects(new Rectangle2D.Double(x, y, w, h));
+    }
+
+    /**
+     * @param r The Rectangle2D to check for intersections.
+     * @return Whether the given rectangle intersects any of the segments of this polyline. Only the bounds are tested
+     * if the rectangle is nowhere near the polyline, and nothing is allocated.
+     */
+    @Override
+    public boolean intersects(Rectangle2D r) {
+        if (minX > r.getMaxX() || maxX < r.getMinX() || minY > r.getMaxY() || maxY < r.getMinY())
+            return false;
+        return MathUtil.intersects(points, r);
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform at) {
+        return new Iterator(at);
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform at, double flatness) {
+        //NOTE: A polyline is already flat.
+        return new Iterator(at);
+    }
+
+    /**
+     * Iterates over the segments of a Polyline2D, skipping the NaN pairs between subpaths.
+     */
+    private class Iterator implements PathIterator {
+
+        private final AffineTransform transform;
+        private int index;
+        private boolean isMove;
+
+        private Iterator(AffineTransform transform) {
+            this.transform = transform;
+            this.index = 0;
+            this.isMove = true;
+            skipSeparators();
+        }
+
+        @Override
+        public int getWindingRule() {
+            return WIND_NON_ZERO;
+        }
+
+        @Override
+        public boolean isDone() {
+            return index >= points.length;
+        }
+
+        @Override
+        public void next() {
+            index += 2;
+            isMove = false;
+            skipSeparators();
+        }
+
+        @Override
+        public int currentSegment(float[] coords) {
+            coords[0] = points[index];
+            coords[1] = points[index + 1];
+            if (transform != null)
+                transform.transform(coords, 0, coords, 0, 1);
+            return isMove ? SEG_MOVETO : SEG_LINETO;
+        }
+
+        @Override
+        public int currentSegment(double[] coords) {
+            coords[0] = points[index];
+            coords[1] = points[index + 1];
+            if (transform != null)
+                transform.transform(coords, 0, coords, 0, 1);
+            return isMove ? SEG_MOVETO : SEG_LINETO;
+        }
+
+        /**
+         * Skips the NaN pairs at the current index, and makes the point after them start a new subpath.
+         */
+        private void skipSeparators() {
+            while (index < points.length && Float.isNaN(points[index])) {
+                index += 2;
+                isMove = true;
+            }
+        }
+    }
+}
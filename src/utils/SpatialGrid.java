@@ -0,0 +1,258 @@
+package utils;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * @version 1.0
+ *
+ * A SpatialGrid is an immutable spatial index over the bounds of a list of items, e.g. the Nodes or Edges of a graph.
+ * The bounding box of all items is split into a uniform grid of roughly as many cells as there are items, and every
+ * item is listed in each cell that its bounds overlap. The cells are packed into two flat int arrays, so building the
+ * grid only allocates a handful of arrays no matter how many items there are.
+ *
+ * Items whose bounds would cover too many cells, like long Edges, are kept in a separate list instead that every query
+ * looks at, so that a few huge items can't blow up the size of the grid.
+ *
+ * Items are identified by their index in the list the grid was built from. The bounds are copied when the grid is
+ * built, so the grid has to be rebuilt once any item moves.
+ *
+ * @see Rectangle2D
+ */
+public class SpatialGrid<T> {
+
+    private static final int MAX_CELLS_PER_AXIS = 1024;
+    private static final int MAX_CELLS_PER_ITEM = 64;
+
+    private final Object[] items;
+    private final double[] bounds;
+    private final double originX;
+    private final double originY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStarts;
+    private final int[] cellItems;
+    private final int[] oversizedItems;
+    private final int[] visitStamps;
+    private int stamp;
+
+    /**
+     * Builds a SpatialGrid over the given items.
+     *
+     * @param items The items to index.
+     * @param boundsOf Gets the bounds of an item.
+     */
+    public SpatialGrid(List<T> items, Function<T, Rectangle2D> boundsOf) {
+        int count = items.size();
+        this.items = items.toArray();
+        this.bounds = new double[4 * count];
+        this.visitStamps = new int[count];
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; ++i) {
+            @SuppressWarnings("unchecked")
+            Rectangle2D rect = boundsOf.apply((T)this.items[i]);
+            bounds[4 * i] = rect.getMinX();
+            bounds[4 * i + 1] = rect.getMinY();
+            bounds[4 * i + 2] = rect.getMaxX();
+            bounds[4 * i + 3] = rect.getMaxY();
+            minX = Math.min(minX, rect.getMinX());
+            minY = Math.min(minY, rect.getMinY());
+            maxX = Math.max(maxX, rect.getMaxX());
+            maxY = Math.max(maxY, rect.getMaxY());
+        }
+
+        if (count == 0) {
+            minX = minY = 0;
+            maxX = maxY = 1;
+        }
+        double width = Math.max(maxX - minX, 1);
+        double height = Math.max(maxY - minY, 1);
+
+        //NOTE: About one cell per item, shaped like the bounding box so that the cells are roughly square.
+        columns = clamp((int)Math.round(Math.sqrt(count * width / height)), 1, MAX_CELLS_PER_AXIS);
+        rows = clamp((int)Math.round((double)count / columns), 1, MAX_CELLS_PER_AXIS);
+        originX = minX;
+        originY = minY;
+        cellWidth = width / columns;
+        cellHeight = height / rows;
+
+        //NOTE: First count the items per cell, then turn the counts into start offsets, and finally fill the cells.
+        cellStarts = new int[columns * rows + 1];
+        int oversizedCount = 0;
+        for (int i = 0; i < count; ++i) {
+            int column0 = columnOf(bounds[4 * i]);
+            int row0 = rowOf(bounds[4 * i + 1]);
+            int column1 = columnOf(bounds[4 * i + 2]);
+            int row1 = rowOf(bounds[4 * i + 3]);
+            if ((column1 - column0 + 1) * (row1 - row0 + 1) > MAX_CELLS_PER_ITEM) {
+                ++oversizedCount;
+                continue;
+            }
+            for (int row = row0; row <= row1; ++row) {
+                for (int column = column0; column <= column1; ++column)
+                    ++cellStarts[row * columns + column + 1];
+            }
+        }
+        for (int cell = 0; cell < columns * rows; ++cell)
+            cellStarts[cell + 1] += cellStarts[cell];
+
+        cellItems = new int[cellStarts[columns * rows]];
+        oversizedItems = new int[oversizedCount];
+        int[] cellEnds = new int[columns * rows];
+        System.arraycopy(cellStarts, 0, cellEnds, 0, cellEnds.length);
+        oversizedCount = 0;
+        for (int i = 0; i < count; ++i) {
+            int column0 = columnOf(bounds[4 * i]);
+            int row0 = rowOf(bounds[4 * i + 1]);
+            int column1 = columnOf(bounds[4 * i + 2]);
+            int row1 = rowOf(bounds[4 * i + 3]);
+            if ((column1 - column0 + 1) * (row1 - row0 + 1) > MAX_CELLS_PER_ITEM) {
+                oversizedItems[oversizedCount++] = i;
+                continue;
+            }
+            for (int row = row0; row <= row1; ++row) {
+                for (int column = column0; column <= column1; ++column)
+                    cellItems[cellEnds[row * columns + column]++] = i;
+            }
+        }
+    }
+
+    /**
+     * @return The number of items in this grid.
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * @param index The index of an item.
+     * @return The item at the given index.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T)items[index];
+    }
+
+    /**
+     * Visits every item whose bounds intersect either of the given rectangles, except for the items whose bounds lie
+     * strictly inside both of them. When a rectangle changes from the previous to the current one, these are exactly
+     * the items which may have started or stopped intersecting or being contained in it. Cells that lie strictly inside
+     * both rectangles are skipped without looking at their items, so only the difference between the two rectangles is
+     * searched. Each item is visited at most once.
+     *
+     * @param previous The previous rectangle, or null if there was none.
+     * @param current The current rectangle.
+     * @param action Called with the index of every visited item.
+     */
+    public void forEachAffected(Rectangle2D previous, Rectangle2D current, IntConsumer action) {
+        if (++stamp == 0) {
+            Arrays.fill(visitStamps, 0);
+            stamp = 1;
+        }
+
+        double minX = current.getMinX();
+        double minY = current.getMinY();
+        double maxX = current.getMaxX();
+        double maxY = current.getMaxY();
+        //NOTE: An empty inside means that no cell or item can be skipped.
+        double insideMinX = 0;
+        double insideMinY = 0;
+        double insideMaxX = 0;
+        double insideMaxY = 0;
+        if (previous != null) {
+            minX = Math.min(minX, previous.getMinX());
+            minY = Math.min(minY, previous.getMinY());
+            maxX = Math.max(maxX, previous.getMaxX());
+            maxY = Math.max(maxY, previous.getMaxY());
+            insideMinX = Math.max(current.getMinX(), previous.getMinX());
+            insideMinY = Math.max(current.getMinY(), previous.getMinY());
+            insideMaxX = Math.min(current.getMaxX(), previous.getMaxX());
+            insideMaxY = Math.min(current.getMaxY(), previous.getMaxY());
+        }
+
+        for (int i : oversizedItems)
+            visit(i, previous, current, insideMinX, insideMinY, insideMaxX, insideMaxY, action);
+
+        int column0 = columnOf(minX);
+        int row0 = rowOf(minY);
+        int column1 = columnOf(maxX);
+        int row1 = rowOf(maxY);
+
+        //NOTE: The range of columns whose cells lie strictly inside both rectangles, computed conservatively.
+        int skipColumn0 = columnOf(insideMinX) + 1;
+        int skipColumn1 = columnOf(insideMaxX) - 1;
+        while (skipColumn0 <= skipColumn1 && !(originX + skipColumn0 * cellWidth > insideMinX))
+            ++skipColumn0;
+        while (skipColumn0 <= skipColumn1 && !(originX + (skipColumn1 + 1) * cellWidth < insideMaxX))
+            --skipColumn1;
+
+        for (int row = row0; row <= row1; ++row) {
+            boolean isRowInside = originY + row * cellHeight > insideMinY
+                    && originY + (row + 1) * cellHeight < insideMaxY;
+            for (int column = column0; column <= column1; ++column) {
+                if (isRowInside && column == skipColumn0 && skipColumn0 <= skipColumn1) {
+                    column = skipColumn1;
+                    continue;
+                }
+                int cell = row * columns + column;
+                for (int k = cellStarts[cell]; k < cellStarts[cell + 1]; ++k)
+                    visit(cellItems[k], previous, current, insideMinX, insideMinY, insideMaxX, insideMaxY, action);
+            }
+        }
+    }
+
+    /**
+     * Visits a single item of a query, unless it was already visited or can be skipped.
+     */
+    private void visit(int i, Rectangle2D previous, Rectangle2D current, double insideMinX, double insideMinY,
+                       double insideMaxX, double insideMaxY, IntConsumer action) {
+        if (visitStamps[i] == stamp)
+            return;
+        visitStamps[i] = stamp;
+
+        double minX = bounds[4 * i];
+        double minY = bounds[4 * i + 1];
+        double maxX = bounds[4 * i + 2];
+        double maxY = bounds[4 * i + 3];
+        if (minX > insideMinX && minY > insideMinY && maxX < insideMaxX && maxY < insideMaxY)
+            return;
+        if (touches(current, minX, minY, maxX, maxY) || (previous != null && touches(previous, minX, minY, maxX, maxY)))
+            action.accept(i);
+    }
+
+    /**
+     * @return Whether the given closed bounds touch the given closed rectangle.
+     */
+    private static boolean touches(Rectangle2D rect, double minX, double minY, double maxX, double maxY) {
+        return minX <= rect.getMaxX() && maxX >= rect.getMinX() && minY <= rect.getMaxY() && maxY >= rect.getMinY();
+    }
+
+    /**
+     * @param x An x coordinate.
+     * @return The column of the cell containing the coordinate, clamped to the grid.
+     */
+    private int columnOf(double x) {
+        return clamp((int)Math.floor((x - originX) / cellWidth), 0, columns - 1);
+    }
+
+    /**
+     * @param y A y coordinate.
+     * @return The row of the cell containing the coordinate, clamped to the grid.
+     */
+    private int rowOf(double y) {
+        return clamp((int)Math.floor((y - originY) / cellHeight), 0, rows - 1);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+}
@@ -0,0 +1,90 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @version 1.0
+ *
+ * Measures how long the different phases of application startup take, so that a slow cold start can be tracked down
+ * to a specific phase. Timing is disabled unless start() is called, in which case every other method is a cheap no-op.
+ * The time spent by the JVM before main() was entered is taken from the JVM start time, and every following phase
+ * lasts from the end of the previous phase until endPhase() is called with its name. Once the first frame has been
+ * painted the whole breakdown is printed.
+ *
+ * @see ManagementFactory
+ */
+public final class StartupTimer {
+
+    private static final List<String> PHASE_NAMES = new ArrayList<>();
+    private static final List<Long> PHASE_NANOS = new ArrayList<>();
+
+    private static volatile boolean running = false;
+    private static long startNanos;
+    private static long lastPhaseEndNanos;
+
+    /**
+     * Starts timing startup. This should be the very first thing called in main().
+     */
+    public static synchronized void start() {
+        long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long jvmMillis = System.currentTimeMillis() - jvmStartMillis;
+        startNanos = System.nanoTime();
+        lastPhaseEndNanos = startNanos;
+        PHASE_NAMES.add("JVM");
+        PHASE_NANOS.add(jvmMillis * 1_000_000);
+        running = true;
+    }
+
+    /**
+     * Records the end of a startup phase, which started when the previous phase ended.
+     *
+     * @param name The name of the phase that just finished.
+     */
+    public static synchronized void endPhase(String name) {
+        if (!running)
+            return;
+
+        long now = System.nanoTime();
+        PHASE_NAMES.add(name);
+        PHASE_NANOS.add(now - lastPhaseEndNanos);
+        lastPhaseEndNanos = now;
+    }
+
+    /**
+     * Records the end of the "first paint" phase, then prints the startup breakdown and stops timing. Calling this
+     * again after that, e.g. on every repaint, does nothing.
+     */
+    public static void firstPaintFinished() {
+        if (!running)
+            return;
+
+        synchronized (StartupTimer.class) {
+            if (!running)
+                return;
+            endPhase("first paint");
+            running = false;
+            printBreakdown();
+        }
+    }
+
+    /**
+     * Prints every recorded phase along with its duration, followed by the total startup time.
+     */
+    private static void printBreakdown() {
+        long totalNanos = 0;
+        System.out.println("Startup timing:");
+        for (int i = 0; i < PHASE_NAMES.size(); i++) {
+            System.out.printf("  %-14s %8.1f ms%n", PHASE_NAMES.get(i), PHASE_NANOS.get(i) / 1e6);
+            totalNanos += PHASE_NANOS.get(i);
+        }
+        System.out.printf("  %-14s %8.1f ms%n", "total", totalNanos / 1e6);
+    }
+
+    /**
+     * This class contains only static fields and methods and should never be instantiated.
+     */
+    private StartupTimer() {}
+
+}
@@ -4,35 +4,82 @@ import java.awt.*;
 import java.awt.geom.Rectangle2D;
 import java.text.DecimalFormat;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
-* @version 2.0
+* @version 3.0
  *
  * This utility class loads all available system fonts and stores them in a convenient central place. It also contains
  * some common useful methods for manipulating text.
  *
+ * Enumerating all system fonts can take hundreds of milliseconds on machines with many fonts installed, so the full
+ * list is only loaded when it is first needed, or ahead of time on a background thread. Looking up whether a single
+ * font exists does not require the full list.
+ *
  * @see Font
  * @see GraphicsEnvironment
  */
 public final class TextUtil {
 
-    private static final DecimalFormat FORMATTER = new DecimalFormat();
+    //NOTE: DecimalFormat is not thread-safe, and the Solver may format distances on several threads at once.
+    private static final ThreadLocal<DecimalFormat> FORMATTER = ThreadLocal.withInitial(DecimalFormat::new);
+
+    private static final Map<String, Boolean> FONT_EXISTS_CACHE = new ConcurrentHashMap<>();
+
+    private static volatile String[] allFontNames;
 
     /**
-     * This array holds the font names of all fonts installed on the user's machine.
+     * @return A sorted array holding the font names of all fonts installed on the user's machine. The array is loaded
+     * the first time this is called, which may take a while - callers must not modify it.
      */
-    public static final String[] ALL_FONT_NAMES =
-            GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames();
+    public static String[] getAllFontNames() {
+        String[] fontNames = allFontNames;
+        if (fontNames == null) {
+            synchronized (TextUtil.class) {
+                fontNames = allFontNames;
+                if (fontNames == null) {
+                    fontNames = GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames();
+                    //NOTE(Boris): Sort so we can binary search through them.
+                    Arrays.sort(fontNames);
+                    allFontNames = fontNames;
+                }
+            }
+        }
+        return fontNames;
+    }
 
-    //NOTE(Boris): Sort so we can binary search through them.
-    static { Arrays.sort(ALL_FONT_NAMES); }
+    /**
+     * Starts loading the names of all installed fonts on a background thread, so that they are most likely ready by
+     * the time getAllFontNames() is first called.
+     */
+    public static void loadAllFontNamesInBackground() {
+        Thread thread = new Thread(TextUtil::getAllFontNames, "Font name loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
     /**
      * @param fontName The font name to look up.
      * @return Whether the user has a font installed on their machine whose name matches the given name.
      */
     public static boolean fontExists(String fontName) {
-        return Arrays.binarySearch(ALL_FONT_NAMES, fontName) >= 0;
+        return FONT_EXISTS_CACHE.computeIfAbsent(fontName, TextUtil::lookUpFont);
+    }
+
+    /**
+     * @param fontName The font name to look up.
+     * @return Whether the user has a font installed whose family name matches the given name. If all font names are
+     * not loaded yet, only the given font is resolved instead of waiting for all of them.
+     */
+    private static boolean lookUpFont(String fontName) {
+        String[] fontNames = allFontNames;
+        if (fontNames != null)
+            return Arrays.binarySearch(fontNames, fontName) >= 0;
+
+        //NOTE: Fonts that can't be found fall back to the "Dialog" family, so a font exists exactly if it resolves
+        // to the family it was asked for.
+        return new Font(fontName, Font.PLAIN, 1).getFamily().equals(fontName);
     }
 
     /**
@@ -45,7 +92,7 @@ public final class TextUtil {
      * @see DecimalFormat
      */
     public static String format(double number) {
-        return FORMATTER.format(number);
+        return FORMATTER.get().format(number);
     }
 
     /**
@@ -17,7 +17,7 @@ import java.util.Observer;
 import java.util.Properties;
 
 /**
- * @version 3.0
+ * @version 3.1
  *
  * The McGraph application frame.
  *
@@ -93,7 +93,7 @@ public class GraphFrame extends JFrame implements Observer {
 
         panel.centerViewOnGraph();
 
-        Animation.Manager.startAnimating();
+        Animation.Manager.startAnimating(graph);
     }
 
     /**
@@ -113,7 +113,8 @@ public class GraphFrame extends JFrame implements Observer {
     @Override
     public void update(Observable obj, Object arg) {
         String newTitle = deriveTitleFrom(graph);
-        setTitle(newTitle);
+        if (!newTitle.equals(getTitle()))
+            setTitle(newTitle);
     }
 
     /**
@@ -0,0 +1,488 @@
+package view;
+
+import controller.animation.AnimationOverlay;
+import model.Edge;
+import model.Graph;
+import model.Node;
+import utils.Diamond2D;
+import utils.MathUtil;
+import utils.Polyline2D;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+* @version 1.2
+ *
+ * The GraphPainter paints the Nodes and Edges of a Graph for a GraphPanel. Nodes and Edges are painted as they
+ * currently look in the AnimationOverlay, and only if they are visible.
+ *
+ * Painting is meant to allocate (almost) nothing: bounds and points are read into scratch objects, labels come from a
+ * LabelCache, and the gradients of Edges are only created again once they change. Since all of this state belongs to
+ * the GraphPainter, a GraphPainter must only be used from one thread at a time - but several GraphPainters may paint
+ * the same Graph in parallel, as long as the Graph isn't changed meanwhile.
+ *
+ * The labels of Nodes and Edges can also be painted separately from the rest of them, so that a ProgressiveRenderer
+ * can leave them for last. A ProgressiveRenderer also paints its layers plainly, without the AnimationOverlay and
+ * without highlighting the selected and hovered elements, since it paints those over the layers in every frame.
+ *
+ * @see GraphPanel
+ * @see TiledRenderer
+ * @see ProgressiveRenderer
+ * @see LabelCache
+ */
+final class GraphPainter {
+
+    static final Stroke DEFAULT_STROKE = new BasicStroke(1);
+
+    private static final int ARROW_HEAD_LENGTH = 7;
+    private static final Polygon ARROW_HEAD = new Polygon(
+            new int[]{ +ARROW_HEAD_LENGTH, +0, +0 }, // X's
+            new int[]{ +0, +3, -3 }, // Y's
+            3);
+    private static final float SELECTED_STROKE_WIDTH = 2;
+    private static final Stroke SELECTED_STROKE = new BasicStroke(SELECTED_STROKE_WIDTH);
+    private static final Font CURSOR_FONT = new Font(Font.DIALOG, Font.BOLD, 6);
+    private static final float[] GRADIENT_FRACTIONS = { 0.5f, 1.0f };
+
+    /**
+     * The RadialGradientPaint that fades out an Edge around its weight, along with what it was created for.
+     */
+    private static final class EdgeGradient {
+        private double x;
+        private double y;
+        private float radius;
+        private Color color;
+        private RadialGradientPaint paint;
+    }
+
+    private final Graph graph;
+    private final LabelCache labelCache;
+    private final Map<Edge, EdgeGradient> edgeGradients;
+    private final Rectangle2D.Double visibleBounds;
+    private double scale;
+    private boolean plain;
+
+    //NOTE: Scratch objects that painting reads bounds and points into instead of allocating new ones.
+    private final Rectangle2D.Double scratchBounds;
+    private final RoundRectangle2D.Double scratchRoundRectangle;
+    private final Ellipse2D.Double scratchEllipse;
+    private final Diamond2D.Double scratchDiamond;
+    private final Point2D.Double scratchPoint;
+
+    /**
+     * Constructs a GraphPainter for the given Graph.
+     *
+     * @param graph The Graph whose Nodes and Edges will be painted.
+     */
+    GraphPainter(Graph graph) {
+        this.graph = graph;
+        labelCache = new LabelCache();
+        edgeGradients = new WeakHashMap<>();
+        visibleBounds = new Rectangle2D.Double();
+        scale = 1.0;
+        scratchBounds = new Rectangle2D.Double();
+        scratchRoundRectangle = new RoundRectangle2D.Double();
+        scratchEllipse = new Ellipse2D.Double();
+        scratchDiamond = new Diamond2D.Double();
+        scratchPoint = new Point2D.Double();
+    }
+
+    /**
+     * Sets the view that the following calls paint into.
+     *
+     * @param scale The scale that the Graphics2D objects paint at.
+     * @param visibleBounds The visible part of the Graph in graph space. Nodes and Edges outside of it are skipped.
+     */
+    void setView(double scale, Rectangle2D visibleBounds) {
+        this.scale = scale;
+        this.visibleBounds.setRect(visibleBounds);
+    }
+
+    /**
+     * Sets whether the following calls paint the Nodes and Edges plainly, i.e. as they look on their own - neither
+     * animated nor highlighted as selected or hovered.
+     *
+     * @param plain Whether to paint plainly.
+     */
+    void setPlain(boolean plain) {
+        this.plain = plain;
+    }
+
+    /**
+     * Paints all of the Nodes of the GraphModel.
+     *
+     * @param g The Graphics2D used to paint the Nodes.
+     */
+    void paintNodes(Graphics2D g) {
+        //NOTE: Getting the clip copies it, so it is only done once instead of once per Node.
+        Shape clip = g.getClip();
+        for (Node node : graph.getNodes())
+            paintNode(g, node, clip);
+    }
+
+    /**
+     * Paints all of the Edges of the GraphModel, as well as the currently unfinished edges.
+     *
+     * @param g The Graphics2D used to paint the Nodes.
+     */
+    void paintEdges(Graphics2D g) {
+        //NOTE: Getting the transform copies it, so it is only done once instead of once per Edge.
+        AffineTransform transform = g.getTransform();
+        for (Edge edge : graph.getEdges())
+            paintEdge(g, edge, transform);
+        for (Edge edge : graph.getUnfinishedEdges())
+            paintEdge(g, edge, transform);
+    }
+
+    /**
+     * Paints a single Node.
+     *
+     * @param g The Graphics2D object used to paint the Node.
+     * @param node The Node to be painted.
+     * @param clip The current clip of g, which is restored after the name of the Node was clipped to its shape.
+     */
+    void paintNode(Graphics2D g, Node node, Shape clip) {
+        paintNode(g, node, clip, true, true);
+    }
+
+    /**
+     * Paints parts of a single Node.
+     *
+     * @param g The Graphics2D object used to paint the Node.
+     * @param node The Node to be painted.
+     * @param clip The current clip of g, which is restored after the name of the Node was clipped to its shape.
+     * @param paintShape Whether to paint the filled and bordered shape of the Node.
+     * @param paintName Whether to paint the name of the Node.
+     */
+    void paintNode(Graphics2D g, Node node, Shape clip, boolean paintShape, boolean paintName) {
+
+        Rectangle2D nodeBounds = node.getVisualBounds(scratchBounds);
+        Shape shape = getNodeShape(node, nodeBounds);
+        AnimationOverlay.Tween tween = plain ? null : AnimationOverlay.getTween(node);
+        AffineTransform tweenTransform = tween != null && tween.isTransformed() ? tween.getTransform(nodeBounds) : null;
+        if (tweenTransform != null)
+            nodeBounds = tweenTransform.createTransformedShape(nodeBounds).getBounds2D();
+
+        //NOTE(Boris): Don't paint nodes that aren't visible.
+        if (!nodeBounds.intersects(visibleBounds))
+            return;
+
+        if (tweenTransform != null)
+            shape = tweenTransform.createTransformedShape(shape);
+        if (paintShape)
+            paintNodeShape(g, node, shape, tween);
+        if (!paintName)
+            return;
+
+        g.setFont(node.getVisualFont());
+        LabelCache.Label label = labelCache.get(g, node.getVisualName(), scale);
+        if (isVisible(label)) {
+            g.setClip(shape);
+            g.setColor(overlayColor(tween == null ? null : tween.getTextColor(), node.getVisualTextColor()));
+            label.paintCentered(g, nodeBounds.getCenterX(), nodeBounds.getCenterY());
+            g.setClip(clip);
+        }
+    }
+
+    /**
+     * Fills and borders the shape of a Node.
+     */
+    private void paintNodeShape(Graphics2D g, Node node, Shape shape, AnimationOverlay.Tween tween) {
+        Color color = overlayColor(tween == null ? null : tween.getFillColor(), node.getVisualFillColor());
+        if (!plain && node == graph.getHoveredNode())
+            color = MathUtil.darkerOrLighterColor(color, 0.2f);
+        g.setColor(color);
+
+        Stroke defaultStroke = g.getStroke();
+        boolean isSelected = !plain && graph.isSelected(node);
+        if (isSelected)
+            g.setStroke(SELECTED_STROKE);
+
+        g.fill(shape);
+        g.setColor(overlayColor(tween == null ? null : tween.getBorderColor(), node.getVisualBorderColor()));
+        if (scale > 0.3)
+            g.draw(shape);
+
+        if (isSelected)
+            g.setStroke(defaultStroke);
+    }
+
+    /**
+     * @param node The Node whose shape to get.
+     * @param bounds The visual bounds of the Node.
+     * @return The shape of the Node, like Node.getDrawableShape(). This is one of the scratch shapes of this painter,
+     * and is only valid until the next Node is painted.
+     */
+    private Shape getNodeShape(Node node, Rectangle2D bounds) {
+        switch (node.getVisualStyle()) {
+            case ROUNDED_RECTANGLE:
+                scratchRoundRectangle.setRoundRect(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(),
+                        10, 10);
+                return scratchRoundRectangle;
+            case ELLIPSE:
+                scratchEllipse.setFrame(bounds);
+                return scratchEllipse;
+            case DIAMOND:
+                scratchDiamond.setFrame(bounds);
+                return scratchDiamond;
+            default:
+                return bounds;
+        }
+    }
+
+    /**
+     * Paints a single Edge.
+     *
+     * @param g The Graphics2D object used to paint the Edge.
+     * @param edge The Edge to be painted.
+     * @param transform The current transform of g, which is restored after painting the arrows.
+     */
+    void paintEdge(Graphics2D g, Edge edge, AffineTransform transform) {
+        paintEdge(g, edge, transform, true, true);
+    }
+
+    /**
+     * Paints parts of a single Edge.
+     *
+     * @param g The Graphics2D object used to paint the Edge.
+     * @param edge The Edge to be painted.
+     * @param transform The current transform of g, which is restored after painting the arrows.
+     * @param paintLine Whether to paint the path and the arrows of the Edge.
+     * @param paintWeight Whether to paint the weight string of the Edge.
+     */
+    void paintEdge(Graphics2D g, Edge edge, AffineTransform transform, boolean paintLine, boolean paintWeight) {
+
+        Line2D edgeLine = edge.getLine();
+
+        //NOTE(Boris): Don't draw edges with degenerate lines.
+        double dX = edgeLine.getX2() - edgeLine.getX1();
+        double dY = edgeLine.getY2() - edgeLine.getY1();
+        if (dX * dX + dY * dY == 0)
+            return;
+
+        //NOTE(Boris): Don't bother drawing edges that aren't visible. We test the line because its much cheaper than
+        // testing the whole path which may have like 5 bezier curves.
+        Polyline2D edgePath = edge.getFlattenedPath(scale);
+        if (!edgeLine.intersects(visibleBounds) && !edgePath.intersects(visibleBounds))
+            return;
+
+        //NOTE: Edges connected to animated Nodes keep their cached geometry, which is transformed along with the Nodes.
+        AffineTransform edgeTransform = plain ? null : AnimationOverlay.getEdgeTransform(edge);
+        AnimationOverlay.Tween tween = plain ? null : AnimationOverlay.getTween(edge);
+
+        Point2D weightPoint = edge.getVisualWeightPoint(scratchPoint);
+        if (edgeTransform != null)
+            edgeTransform.transform(weightPoint, weightPoint);
+        double weightX = weightPoint.getX();
+        double weightY = weightPoint.getY();
+
+        g.setFont(Edge.DEFAULT_FONT);
+        LabelCache.Label weightLabel = labelCache.get(g, edge.getVisualWeightString(), scale);
+        //NOTE: The size of the weight string is the side of the square around it.
+        float textSize = (float)Math.max(weightLabel.getWidth(), weightLabel.getHeight());
+        double textSizeOnScreen = textSize * scale;
+
+        //NOTE(Boris): Only draw the weight string is its bigger than 5 pixels on the screen.
+        if (paintWeight && textSizeOnScreen > 5 && isVisible(weightLabel)) {
+            g.setColor(Color.BLACK);
+            weightLabel.paintCentered(g, weightX, weightY);
+        }
+        if (!paintLine)
+            return;
+
+        Color color = overlayColor(tween == null ? null : tween.getEdgeColor(), edge.getVisualColor());
+        if (!plain && edge == graph.getHoveredEdge())
+            color = MathUtil.darkerOrLighterColor(color, 0.2f);
+        g.setColor(color);
+
+        Stroke oldStroke = g.getStroke();
+        Paint oldPaint = g.getPaint();
+        if (!plain && graph.isSelected(edge))
+            g.setStroke(SELECTED_STROKE);
+
+        //NOTE(Boris): Only use the RadialGradientPaint if the text is at least 5 pixels wide on the screen.
+        if (textSizeOnScreen > 5)
+            g.setPaint(getEdgeGradient(edge, weightX, weightY, textSize, color));
+
+        g.draw(edgeTransform == null ? edgePath : edgeTransform.createTransformedShape(edgePath));
+
+        g.setStroke(oldStroke);
+        g.setPaint(oldPaint);
+
+        double rotation = 0;
+        if (edgeTransform != null)
+            rotation = Math.atan2(edgeTransform.getShearY(), edgeTransform.getScaleX());
+
+        if (edge.isDirectedToNode1()) {
+            Point2D arrow1Point = edge.getArrow1Point(scratchPoint);
+            if (edgeTransform != null)
+                edgeTransform.transform(arrow1Point, arrow1Point);
+            g.translate(arrow1Point.getX(), arrow1Point.getY());
+            g.rotate(edge.getArrow1Angle() + rotation);
+            g.fill(ARROW_HEAD);
+            g.setTransform(transform);
+        }
+        if (edge.isDirectedToNode2()) {
+            Point2D arrow2Point = edge.getArrow2Point(scratchPoint);
+            if (edgeTransform != null)
+                edgeTransform.transform(arrow2Point, arrow2Point);
+            g.translate(arrow2Point.getX(), arrow2Point.getY());
+            g.rotate(edge.getArrow2Angle() + rotation);
+            g.fill(ARROW_HEAD);
+            g.setTransform(transform);
+        }
+    }
+
+    /**
+     * @param edge The Edge whose gradient to get.
+     * @param x The x coordinate of the center of the gradient.
+     * @param y The y coordinate of the center of the gradient.
+     * @param radius The radius of the gradient.
+     * @param color The Color of the Edge.
+     * @return A RadialGradientPaint that fades the Edge out around the given center. The last one is reused as long
+     * as none of its parameters changed.
+     */
+    private RadialGradientPaint getEdgeGradient(Edge edge, double x, double y, float radius, Color color) {
+        EdgeGradient gradient = edgeGradients.get(edge);
+        if (gradient == null) {
+            gradient = new EdgeGradient();
+            edgeGradients.put(edge, gradient);
+        }
+
+        if (gradient.paint == null || gradient.x != x || gradient.y != y || gradient.radius != radius
+                || !color.equals(gradient.color)) {
+            Color[] colors = { MathUtil.setAlpha(color, 0), color };
+            gradient.paint = new RadialGradientPaint(new Point2D.Double(x, y), radius, GRADIENT_FRACTIONS, colors);
+            gradient.x = x;
+            gradient.y = y;
+            gradient.radius = radius;
+            gradient.color = color;
+        }
+        return gradient.paint;
+    }
+
+    /**
+     * Gets bounds that contain everything paintNode() paints for a Node.
+     *
+     * @param node The Node whose painted bounds to get.
+     * @param outBounds The rectangle the bounds are stored in.
+     * @return outBounds
+     */
+    Rectangle2D getPaintedBounds(Node node, Rectangle2D outBounds) {
+        Rectangle2D nodeBounds = node.getVisualBounds(outBounds);
+        AnimationOverlay.Tween tween = AnimationOverlay.getTween(node);
+        if (tween != null && tween.isTransformed())
+            outBounds.setRect(tween.getTransform(nodeBounds).createTransformedShape(nodeBounds).getBounds2D());
+
+        //NOTE: The border of a selected Node is drawn with a wider stroke.
+        grow(outBounds, SELECTED_STROKE_WIDTH / 2);
+        return outBounds;
+    }
+
+    /**
+     * Gets bounds that contain everything paintEdge() paints for an Edge. This also brings the cached geometry and
+     * weight string of the Edge up to date, so that painting the Edge afterwards only reads them.
+     *
+     * @param g The Graphics2D object the Edge will be painted with, to measure its weight string.
+     * @param edge The Edge whose painted bounds to get.
+     * @param outBounds The rectangle the bounds are stored in.
+     * @return outBounds
+     */
+    Rectangle2D getPaintedBounds(Graphics2D g, Edge edge, Rectangle2D outBounds) {
+        outBounds.setRect(edge.getFlattenedPath(scale).getBounds2D());
+
+        Point2D weightPoint = edge.getVisualWeightPoint(scratchPoint);
+        g.setFont(Edge.DEFAULT_FONT);
+        LabelCache.Label weightLabel = labelCache.get(g, edge.getVisualWeightString(), scale);
+        double textSize = Math.max(weightLabel.getWidth(), weightLabel.getHeight());
+        outBounds.add(weightPoint.getX() - textSize / 2, weightPoint.getY() - textSize / 2);
+        outBounds.add(weightPoint.getX() + textSize / 2, weightPoint.getY() + textSize / 2);
+
+        AffineTransform edgeTransform = AnimationOverlay.getEdgeTransform(edge);
+        if (edgeTransform != null)
+            outBounds.setRect(edgeTransform.createTransformedShape(outBounds).getBounds2D());
+
+        //NOTE: The arrow heads stick out of the path by up to their length, and may be scaled along with the Edge.
+        double margin = ARROW_HEAD_LENGTH + SELECTED_STROKE_WIDTH / 2;
+        if (edgeTransform != null)
+            margin *= Math.max(1, Math.hypot(edgeTransform.getScaleX(), edgeTransform.getShearY()));
+        grow(outBounds, margin);
+        return outBounds;
+    }
+
+    /**
+     * Grows a rectangle by the same amount on every side.
+     */
+    private static void grow(Rectangle2D rect, double amount) {
+        rect.setRect(rect.getX() - amount, rect.getY() - amount,
+                rect.getWidth() + 2 * amount, rect.getHeight() + 2 * amount);
+    }
+
+    /**
+     * Paints a triangle cursor used to mark a node. This is used to mark the "start" and "goal" nodes for solving
+     * operations.
+     *
+     * @param g The Graphics2D object used to paint the cursor.
+     * @param node The Node over which the cursor should be painted.
+     * @param color The Color of the cursor.
+     * @param cursorText The text of the cursor.
+     */
+    void paintCursorOverNode(Graphics2D g, Node node, Color color, String cursorText) {
+        if (node == null)
+            return;
+
+        Rectangle2D bounds = node.getVisualBounds(scratchBounds);
+        double topLineCenterX = bounds.getCenterX();
+        double topLineCenterY = bounds.getMinY();
+
+        AffineTransform oldTransform = g.getTransform();
+        g.translate(topLineCenterX, topLineCenterY - 15);
+        g.rotate(Math.PI / 2);
+        g.scale(3, 4);
+
+        g.setColor(color);
+        g.fill(ARROW_HEAD);
+        g.setColor(color.darker());
+        g.draw(ARROW_HEAD);
+
+        g.setTransform(oldTransform);
+        g.setColor(Color.BLACK);
+        g.setFont(CURSOR_FONT);
+        paintCenteredString(g, cursorText, topLineCenterX, topLineCenterY - 8);
+    }
+
+    /**
+     * @param overlayColor The Color of an element in the AnimationOverlay, or null if it isn't animated.
+     * @param color The Color of the element itself.
+     * @return The Color the element should be painted with.
+     */
+    private static Color overlayColor(Color overlayColor, Color color) {
+        return overlayColor != null ? overlayColor : color;
+    }
+
+    /**
+     * Paints a given String centered on the specified coordinates using the currently set font.
+     *
+     * @param g The Graphics2D object used to paint the String.
+     * @param string The String to paint.
+     * @param x The x coordinate on which to center the painted String.
+     * @param y The y coordinate on which to center the painted String.
+     */
+    private void paintCenteredString(Graphics2D g, String string, double x, double y) {
+        LabelCache.Label label = labelCache.get(g, string, scale);
+        if (isVisible(label))
+            label.paintCentered(g, x, y);
+    }
+
+    /**
+     * @param label A Label that is about to be painted.
+     * @return Whether the Label is big enough on the screen to be worth painting.
+     */
+    private boolean isVisible(LabelCache.Label label) {
+        //NOTE(Boris): Only draw string if its at least 3 pixels wide/tall on the screen.
+        return label.getWidth() * scale > 3 && label.getHeight() * scale > 3;
+    }
+}
\ No newline at end of file
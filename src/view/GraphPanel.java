@@ -3,12 +3,15 @@ package view;
 import controller.EdgeToolBar;
 import controller.NodeToolBar;
 import controller.PopupMenu;
+import controller.animation.Animation;
+import controller.animation.AnimationOverlay;
 import model.Edge;
 import model.Graph;
 import model.Node;
 import controller.Solver;
+import utils.AllocationCounter;
 import utils.MathUtil;
-import utils.TextUtil;
+import utils.StartupTimer;
 
 import javax.swing.*;
 import java.awt.*;
@@ -16,26 +19,42 @@ import java.awt.geom.*;
 import java.util.Objects;
 
 /**
-* @version 99.0
+* @version 99.6
  *
  * This is the JPanel used to display a GraphModel. The GraphPanel also houses the NodeToolBar and the EdgeToolBar
  * controls.
  *
+ * The Nodes and Edges themselves are painted by a GraphPainter, as they currently look in the AnimationOverlay, so
+ * playing Animations never have to change the GraphModel just to be seen. On large graphs they can optionally be
+ * painted by a TiledRenderer instead, which splits the view into strips that are painted on several threads at once,
+ * or by a ProgressiveRenderer, which spreads painting them over several frames so that the panel stays responsive.
+ *
+ * Edges are drawn from their flattened paths at the current scale, which are cached by the Edges themselves, so the
+ * bezier curves of an Edge are not flattened again on every paint. Likewise, the names of Nodes and the weights of
+ * Edges are only measured and laid out once per zoom level, and then painted from the LabelCache.
+ *
+ * Painting a frame is meant to allocate (almost) nothing, so that the paint loop doesn't keep the garbage collector
+ * busy while the graph is animated or dragged around. Pass the ALLOCATIONS_FLAG to Main to see how much a frame
+ * allocates.
+ *
  * @see Graph
  * @see Node
  * @see Edge
  * @see NodeToolBar
  * @see EdgeToolBar
- * @see controller.animation.Animation
+ * @see Animation
+ * @see AnimationOverlay
+ * @see GraphPainter
+ * @see TiledRenderer
+ * @see ProgressiveRenderer
+ * @see AllocationCounter
  */
 public class GraphPanel extends JPanel {
 
     private static final Color SELECTION_RECTANGLE_EDGE_COLOR = new Color(0, 150, 150, 100);
     private static final Color SELECTION_RECTANGLE_FILL_COLOR = new Color(0, 150, 150, 50);
-    private static final Polygon ARROW_HEAD = new Polygon(
-            new int[]{ +7, +0, +0 }, // X's
-            new int[]{ +0, +3, -3 }, // Y's
-            3);
+    private static final Font SELECTION_COUNT_FONT = new Font(Font.DIALOG, Font.PLAIN, 11);
+    private static final AffineTransform IDENTITY_TRANSFORM = new AffineTransform();
 
     private final Graph graph;
     private Rectangle2D selectionRectangle;
@@ -43,6 +62,9 @@ public class GraphPanel extends JPanel {
     private double translationX;
     private double translationY;
     private double scale;
+    private final GraphPainter painter;
+    private TiledRenderer tiledRenderer;
+    private ProgressiveRenderer progressiveRenderer;
 
     /**
      * Constructs a new GraphPanel for the given GraphModel. This also constructs a NodeToolBar and an EdgeToolBar and
@@ -58,6 +80,10 @@ public class GraphPanel extends JPanel {
         translationX = 0.0;
         translationY = 0.0;
         scale = 1.0;
+        boundsInGraphSpace = new Rectangle2D.Double();
+        painter = new GraphPainter(graph);
+        tiledRenderer = null;
+        progressiveRenderer = null;
 
         setVisible(true);
         setOpaque(true);
@@ -70,6 +96,7 @@ public class GraphPanel extends JPanel {
         setLayout(new FlowLayout(FlowLayout.CENTER, 999999, 5));
 
         graph.addObserver((object, arg) -> repaint());
+        Animation.Manager.addFrameListener(this::repaint);
     }
 
     /**
@@ -118,6 +145,54 @@ public class GraphPanel extends JPanel {
         return scale;
     }
 
+    /**
+     * Turns painting the Nodes and Edges on several threads at once on or off. This pays off for large graphs on
+     * machines with several processors.
+     *
+     * @param tiled Whether the Nodes and Edges should be painted by a TiledRenderer.
+     */
+    public void setTiledRendering(boolean tiled) {
+        if (tiled == isTiledRendering())
+            return;
+
+        if (tiled)
+            tiledRenderer = new TiledRenderer(graph);
+        else {
+            tiledRenderer.dispose();
+            tiledRenderer = null;
+        }
+        repaint();
+    }
+
+    /**
+     * @return Whether the Nodes and Edges are painted on several threads at once.
+     */
+    public boolean isTiledRendering() {
+        return tiledRenderer != null;
+    }
+
+    /**
+     * Turns painting the Nodes and Edges over several frames on or off. While it is on, the most important Nodes and
+     * Edges are painted first, and painting a single frame never takes much longer than a frame should. It takes
+     * precedence over tiled rendering.
+     *
+     * @param progressive Whether the Nodes and Edges should be painted by a ProgressiveRenderer.
+     */
+    public void setProgressiveRendering(boolean progressive) {
+        if (progressive == isProgressiveRendering())
+            return;
+
+        progressiveRenderer = progressive ? new ProgressiveRenderer(graph) : null;
+        repaint();
+    }
+
+    /**
+     * @return Whether the Nodes and Edges are painted over several frames.
+     */
+    public boolean isProgressiveRendering() {
+        return progressiveRenderer != null;
+    }
+
     /**
      * Zooms into, or out of the center of the screen by a given factor.
      *
@@ -200,25 +275,41 @@ public class GraphPanel extends JPanel {
      */
     @Override
     public void paintComponent(Graphics graphics) {
+        AllocationCounter.frameStarted();
         super.paintComponent(graphics);
         Graphics2D g = (Graphics2D)graphics.create();
         g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setStroke(new BasicStroke(1));
+        g.setStroke(GraphPainter.DEFAULT_STROKE);
+
+        //NOTE(Boris): Project the bounds to graph space to avoid having to project all Nodes and Edges to panel space.
+        boundsInGraphSpace.setRect((getX() - translationX) / scale, (getY() - translationY) / scale,
+                getWidth() / scale, getHeight() / scale);
+        painter.setView(scale, boundsInGraphSpace);
+
+        boolean isGraphPainted = true;
+        if (progressiveRenderer != null) {
+            //NOTE: Keep on painting in the following frames until the view is complete.
+            if (!progressiveRenderer.paint(g, painter, getWidth(), getHeight(), translationX, translationY, scale))
+                repaint();
+        } else if (tiledRenderer != null) {
+            tiledRenderer.paint(g, painter, getWidth(), getHeight(), translationX, translationY, scale,
+                    boundsInGraphSpace, getBackground());
+        } else
+            isGraphPainted = false;
 
         //NOTE(Boris): This means *first* scale and *then* translate.. ugh..
         g.translate(translationX, translationY);
         g.scale(scale, scale);
 
-        //NOTE(Boris): Project the bounds to graph space to avoid having to project all Nodes and Edges to panel space.
-        boundsInGraphSpace = projectToGraphSpace(getBounds());
-
         //NOTE(Boris): Paint edges first and *then* nodes - otherwise edges cover the nodes.
-        paintEdges(g);
-        paintNodes(g);
+        if (!isGraphPainted) {
+            painter.paintEdges(g);
+            painter.paintNodes(g);
+        }
 
-        paintCursorOverNode(g, graph.getStartNode(), Solver.START_COLOR, "START");
-        paintCursorOverNode(g, graph.getGoalNode(), Solver.GOAL_COLOR, "GOAL");
+        painter.paintCursorOverNode(g, graph.getStartNode(), Solver.START_COLOR, "START");
+        painter.paintCursorOverNode(g, graph.getGoalNode(), Solver.GOAL_COLOR, "GOAL");
 
         if (selectionRectangle != null) {
             g.setColor(SELECTION_RECTANGLE_FILL_COLOR);
@@ -229,8 +320,8 @@ public class GraphPanel extends JPanel {
 
         if (graph.numSelectedNodes() > 0 || graph.numSelectedEdges() > 0) {
             int bottom = getHeight();
-            g.setTransform(AffineTransform.getScaleInstance(1, 1));
-            g.setFont(new Font(Font.DIALOG, Font.PLAIN, 11));
+            g.setTransform(IDENTITY_TRANSFORM);
+            g.setFont(SELECTION_COUNT_FONT);
             g.setColor(Color.GRAY);
             if (graph.numSelectedNodes() > 0)
                 g.drawString(graph.numSelectedNodes() + " selected node(s)", 20, bottom - 40);
@@ -239,6 +330,8 @@ public class GraphPanel extends JPanel {
         }
 
         g.dispose();
+        StartupTimer.firstPaintFinished();
+        AllocationCounter.frameFinished();
     }
 
     /**
@@ -262,200 +355,4 @@ public class GraphPanel extends JPanel {
             repaint();
         }
     }
-
-    /**
-     * Paints all of the Nodes of the GraphModel.
-     *
-     * @param g The Graphics2D used to paint the Nodes.
-     */
-    private void paintNodes(Graphics2D g) {
-        for (Node node : graph.getNodes())
-            paintNode(g, node);
-    }
-
-    /**
-     * Paints all of the Edges of the GraphModel, as well as the currently unfinished edges.
-     *
-     * @param g The Graphics2D used to paint the Nodes.
-     */
-    private void paintEdges(Graphics2D g) {
-        for (Edge edge : graph.getEdges())
-            paintEdge(g, edge);
-        for (Edge edge : graph.getUnfinishedEdges())
-            paintEdge(g, edge);
-    }
-
-    /**
-     * Paints a single Node.
-     *
-     * @param g The Graphics2D object used to paint the Node.
-     * @param node The Node to be painted.
-     */
-    private void paintNode(Graphics2D g, Node node) {
-
-        Rectangle2D nodeBounds = node.getVisualBounds();
-
-        //NOTE(Boris): Don't paint nodes that aren't visible.
-        if (!nodeBounds.intersects(boundsInGraphSpace))
-            return;
-
-        Color color = node.getVisualFillColor();
-        if (node == graph.getHoveredNode())
-            color = MathUtil.darkerOrLighterColor(color, 0.2f);
-        g.setColor(color);
-
-        Stroke defaultStroke = g.getStroke();
-        if (graph.isSelected(node))
-            g.setStroke(new BasicStroke(2));
-
-        Shape shape = node.getDrawableShape();
-        g.fill(shape);
-        g.setColor(node.getVisualBorderColor());
-        if (scale > 0.3)
-            g.draw(shape);
-
-        if (graph.isSelected(node))
-            g.setStroke(defaultStroke);
-
-        Shape oldClip = g.getClip();
-        g.setClip(shape);
-        g.setColor(node.getVisualTextColor());
-        g.setFont(node.getVisualFont());
-        paintCenteredString(g, node.getVisualName(), nodeBounds.getCenterX(), nodeBounds.getCenterY());
-        g.setClip(oldClip);
-    }
-
-    /**
-     * Paints a single Edge.
-     *
-     * @param g The Graphics2D object used to paint the Edge.
-     * @param edge The Edge to be painted.
-     */
-    private void paintEdge(Graphics2D g, Edge edge) {
-
-        Line2D edgeLine = edge.getLine();
-        Path2D edgePath = edge.getPath();
-
-        //NOTE(Boris): Don't draw edges with degenerate lines.
-        if (MathUtil.length(edgeLine) == 0)
-            return;
-
-        //NOTE(Boris): Don't bother drawing edges that aren't visible. We test the line because its much cheaper than
-        // testing the whole path which may have like 5 bezier curves.
-        if (!edgeLine.intersects(boundsInGraphSpace) && !edgePath.intersects(boundsInGraphSpace))
-            return;
-
-        Point2D edgeCenter = MathUtil.centerPoint(edgeLine);
-        String weight = TextUtil.format(edge.getVisualWeight());
-        Point2D weightPoint = edge.getVisualWeightPoint();
-
-        g.setFont(Edge.DEFAULT_FONT);
-        Rectangle2D textBounds = TextUtil.getStringBounds(g, weight);
-        textBounds = MathUtil.centeredRectangle(edgeCenter, textBounds.getWidth(), textBounds.getHeight());
-        textBounds = MathUtil.makeSquare(textBounds);
-        float textSize = (float)(textBounds.getWidth());
-        double textSizeOnScreen = textSize * scale;
-
-        //NOTE(Boris): Only draw the weight string is its bigger than 5 pixels on the screen.
-        if (textSizeOnScreen > 5) {
-            g.setColor(Color.BLACK);
-            paintCenteredString(g, weight, weightPoint.getX(), weightPoint.getY());
-        }
-
-        Color color = edge.getVisualColor();
-        if (edge == graph.getHoveredEdge())
-            color = MathUtil.darkerOrLighterColor(color, 0.2f);
-        g.setColor(color);
-
-        Stroke oldStroke = g.getStroke();
-        Paint oldPaint = g.getPaint();
-        if (graph.isSelected(edge))
-            g.setStroke(new BasicStroke(2));
-
-        //NOTE(Boris): Only use the RadialGradientPaint if the text is at least 5 pixels wide on the screen.
-        if (textSizeOnScreen > 5) {
-            float[] dist = { 0.5f, 1.0f };
-            Color[] colors = { MathUtil.setAlpha(color, 0), color };
-            RadialGradientPaint paint = new RadialGradientPaint(weightPoint, textSize, dist, colors);
-            g.setPaint(paint);
-        }
-
-        g.draw(edgePath);
-
-        g.setStroke(oldStroke);
-        g.setPaint(oldPaint);
-
-        Point2D arrow1Point = edge.getArrow1Point();
-        Point2D arrow2Point = edge.getArrow2Point();
-        double arrow1Angle = edge.getArrow1Angle();
-        double arrow2Angle = edge.getArrow2Angle();
-
-        AffineTransform oldTransform = g.getTransform();
-        if (edge.isDirectedToNode1()) {
-            g.translate(arrow1Point.getX(), arrow1Point.getY());
-            g.rotate(arrow1Angle);
-            g.fill(ARROW_HEAD);
-            g.setTransform(oldTransform);
-        }
-        if (edge.isDirectedToNode2()) {
-            g.translate(arrow2Point.getX(), arrow2Point.getY());
-            g.rotate(arrow2Angle);
-            g.fill(ARROW_HEAD);
-            g.setTransform(oldTransform);
-        }
-    }
-
-    /**
-     * Paints a triangle cursor used to mark a node. This is used to mark the "start" and "goal" nodes for solving
-     * operations.
-     *
-     * @param g The Graphics2D object used to paint the cursor.
-     * @param node The Node over which the cursor should be painted.
-     * @param color The Color of the cursor.
-     * @param cursorText The text of the cursor.
-     */
-    private void paintCursorOverNode(Graphics2D g, Node node, Color color, String cursorText) {
-        if (node == null)
-            return;
-
-        Rectangle2D bounds = node.getVisualBounds();
-        Point2D topLineCenter = MathUtil.centerPoint(MathUtil.topEdge(bounds));
-
-        AffineTransform oldTransform = g.getTransform();
-        g.translate(topLineCenter.getX(), topLineCenter.getY() - 15);
-        g.rotate(Math.PI / 2);
-        g.scale(3, 4);
-
-        g.setColor(color);
-        g.fill(ARROW_HEAD);
-        g.setColor(color.darker());
-        g.draw(ARROW_HEAD);
-
-        g.setTransform(oldTransform);
-        g.setColor(Color.BLACK);
-        g.setFont(new Font(Font.DIALOG, Font.BOLD, 6));
-        paintCenteredString(g, cursorText, topLineCenter.getX(), topLineCenter.getY() - 8);
-    }
-
-    /**
-     * Paints a given String centered on the specified coordinates using the currently set font.
-     *
-     * @param g The Graphics2D object used to paint the String.
-     * @param string The String to paint.
-     * @param x The x coordinate on which to center the painted String.
-     * @param y The y coordinate on which to center the painted String.
-     */
-    private void paintCenteredString(Graphics2D g, String string, double x, double y) {
-        FontMetrics metrics = g.getFontMetrics();
-        Rectangle2D bounds = metrics.getStringBounds(string, g);
-        double width = bounds.getWidth();
-        double height = bounds.getHeight();
-
-        //NOTE(Boris): Only draw string if its at least 3 pixels wide/tall on the screen.
-        if (width * scale > 3 && height * scale > 3) {
-            double startX = x - width  / 2.0;
-            double startY = y - height / 2.0 + metrics.getAscent();
-            g.drawString(string, (float)startX, (float)startY);
-        }
-    }
 }
\ No newline at end of file
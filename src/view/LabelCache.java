@@ -0,0 +1,158 @@
+package view;
+
+import java.awt.*;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+* @version 1.0
+ *
+ * The LabelCache remembers how the names of Nodes and the weights of Edges are laid out, so that they don't have to be
+ * measured and laid out again on every paint. Labels are keyed by their text, their font and the scale they are painted
+ * at, rounded down to a power of two - within such a bucket, a label laid out at one scale is reused at the others.
+ *
+ * The least recently used labels are dropped once the cache is full. Looking up a label that is already cached doesn't
+ * allocate anything. A LabelCache must only be used from one thread at a time.
+ *
+ * @see GlyphVector
+ * @see GraphPanel
+ */
+final class LabelCache {
+
+    /**
+     * A measured and laid out piece of text.
+     */
+    static final class Label {
+
+        private final GlyphVector glyphs;
+        private final double width;
+        private final double height;
+        private final double ascent;
+
+        private Label(GlyphVector glyphs, double width, double height, double ascent) {
+            this.glyphs = glyphs;
+            this.width = width;
+            this.height = height;
+            this.ascent = ascent;
+        }
+
+        /**
+         * @return The width of the text, like FontMetrics.getStringBounds().
+         */
+        double getWidth() {
+            return width;
+        }
+
+        /**
+         * @return The height of the text, like FontMetrics.getStringBounds().
+         */
+        double getHeight() {
+            return height;
+        }
+
+        /**
+         * Paints the text centered on the given coordinates.
+         *
+         * @param g The Graphics2D object used to paint the text.
+         * @param x The x coordinate on which to center the text.
+         * @param y The y coordinate on which to center the text.
+         */
+        void paintCentered(Graphics2D g, double x, double y) {
+            g.drawGlyphVector(glyphs, (float)(x - width / 2.0), (float)(y - height / 2.0 + ascent));
+        }
+    }
+
+    /**
+     * Identifies a Label. The cache reuses a single mutable Key for lookups, and only copies it when a Label is added.
+     */
+    private static final class Key {
+
+        private String text;
+        private Font font;
+        private int scaleBucket;
+
+        private Key() {}
+
+        private Key(String text, Font font, int scaleBucket) {
+            this.text = text;
+            this.font = font;
+            this.scaleBucket = scaleBucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key)o;
+            return scaleBucket == other.scaleBucket && text.equals(other.text) && font.equals(other.font);
+        }
+
+        @Override
+        public int hashCode() {
+            return (text.hashCode() * 31 + font.hashCode()) * 31 + scaleBucket;
+        }
+    }
+
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private final int capacity;
+    private final Map<Key, Label> labels;
+    private final Key lookupKey;
+
+    /**
+     * Constructs an empty LabelCache that holds up to a default number of labels.
+     */
+    LabelCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty LabelCache.
+     *
+     * @param capacity The number of labels after which the least recently used ones are dropped.
+     */
+    LabelCache(int capacity) {
+        this.capacity = capacity;
+        this.labels = new LinkedHashMap<Key, Label>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Label> eldest) {
+                return size() > LabelCache.this.capacity;
+            }
+        };
+        this.lookupKey = new Key();
+    }
+
+    /**
+     * @param g The Graphics2D object the text will be painted with, using its current font.
+     * @param text The text to get the Label of.
+     * @param scale The scale that g paints at.
+     * @return The Label of the given text, laid out for painting it with g.
+     */
+    Label get(Graphics2D g, String text, double scale) {
+        Font font = g.getFont();
+        lookupKey.text = Objects.requireNonNull(text);
+        lookupKey.font = font;
+        //NOTE: The exponent of the scale is the scale rounded down to a power of two.
+        lookupKey.scaleBucket = Math.getExponent(scale);
+
+        Label label = labels.get(lookupKey);
+        if (label == null) {
+            FontMetrics metrics = g.getFontMetrics(font);
+            Rectangle2D bounds = metrics.getStringBounds(text, g);
+            GlyphVector glyphs = font.createGlyphVector(g.getFontRenderContext(), text);
+            label = new Label(glyphs, bounds.getWidth(), bounds.getHeight(), metrics.getAscent());
+            labels.put(new Key(text, font, lookupKey.scaleBucket), label);
+        }
+        return label;
+    }
+
+    /**
+     * Drops all cached labels.
+     */
+    void clear() {
+        labels.clear();
+    }
+}
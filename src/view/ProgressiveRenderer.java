@@ -0,0 +1,369 @@
+package view;
+
+import controller.animation.AnimationOverlay;
+import model.Edge;
+import model.Graph;
+import model.Node;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+* @version 1.2
+ *
+ * The ProgressiveRenderer paints the Nodes and Edges of a Graph over several frames, so that a frame never blocks the
+ * awt Event Dispatch Thread for much longer than FRAME_BUDGET_NANOS, no matter how large the Graph is. Whatever has
+ * been painted so far is kept in two offscreen layers, one for the Edges and one for the Nodes on top of them, and
+ * every frame continues where the last one stopped until the view is complete.
+ *
+ * The Nodes and Edges are painted in order of importance: the shapes of the Nodes from the largest to the smallest
+ * first, then the Edges, and finally the names of the Nodes and the weights of the Edges. Within a layer, this order
+ * replaces the order of the Graph - so e.g. a small Node always covers a large one.
+ *
+ * Painting only starts over when the viewport or the content of the Graph changes. If only the viewport changed, the
+ * last complete pass stays on screen below the new one, moved and scaled to the new viewport, until the new pass is
+ * complete and replaces it. Once the content changed, it would show Nodes and Edges that were moved or removed, so it
+ * isn't drawn anymore. The layers are painted plainly, and the selected, hovered, unfinished and animated Nodes and Edges are painted over them
+ * in every frame instead - so hovering, selecting and animating never make painting start over.
+ *
+ * @see GraphPainter
+ * @see GraphPanel
+ */
+final class ProgressiveRenderer {
+
+    private static final long FRAME_BUDGET_NANOS = 12_000_000;
+    private static final long MIN_PAINT_NANOS = 4_000_000;
+
+    //NOTE: What to paint of an item, stored in the top bits of its entry in the queue. The other bits hold the index
+    // of the Node or the Edge.
+    private static final int NODE_SHAPE = 0;
+    private static final int NODE_NAME = 1;
+    private static final int EDGE_LINE = 2;
+    private static final int EDGE_WEIGHT = 3;
+    private static final int KIND_SHIFT = 28;
+    private static final int INDEX_MASK = (1 << KIND_SHIFT) - 1;
+
+    private final Graph graph;
+    private final Rectangle2D.Double scratchBounds;
+    private final AffineTransform layerTransform;
+    private final Set<Object> overlayElements;
+    private final List<Edge> overlayEdges;
+    private final List<Node> overlayNodes;
+    private BufferedImage completeLayer;
+    private BufferedImage edgeLayer;
+    private BufferedImage nodeLayer;
+    private int[] queue;
+    private int queueSize;
+    private int queuePosition;
+    private boolean isPassComplete;
+    private long[] nodeOrder;
+    private long compositeNanos;
+
+    //NOTE: The viewport and the content version that the complete layer was painted for.
+    private double completeDeviceScaleX;
+    private double completeDeviceScaleY;
+    private double completeTranslationX;
+    private double completeTranslationY;
+    private double completeScale;
+    private long completeContentVersion;
+
+    //NOTE: The view that the layers are being painted for.
+    private int deviceWidth;
+    private int deviceHeight;
+    private double deviceScaleX;
+    private double deviceScaleY;
+    private double translationX;
+    private double translationY;
+    private double scale;
+    private long contentVersion;
+
+    /**
+     * Constructs a ProgressiveRenderer for the given Graph.
+     *
+     * @param graph The Graph whose Nodes and Edges will be painted.
+     */
+    ProgressiveRenderer(Graph graph) {
+        this.graph = graph;
+        this.scratchBounds = new Rectangle2D.Double();
+        this.layerTransform = new AffineTransform();
+        this.overlayElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.overlayEdges = new ArrayList<>();
+        this.overlayNodes = new ArrayList<>();
+        this.queue = new int[0];
+        this.nodeOrder = new long[0];
+        this.contentVersion = -1;
+    }
+
+    /**
+     * Paints as many of the Nodes and Edges as fit into the time budget of a frame, then everything that has been
+     * painted so far, and finally the Nodes and Edges that are painted over the layers.
+     *
+     * @param g The Graphics2D object to paint with, in panel space.
+     * @param painter The GraphPainter to paint the Nodes and Edges with, whose view must already be set.
+     * @param width The width of the panel.
+     * @param height The height of the panel.
+     * @param translationX The horizontal translation of the panel's view.
+     * @param translationY The vertical translation of the panel's view.
+     * @param scale The scale of the panel's view.
+     * @return Whether the view is complete. If it isn't, paint() should be called again in the next frame.
+     */
+    boolean paint(Graphics2D g, GraphPainter painter, int width, int height, double translationX, double translationY,
+                  double scale) {
+        long startNanos = System.nanoTime();
+
+        //NOTE: The layers are painted in device space, so that they are just as sharp as painting directly with g.
+        AffineTransform deviceTransform = g.getTransform();
+        int deviceWidth = (int)Math.ceil(width * deviceTransform.getScaleX());
+        int deviceHeight = (int)Math.ceil(height * deviceTransform.getScaleY());
+        if (deviceWidth <= 0 || deviceHeight <= 0)
+            return true;
+
+        if (deviceWidth != this.deviceWidth || deviceHeight != this.deviceHeight
+                || deviceTransform.getScaleX() != deviceScaleX || deviceTransform.getScaleY() != deviceScaleY
+                || translationX != this.translationX || translationY != this.translationY || scale != this.scale
+                || graph.getContentVersion() != contentVersion) {
+            this.deviceWidth = deviceWidth;
+            this.deviceHeight = deviceHeight;
+            this.deviceScaleX = deviceTransform.getScaleX();
+            this.deviceScaleY = deviceTransform.getScaleY();
+            this.translationX = translationX;
+            this.translationY = translationY;
+            this.scale = scale;
+            this.contentVersion = graph.getContentVersion();
+            restart();
+        }
+
+        //NOTE: Leave time for drawing the layers and the overlay, which takes about as long as it did in the last
+        // frame - but paint for at least a little while, so that slow drawing doesn't bring painting to a halt.
+        if (queuePosition < queueSize)
+            paintQueue(g, painter, startNanos + Math.max(FRAME_BUDGET_NANOS - compositeNanos, MIN_PAINT_NANOS));
+        if (queuePosition >= queueSize && !isPassComplete)
+            completePass();
+
+        long compositeStartNanos = System.nanoTime();
+        if (completeLayer != null && completeContentVersion == contentVersion) {
+            //NOTE: Maps the complete layer from the viewport it was painted for onto the current one.
+            double relativeScale = scale / completeScale;
+            layerTransform.setToTranslation(translationX, translationY);
+            layerTransform.scale(relativeScale, relativeScale);
+            layerTransform.translate(-completeTranslationX, -completeTranslationY);
+            layerTransform.scale(1 / completeDeviceScaleX, 1 / completeDeviceScaleY);
+            g.drawImage(completeLayer, layerTransform, null);
+        }
+        if (!isPassComplete) {
+            layerTransform.setTransform(1 / deviceScaleX, 0, 0, 1 / deviceScaleY, 0, 0);
+            g.drawImage(edgeLayer, layerTransform, null);
+            g.drawImage(nodeLayer, layerTransform, null);
+        }
+        paintOverlay(g, painter);
+        compositeNanos = System.nanoTime() - compositeStartNanos;
+        return isPassComplete;
+    }
+
+    /**
+     * Clears the layers, and queues every Node and Edge to be painted again in order of importance. The complete layer
+     * is kept until the new pass replaces it, but only drawn as long as the content of the Graph is the same.
+     */
+    private void restart() {
+        edgeLayer = clearOrCreate(edgeLayer);
+        nodeLayer = clearOrCreate(nodeLayer);
+
+        List<Node> nodes = graph.getNodes();
+        List<Edge> edges = graph.getEdges();
+        if (queue.length < 2 * (nodes.size() + edges.size()))
+            queue = new int[2 * (nodes.size() + edges.size())];
+        if (nodeOrder.length < nodes.size())
+            nodeOrder = new long[nodes.size()];
+        queueSize = 0;
+        queuePosition = 0;
+        isPassComplete = false;
+
+        //NOTE: Sorting the areas along with the indices packed into longs sorts the Nodes by area without boxing.
+        // Non-negative floats compare just like their bits.
+        for (int i = 0; i < nodes.size(); ++i) {
+            Rectangle2D bounds = nodes.get(i).getVisualBounds(scratchBounds);
+            int areaBits = Float.floatToIntBits((float)Math.max(0, bounds.getWidth() * bounds.getHeight()));
+            nodeOrder[i] = ((long)(Integer.MAX_VALUE - areaBits) << 32) | i;
+        }
+        Arrays.sort(nodeOrder, 0, nodes.size());
+
+        for (int k = 0; k < nodes.size(); ++k)
+            enqueue(NODE_SHAPE, (int)nodeOrder[k]);
+        for (int i = 0; i < edges.size(); ++i)
+            enqueue(EDGE_LINE, i);
+        for (int k = 0; k < nodes.size(); ++k)
+            enqueue(NODE_NAME, (int)nodeOrder[k]);
+        for (int i = 0; i < edges.size(); ++i)
+            enqueue(EDGE_WEIGHT, i);
+    }
+
+    /**
+     * Flattens the layers of the finished pass into a new complete layer, which replaces the last one. The old complete
+     * layer is reused for the next pass.
+     */
+    private void completePass() {
+        Graphics2D g = edgeLayer.createGraphics();
+        g.drawImage(nodeLayer, 0, 0, null);
+        g.dispose();
+
+        BufferedImage oldCompleteLayer = completeLayer;
+        completeLayer = edgeLayer;
+        edgeLayer = oldCompleteLayer;
+        completeDeviceScaleX = deviceScaleX;
+        completeDeviceScaleY = deviceScaleY;
+        completeTranslationX = translationX;
+        completeTranslationY = translationY;
+        completeScale = scale;
+        completeContentVersion = contentVersion;
+        isPassComplete = true;
+    }
+
+    /**
+     * Paints the queued Nodes and Edges into the layers until either all of them are painted, or the deadline of the
+     * frame has passed. At least one of them is painted, so that every frame makes progress.
+     */
+    private void paintQueue(Graphics2D g, GraphPainter painter, long deadline) {
+        Graphics2D edgeGraphics = createLayerGraphics(edgeLayer, g);
+        Graphics2D nodeGraphics = createLayerGraphics(nodeLayer, g);
+        AffineTransform edgeTransform = edgeGraphics.getTransform();
+        List<Node> nodes = graph.getNodes();
+        List<Edge> edges = graph.getEdges();
+
+        painter.setPlain(true);
+        try {
+            while (queuePosition < queueSize) {
+                int entry = queue[queuePosition++];
+                int index = entry & INDEX_MASK;
+                switch (entry >>> KIND_SHIFT) {
+                    case NODE_SHAPE:
+                        painter.paintNode(nodeGraphics, nodes.get(index), null, true, false);
+                        break;
+                    case NODE_NAME:
+                        painter.paintNode(nodeGraphics, nodes.get(index), null, false, true);
+                        break;
+                    case EDGE_LINE:
+                        painter.paintEdge(edgeGraphics, edges.get(index), edgeTransform, true, false);
+                        break;
+                    case EDGE_WEIGHT:
+                        painter.paintEdge(edgeGraphics, edges.get(index), edgeTransform, false, true);
+                        break;
+                }
+                if (System.nanoTime() > deadline)
+                    break;
+            }
+        } finally {
+            painter.setPlain(false);
+            edgeGraphics.dispose();
+            nodeGraphics.dispose();
+        }
+    }
+
+    /**
+     * Paints the selected, hovered, unfinished and animated Nodes and Edges directly with g, over the layers. Those are
+     * painted plainly in the layers, so that changing them doesn't make painting start over.
+     */
+    private void paintOverlay(Graphics2D g, GraphPainter painter) {
+        collectOverlay();
+        if (overlayEdges.isEmpty() && overlayNodes.isEmpty())
+            return;
+
+        AffineTransform panelTransform = g.getTransform();
+        g.translate(translationX, translationY);
+        g.scale(scale, scale);
+        AffineTransform edgeTransform = g.getTransform();
+        Shape clip = g.getClip();
+        for (int i = 0; i < overlayEdges.size(); ++i)
+            painter.paintEdge(g, overlayEdges.get(i), edgeTransform);
+        for (int i = 0; i < overlayNodes.size(); ++i)
+            painter.paintNode(g, overlayNodes.get(i), clip);
+        g.setTransform(panelTransform);
+    }
+
+    /**
+     * Collects the Nodes and Edges that paintOverlay() paints, each of them once.
+     */
+    private void collectOverlay() {
+        overlayElements.clear();
+        overlayEdges.clear();
+        overlayNodes.clear();
+
+        addToOverlay(overlayEdges, graph.getSelectedEdges());
+        addToOverlay(overlayEdges, graph.getHoveredEdge());
+        addToOverlay(overlayEdges, graph.getUnfinishedEdges());
+        addToOverlay(overlayNodes, graph.getSelectedNodes());
+        addToOverlay(overlayNodes, graph.getHoveredNode());
+        if (AnimationOverlay.isEmpty())
+            return;
+
+        boolean isNodeTransformed = false;
+        for (Object element : AnimationOverlay.getAnimatedElements()) {
+            if (element instanceof Node) {
+                addToOverlay(overlayNodes, (Node)element);
+                isNodeTransformed |= AnimationOverlay.getTween(element).isTransformed();
+            } else if (element instanceof Edge)
+                addToOverlay(overlayEdges, (Edge)element);
+        }
+
+        //NOTE: Edges move along with their animated Nodes. Since a Node doesn't know its Edges, finding them takes a
+        // look at every Edge - but only while a Node is being moved or scaled.
+        if (isNodeTransformed) {
+            List<Edge> edges = graph.getEdges();
+            for (int i = 0; i < edges.size(); ++i) {
+                Edge edge = edges.get(i);
+                if (AnimationOverlay.getEdgeTransform(edge) != null)
+                    addToOverlay(overlayEdges, edge);
+            }
+        }
+    }
+
+    private <T> void addToOverlay(List<T> overlay, List<T> elements) {
+        for (int i = 0; i < elements.size(); ++i)
+            addToOverlay(overlay, elements.get(i));
+    }
+
+    private <T> void addToOverlay(List<T> overlay, T element) {
+        if (element != null && overlayElements.add(element))
+            overlay.add(element);
+    }
+
+    /**
+     * @return A Graphics2D object that paints into the given layer in graph space, with the rendering hints of g.
+     */
+    private Graphics2D createLayerGraphics(BufferedImage layer, Graphics2D g) {
+        Graphics2D layerGraphics = layer.createGraphics();
+        layerGraphics.setRenderingHints(g.getRenderingHints());
+        layerGraphics.setStroke(GraphPainter.DEFAULT_STROKE);
+        layerGraphics.scale(deviceScaleX, deviceScaleY);
+        layerGraphics.translate(translationX, translationY);
+        layerGraphics.scale(scale, scale);
+        return layerGraphics;
+    }
+
+    /**
+     * @param layer A layer to reuse, or null.
+     * @return The given layer with every pixel made transparent, or a new transparent layer if it doesn't have the size
+     * of the view.
+     */
+    private BufferedImage clearOrCreate(BufferedImage layer) {
+        if (layer == null || layer.getWidth() != deviceWidth || layer.getHeight() != deviceHeight)
+            return new BufferedImage(deviceWidth, deviceHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+
+        Graphics2D g = layer.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+        g.dispose();
+        return layer;
+    }
+
+    private void enqueue(int kind, int index) {
+        queue[queueSize++] = (kind << KIND_SHIFT) | index;
+    }
+}
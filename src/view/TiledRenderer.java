@@ -0,0 +1,279 @@
+package view;
+
+import model.Edge;
+import model.Graph;
+import model.Node;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+* @version 1.1
+ *
+ * The TiledRenderer paints the Nodes and Edges of a Graph on several threads at once. The view is split into
+ * horizontal strips, every Node and Edge is bucketed into the strips that its painted bounds overlap, and the strips
+ * are painted into offscreen images by a pool of worker threads, each with a GraphPainter of its own. The finished
+ * strips are then drawn on top of each other in the original Graphics2D.
+ *
+ * The buckets are packed into two flat int arrays, just like the cells of a SpatialGrid, and both the arrays and the
+ * strip images are kept from one frame to the next. Everything that the workers only read lazily, like the flattened
+ * paths of Edges, is brought up to date while bucketing, and paint() waits until every strip is finished - so the
+ * Graph doesn't change while the workers read it, as long as it is only changed on the painting thread. The same goes
+ * for the AnimationOverlay, which the workers read through their GraphPainters: it is only changed on the Event
+ * Dispatch Thread, which is blocked in paint() for as long as the workers run.
+ *
+ * @see GraphPainter
+ * @see GraphPanel
+ * @see utils.SpatialGrid
+ */
+final class TiledRenderer {
+
+    private static final int STRIPS_PER_WORKER = 4;
+
+    private final Graph graph;
+    private final int workerCount;
+    private final ExecutorService workers;
+    private final ThreadLocal<GraphPainter> painters;
+    private final List<Callable<Void>> stripTasks;
+    private final Rectangle2D.Double scratchBounds;
+    private final AffineTransform stripTransform;
+    private final Rectangle2D.Double visibleBounds;
+
+    //NOTE: The state of the frame that is currently being painted, which the strip tasks read.
+    private BufferedImage[] stripImages;
+    private int stripCount;
+    private int stripHeight;
+    private double deviceScaleX;
+    private double deviceScaleY;
+    private double translationX;
+    private double translationY;
+    private double scale;
+    private Color background;
+    private Object antialiasing;
+    private int edgeCount;
+    private int[] firstStrips;
+    private int[] lastStrips;
+    private int[] stripStarts;
+    private int[] stripItems;
+
+    /**
+     * Constructs a TiledRenderer with one worker thread per processor.
+     *
+     * @param graph The Graph whose Nodes and Edges will be painted.
+     */
+    TiledRenderer(Graph graph) {
+        this.graph = graph;
+        this.workerCount = Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "Graph renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.painters = ThreadLocal.withInitial(() -> new GraphPainter(graph));
+        this.stripTasks = new ArrayList<>();
+        this.scratchBounds = new Rectangle2D.Double();
+        this.stripTransform = new AffineTransform();
+        this.visibleBounds = new Rectangle2D.Double();
+        this.firstStrips = new int[0];
+        this.lastStrips = new int[0];
+        this.stripStarts = new int[1];
+        this.stripItems = new int[0];
+    }
+
+    /**
+     * Paints all Nodes and Edges of the Graph, like GraphPainter.paintEdges() followed by GraphPainter.paintNodes().
+     *
+     * @param g The Graphics2D object to paint with, in panel space.
+     * @param painter The GraphPainter of the calling thread, used to measure the Nodes and Edges.
+     * @param width The width of the panel.
+     * @param height The height of the panel.
+     * @param translationX The horizontal translation of the panel's view.
+     * @param translationY The vertical translation of the panel's view.
+     * @param scale The scale of the panel's view.
+     * @param visibleBounds The visible part of the Graph in graph space.
+     * @param background The Color to fill the strips with before painting into them.
+     */
+    void paint(Graphics2D g, GraphPainter painter, int width, int height, double translationX, double translationY,
+               double scale, Rectangle2D visibleBounds, Color background) {
+        //NOTE: The strips are painted in device space, so that they are just as sharp as painting directly with g.
+        AffineTransform deviceTransform = g.getTransform();
+        int deviceWidth = (int)Math.ceil(width * deviceTransform.getScaleX());
+        int deviceHeight = (int)Math.ceil(height * deviceTransform.getScaleY());
+        if (deviceWidth <= 0 || deviceHeight <= 0)
+            return;
+
+        this.deviceScaleX = deviceTransform.getScaleX();
+        this.deviceScaleY = deviceTransform.getScaleY();
+        this.translationX = translationX;
+        this.translationY = translationY;
+        this.scale = scale;
+        this.visibleBounds.setRect(visibleBounds);
+        this.background = background;
+        this.antialiasing = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        prepareStrips(deviceWidth, deviceHeight);
+
+        Graphics2D measure = (Graphics2D)g.create();
+        measure.translate(translationX, translationY);
+        measure.scale(scale, scale);
+        painter.setView(scale, visibleBounds);
+        bucket(measure, painter);
+        measure.dispose();
+
+        try {
+            for (Future<Void> result : workers.invokeAll(stripTasks.subList(0, stripCount)))
+                result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if (cause instanceof Error)
+                throw (Error)cause;
+            throw new IllegalStateException(cause);
+        }
+
+        for (int strip = 0; strip < stripCount; ++strip) {
+            stripTransform.setTransform(1 / deviceScaleX, 0, 0, 1 / deviceScaleY, 0, strip * stripHeight / deviceScaleY);
+            g.drawImage(stripImages[strip], stripTransform, null);
+        }
+    }
+
+    /**
+     * Stops the worker threads. The TiledRenderer can't be used anymore afterwards.
+     */
+    void dispose() {
+        workers.shutdown();
+    }
+
+    /**
+     * Splits the view into strips, and makes sure there is an image of the right size for each of them.
+     */
+    private void prepareStrips(int deviceWidth, int deviceHeight) {
+        int count = Math.min(workerCount * STRIPS_PER_WORKER, deviceHeight);
+        stripHeight = (deviceHeight + count - 1) / count;
+        stripCount = (deviceHeight + stripHeight - 1) / stripHeight;
+
+        if (stripImages == null || stripImages.length < stripCount || stripImages[0].getWidth() != deviceWidth
+                || stripImages[0].getHeight() != stripHeight) {
+            stripImages = new BufferedImage[stripCount];
+            for (int strip = 0; strip < stripCount; ++strip)
+                stripImages[strip] = new BufferedImage(deviceWidth, stripHeight, BufferedImage.TYPE_INT_RGB);
+        }
+        while (stripTasks.size() < stripCount) {
+            int strip = stripTasks.size();
+            stripTasks.add(() -> {
+                paintStrip(strip);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Buckets every visible Node and Edge into the strips that its painted bounds overlap. Edges come before Nodes, in
+     * the same order that they are painted in.
+     */
+    private void bucket(Graphics2D g, GraphPainter painter) {
+        List<Edge> edges = graph.getEdges();
+        List<Edge> unfinishedEdges = graph.getUnfinishedEdges();
+        List<Node> nodes = graph.getNodes();
+        edgeCount = edges.size() + unfinishedEdges.size();
+        int count = edgeCount + nodes.size();
+        if (firstStrips.length < count) {
+            firstStrips = new int[count];
+            lastStrips = new int[count];
+        }
+
+        //NOTE: First find the strips of every item and count the items per strip, then turn the counts into start
+        // offsets, and finally fill the strips.
+        if (stripStarts.length < stripCount + 1)
+            stripStarts = new int[stripCount + 1];
+        Arrays.fill(stripStarts, 0);
+        for (int i = 0; i < count; ++i) {
+            Rectangle2D bounds;
+            if (i < edges.size())
+                bounds = painter.getPaintedBounds(g, edges.get(i), scratchBounds);
+            else if (i < edgeCount)
+                bounds = painter.getPaintedBounds(g, unfinishedEdges.get(i - edges.size()), scratchBounds);
+            else
+                bounds = painter.getPaintedBounds(nodes.get(i - edgeCount), scratchBounds);
+
+            if (!bounds.intersects(visibleBounds)) {
+                firstStrips[i] = 0;
+                lastStrips[i] = -1;
+                continue;
+            }
+            firstStrips[i] = stripOf(bounds.getMinY());
+            lastStrips[i] = stripOf(bounds.getMaxY());
+            for (int strip = firstStrips[i]; strip <= lastStrips[i]; ++strip)
+                ++stripStarts[strip + 1];
+        }
+        for (int strip = 0; strip < stripCount; ++strip)
+            stripStarts[strip + 1] += stripStarts[strip];
+
+        if (stripItems.length < stripStarts[stripCount])
+            stripItems = new int[stripStarts[stripCount]];
+        int[] stripEnds = Arrays.copyOf(stripStarts, stripCount);
+        for (int i = 0; i < count; ++i) {
+            for (int strip = firstStrips[i]; strip <= lastStrips[i]; ++strip)
+                stripItems[stripEnds[strip]++] = i;
+        }
+    }
+
+    /**
+     * @param y A y coordinate in graph space.
+     * @return The strip containing the coordinate, clamped to the strips.
+     */
+    private int stripOf(double y) {
+        double deviceY = (y * scale + translationY) * deviceScaleY;
+        int strip = (int)Math.floor(deviceY / stripHeight);
+        return Math.max(0, Math.min(stripCount - 1, strip));
+    }
+
+    /**
+     * Paints the Nodes and Edges of a single strip into its image. This runs on one of the worker threads.
+     */
+    private void paintStrip(int strip) {
+        BufferedImage image = stripImages[strip];
+        Graphics2D g = image.createGraphics();
+        g.setColor(background);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+        g.setStroke(GraphPainter.DEFAULT_STROKE);
+
+        g.translate(0, -strip * stripHeight);
+        g.scale(deviceScaleX, deviceScaleY);
+        g.translate(translationX, translationY);
+        g.scale(scale, scale);
+
+        GraphPainter painter = painters.get();
+        painter.setView(scale, visibleBounds);
+        List<Edge> edges = graph.getEdges();
+        List<Edge> unfinishedEdges = graph.getUnfinishedEdges();
+        List<Node> nodes = graph.getNodes();
+        Shape clip = g.getClip();
+        AffineTransform transform = g.getTransform();
+        for (int k = stripStarts[strip]; k < stripStarts[strip + 1]; ++k) {
+            int i = stripItems[k];
+            if (i < edges.size())
+                painter.paintEdge(g, edges.get(i), transform);
+            else if (i < edgeCount)
+                painter.paintEdge(g, unfinishedEdges.get(i - edges.size()), transform);
+            else
+                painter.paintNode(g, nodes.get(i - edgeCount), clip);
+        }
+        g.dispose();
+    }
+}